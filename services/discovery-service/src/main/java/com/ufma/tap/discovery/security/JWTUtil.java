@@ -2,15 +2,22 @@
 package com.ufma.tap.discovery.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class JWTUtil {
@@ -21,8 +28,34 @@ public class JWTUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
 
+    @Value("${jwt.cache.max-size:10000}") // Quantidade máxima de tokens verificados mantidos em cache
+    private int verifiedTokenCacheMaxSize;
+
+    private Key signingKey;
+    private JwtParser jwtParser;
+
+    // Digest SHA-256 do token -> claims já verificados
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    // Chave HMAC e parser são imutáveis e thread-safe: construídos uma única vez na inicialização
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey) // Usa a mesma chave para verificar a assinatura
+                .build();
+    }
+
     private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+        return signingKey;
     }
 
     public String generateToken(String userId, String projectId) {
@@ -38,11 +71,26 @@ public class JWTUtil {
     }
 
     public Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        // Tokens já verificados são servidos do cache até o seu 'exp', sem nova verificação de assinatura
+        String tokenDigest = digest(token);
+        long now = System.currentTimeMillis();
+        VerifiedToken cached = verifiedTokens.get(tokenDigest);
+        if (cached != null) {
+            if (cached.expiresAt > now) {
+                return cached.claims;
+            }
+            verifiedTokens.remove(tokenDigest, cached);
+        }
+
+        Claims claims = jwtParser.parseClaimsJws(token).getBody(); // Verifica assinatura e expiração
+        Date tokenExpiration = claims.getExpiration();
+        if (tokenExpiration != null) {
+            if (verifiedTokens.size() >= verifiedTokenCacheMaxSize) {
+                evictVerifiedTokens(now);
+            }
+            verifiedTokens.put(tokenDigest, new VerifiedToken(claims, tokenExpiration.getTime()));
+        }
+        return claims;
     }
 
     public String extractSubject(String token) {
@@ -74,4 +122,27 @@ public class JWTUtil {
             return false;
         }
     }
+
+    private String digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(hash);
+    }
+
+    // Remove os tokens expirados; se o cache continuar cheio, descarta tudo (os tokens são reverificados na próxima chamada)
+    private void evictVerifiedTokens(long now) {
+        verifiedTokens.values().removeIf(verifiedToken -> verifiedToken.expiresAt <= now);
+        if (verifiedTokens.size() >= verifiedTokenCacheMaxSize) {
+            verifiedTokens.clear();
+        }
+    }
+
+    private static final class VerifiedToken {
+        private final Claims claims;
+        private final long expiresAt;
+
+        private VerifiedToken(Claims claims, long expiresAt) {
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+        }
+    }
 }
\ No newline at end of file
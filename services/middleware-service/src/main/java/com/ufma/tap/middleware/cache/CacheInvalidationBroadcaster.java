@@ -0,0 +1,126 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/cache/CacheInvalidationBroadcaster.java
+package com.ufma.tap.middleware.cache;
+
+import com.google.gson.Gson;
+import com.ufma.tap.middleware.config.ExecutionThreads;
+import com.ufma.tap.middleware.model.Consumer;
+import com.ufma.tap.middleware.model.Producer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+// Invalida entradas dos caches de Producer/Consumer nesta réplica e propaga a invalidação
+// para as demais réplicas do middleware através de um fanout exchange no RabbitMQ.
+@Component
+public class CacheInvalidationBroadcaster {
+
+    // Deve ser o mesmo nome em todas as réplicas do middleware-service
+    public static final String CACHE_INVALIDATION_EXCHANGE = "middleware.cache.invalidation";
+
+    private static final String PRODUCER = "producer";
+    private static final String CONSUMER = "consumer";
+
+    @Autowired
+    private EntityCache<Producer> producerCache;
+
+    @Autowired
+    private EntityCache<Consumer> consumerCache;
+
+    @Autowired
+    private AmqpTemplate rabbitTemplate;
+
+    @Autowired
+    private ConnectionFactory rabbitConnectionFactory;
+
+    @Autowired
+    private ExecutionThreads executionThreads;
+
+    @Autowired
+    @Qualifier("cacheInvalidationQueue")
+    private Queue cacheInvalidationQueue; // Fila exclusiva desta réplica, ligada ao fanout
+
+    private final Gson gson = new Gson();
+    // Identifica esta réplica para ignorar as próprias mensagens (a invalidação local já foi feita)
+    private final String replicaId = UUID.randomUUID().toString();
+    private SimpleMessageListenerContainer container;
+
+    @PostConstruct
+    public void startListening() {
+        container = new SimpleMessageListenerContainer(rabbitConnectionFactory);
+        container.setQueues(cacheInvalidationQueue);
+        container.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        AsyncTaskExecutor listenerExecutor = executionThreads.listenerExecutor("cache-invalidation-");
+        if (listenerExecutor != null) {
+            container.setTaskExecutor(listenerExecutor);
+        }
+        container.setMessageListener(message -> {
+            try {
+                CacheInvalidationEvent event = gson.fromJson(new String(message.getBody(), StandardCharsets.UTF_8), CacheInvalidationEvent.class);
+                if (!replicaId.equals(event.replicaId)) {
+                    invalidateLocal(event.type, event.id);
+                }
+            } catch (Exception e) {
+                System.err.println("Error processing cache invalidation event: " + e.getMessage());
+            }
+        });
+        container.start();
+    }
+
+    @PreDestroy
+    public void stopListening() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    public void invalidateProducer(String producerId) {
+        invalidateLocal(PRODUCER, producerId);
+        broadcast(PRODUCER, producerId);
+    }
+
+    public void invalidateConsumer(String consumerId) {
+        invalidateLocal(CONSUMER, consumerId);
+        broadcast(CONSUMER, consumerId);
+    }
+
+    private void invalidateLocal(String type, String id) {
+        if (PRODUCER.equals(type)) {
+            producerCache.invalidate(id);
+        } else if (CONSUMER.equals(type)) {
+            consumerCache.invalidate(id);
+        }
+    }
+
+    private void broadcast(String type, String id) {
+        try {
+            String eventJson = gson.toJson(new CacheInvalidationEvent(type, id, replicaId));
+            rabbitTemplate.convertAndSend(CACHE_INVALIDATION_EXCHANGE, "", eventJson);
+        } catch (Exception e) {
+            // As outras réplicas ainda expiram a entrada pelo TTL do cache
+            System.err.println("Failed to broadcast cache invalidation for " + type + " " + id + ": " + e.getMessage());
+        }
+    }
+
+    private static class CacheInvalidationEvent {
+        private String type;
+        private String id;
+        private String replicaId;
+
+        private CacheInvalidationEvent(String type, String id, String replicaId) {
+            this.type = type;
+            this.id = id;
+            this.replicaId = replicaId;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,169 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/cache/EntityCache.java
+package com.ufma.tap.middleware.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// Cache read-through limitado para entidades lidas com frequência e raramente alteradas (Producer, Consumer).
+// - Cargas concorrentes para o mesmo id são colapsadas em uma única ida ao banco (todas aguardam o mesmo future).
+// - Ao ultrapassar o tamanho máximo, as entradas mais antigas são removidas (ordem de inserção). A ordem guarda no
+//   máximo uma posição por id, com a entrada que a criou: recargas e invalidações não deixam posições duplicadas.
+// - Entradas expiram após o TTL, como proteção caso alguma invalidação entre réplicas se perca.
+// - Entidades não encontradas não são armazenadas.
+public class EntityCache<V> {
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlMs;
+
+    private final ConcurrentHashMap<String, CacheEntry<V>> entries = new ConcurrentHashMap<>();
+    // id -> entrada carregada, na ordem de carga; só é alterada em cargas e invalidações (nunca em acertos)
+    private final LinkedHashMap<String, CacheEntry<V>> insertionOrder = new LinkedHashMap<>();
+    private final ReentrantLock orderLock = new ReentrantLock();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public EntityCache(String name, int maxSize, long ttlMs) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlMs = ttlMs;
+    }
+
+    public Optional<V> get(String key, Function<String, Optional<V>> loader) {
+        long now = System.currentTimeMillis();
+        CacheEntry<V> entry = entries.get(key);
+        if (entry != null && !entry.isExpired(now)) {
+            hits.incrementAndGet();
+            return await(entry);
+        }
+
+        CacheEntry<V> candidate = new CacheEntry<>(now + ttlMs);
+        entry = entries.compute(key, (k, current) -> (current == null || current.isExpired(now)) ? candidate : current);
+        if (entry != candidate) {
+            // Outra thread já está carregando (ou acabou de carregar) este id
+            hits.incrementAndGet();
+            return await(entry);
+        }
+
+        misses.incrementAndGet();
+        Optional<V> loaded;
+        try {
+            loaded = loader.apply(key);
+        } catch (RuntimeException e) {
+            entries.remove(key, candidate);
+            forgetStaleOrder(key);
+            candidate.future.completeExceptionally(e);
+            throw e;
+        }
+        if (loaded.isEmpty()) {
+            entries.remove(key, candidate);
+            forgetStaleOrder(key);
+        } else {
+            recordAndEvict(key, candidate);
+        }
+        candidate.future.complete(loaded);
+        return loaded;
+    }
+
+    public void invalidate(String key) {
+        orderLock.lock();
+        try {
+            entries.remove(key);
+            insertionOrder.remove(key);
+        } finally {
+            orderLock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        orderLock.lock();
+        try {
+            entries.clear();
+            insertionOrder.clear();
+        } finally {
+            orderLock.unlock();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    // Recarga de um id já presente move a posição dele para o fim, com a entrada nova
+    private void recordAndEvict(String key, CacheEntry<V> entry) {
+        orderLock.lock();
+        try {
+            if (entries.get(key) != entry) {
+                return; // Invalidado enquanto carregava
+            }
+            insertionOrder.remove(key);
+            insertionOrder.put(key, entry);
+            Iterator<Map.Entry<String, CacheEntry<V>>> oldest = insertionOrder.entrySet().iterator();
+            while (insertionOrder.size() > maxSize && oldest.hasNext()) {
+                Map.Entry<String, CacheEntry<V>> evicted = oldest.next();
+                oldest.remove();
+                entries.remove(evicted.getKey(), evicted.getValue()); // Só a entrada que criou esta posição
+            }
+        } finally {
+            orderLock.unlock();
+        }
+    }
+
+    // Carga falhou ou não achou nada: descarta a posição antiga do id se ela não corresponde mais a uma entrada viva
+    private void forgetStaleOrder(String key) {
+        orderLock.lock();
+        try {
+            CacheEntry<V> tracked = insertionOrder.get(key);
+            if (tracked != null && entries.get(key) != tracked) {
+                insertionOrder.remove(key);
+            }
+        } finally {
+            orderLock.unlock();
+        }
+    }
+
+    private Optional<V> await(CacheEntry<V> entry) {
+        try {
+            return entry.future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static final class CacheEntry<V> {
+        private final CompletableFuture<Optional<V>> future = new CompletableFuture<>();
+        private final long expiresAt;
+
+        private CacheEntry(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,179 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/cache/IdempotencyWindow.java
+package com.ufma.tap.middleware.cache;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Janela de deduplicação das chaves de idempotência (por produtor: a chave interna é producerId + chave do cliente).
+// - Conjunto exato das chaves recentes (limitado em tamanho): detecta reenvios concorrentes/recentes e devolve o resultado do original.
+// - Bloom filter rotativo: cobre o resto da janela com memória fixa, depois que a chave já saiu do conjunto exato.
+// Uma chave só entra no Bloom filter quando o envio é confirmado; se o envio falhar ela é liberada e o cliente pode tentar de novo.
+// Um reenvio que chega com o original ainda em voo não é dado como sucesso: acompanha o future do original (Claim.getOriginal).
+@Component
+public class IdempotencyWindow {
+
+    @Value("${middleware.idempotency.window-ms:600000}")
+    private long windowMs;
+
+    @Value("${middleware.idempotency.exact-max-entries:100000}")
+    private int exactMaxEntries;
+
+    @Value("${middleware.idempotency.bloom-generations:4}")
+    private int bloomGenerations;
+
+    @Value("${middleware.idempotency.bloom-expected-keys:1000000}")
+    private long bloomExpectedKeys; // Chaves esperadas por janela nesta réplica
+
+    @Value("${middleware.idempotency.bloom-false-positive-rate:0.0001}")
+    private double bloomFalsePositiveRate;
+
+    private RotatingBloomFilter confirmedKeys;
+
+    private final ConcurrentHashMap<String, RecentKey> recentKeys = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<RecentKey> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    public IdempotencyWindow() {
+    }
+
+    // Configuração explícita, sem Spring (testes); o relógio vem de quem chama as variantes com nowMs
+    IdempotencyWindow(long windowMs, int exactMaxEntries, int bloomGenerations, long bloomExpectedKeys, double bloomFalsePositiveRate, long startMs) {
+        this.windowMs = windowMs;
+        this.exactMaxEntries = exactMaxEntries;
+        this.bloomGenerations = bloomGenerations;
+        this.bloomExpectedKeys = bloomExpectedKeys;
+        this.bloomFalsePositiveRate = bloomFalsePositiveRate;
+        this.confirmedKeys = new RotatingBloomFilter(windowMs, bloomGenerations, bloomExpectedKeys, bloomFalsePositiveRate, startMs);
+    }
+
+    @PostConstruct
+    public void init() {
+        confirmedKeys = new RotatingBloomFilter(windowMs, bloomGenerations, bloomExpectedKeys, bloomFalsePositiveRate);
+        System.out.println("Idempotency window: " + windowMs + " ms, Bloom filter using " + confirmedKeys.memoryBytes() / 1024 + " KiB.");
+    }
+
+    /**
+     * Reserva a chave para um novo envio.
+     * @return Claim.accepted se é a primeira vez que a chave aparece na janela (quem reservou chama confirm ou release
+     *         com ele); senão Claim.duplicate, com o messageId original quando ele ainda está no conjunto exato
+     *         (null se só o Bloom filter lembra da chave) e o future do envio original.
+     */
+    public Claim claim(String producerId, String idempotencyKey, String messageId) {
+        return claim(producerId, idempotencyKey, messageId, System.currentTimeMillis());
+    }
+
+    Claim claim(String producerId, String idempotencyKey, String messageId, long now) {
+        String key = producerId + ":" + idempotencyKey;
+        evictRecent(now);
+
+        RecentKey candidate = new RecentKey(key, messageId, now);
+        RecentKey existing = recentKeys.putIfAbsent(key, candidate);
+        if (existing != null && now - existing.createdAtMs <= windowMs) {
+            return Claim.duplicate(existing.messageId, existing.outcome);
+        }
+        if (existing != null) {
+            recentKeys.replace(key, existing, candidate); // Entrada vencida ainda não removida
+        } else if (confirmedKeys.mightContain(key, now)) {
+            recentKeys.remove(key, candidate);
+            return Claim.duplicate(null, CompletableFuture.completedFuture(null)); // Só confirmadas chegam ao Bloom filter
+        }
+        insertionOrder.add(candidate);
+        queued.incrementAndGet();
+        return Claim.accepted(candidate);
+    }
+
+    // Envio confirmado pelo broker (ou agendado): a chave passa a valer pela janela inteira e os reenvios que
+    // aguardavam o original concluem com o messageId dele
+    public void confirm(Claim claim) {
+        confirm(claim, System.currentTimeMillis());
+    }
+
+    void confirm(Claim claim, long nowMs) {
+        RecentKey recentKey = claim.recentKey;
+        if (recentKey == null) {
+            return; // Duplicata: não reservou nada
+        }
+        confirmedKeys.put(recentKey.key, nowMs);
+        recentKey.outcome.complete(recentKey.messageId);
+    }
+
+    // Envio falhou: libera a chave para que a nova tentativa do cliente seja publicada. Os reenvios que aguardavam
+    // o original recebem a falha (com a chave já livre) e reservam a chave de novo para publicar.
+    public void release(Claim claim) {
+        RecentKey recentKey = claim.recentKey;
+        if (recentKey == null) {
+            return;
+        }
+        recentKeys.remove(recentKey.key, recentKey); // Só a reserva desta tentativa: uma reserva mais nova continua valendo
+        recentKey.outcome.completeExceptionally(new IllegalStateException("Original send for idempotency key failed; key released."));
+    }
+
+    private void evictRecent(long now) {
+        RecentKey oldest;
+        while ((oldest = insertionOrder.peek()) != null
+                && (queued.get() > exactMaxEntries || now - oldest.createdAtMs > windowMs)) {
+            RecentKey evicted = insertionOrder.poll();
+            if (evicted != null) {
+                queued.decrementAndGet();
+                recentKeys.remove(evicted.key, evicted);
+            }
+        }
+    }
+
+    public static final class Claim {
+        private final boolean duplicate;
+        private final String messageId;
+        private final RecentKey recentKey; // Reserva feita por este claim (null em duplicatas)
+        private final CompletableFuture<String> original;
+
+        private Claim(boolean duplicate, String messageId, RecentKey recentKey, CompletableFuture<String> original) {
+            this.duplicate = duplicate;
+            this.messageId = messageId;
+            this.recentKey = recentKey;
+            this.original = original;
+        }
+
+        static Claim accepted(RecentKey recentKey) {
+            return new Claim(false, recentKey.messageId, recentKey, recentKey.outcome);
+        }
+
+        static Claim duplicate(String originalMessageId, CompletableFuture<String> original) {
+            return new Claim(true, originalMessageId, null, original);
+        }
+
+        public boolean isDuplicate() {
+            return duplicate;
+        }
+
+        public String getMessageId() {
+            return messageId;
+        }
+
+        /**
+         * Resultado do envio original: já concluído com o messageId se ele foi confirmado (null se só o Bloom filter
+         * lembra da chave), pendente enquanto ele estiver em voo, e com erro se ele falhar e a chave for liberada.
+         */
+        public CompletableFuture<String> getOriginal() {
+            return original;
+        }
+    }
+
+    private static final class RecentKey {
+        private final String key;
+        private final String messageId;
+        private final long createdAtMs;
+        private final CompletableFuture<String> outcome = new CompletableFuture<>();
+
+        private RecentKey(String key, String messageId, long createdAtMs) {
+            this.key = key;
+            this.messageId = messageId;
+            this.createdAtMs = createdAtMs;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,124 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/cache/RotatingBloomFilter.java
+package com.ufma.tap.middleware.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bloom filter com janela de tempo: 'generations' filtros, cada um cobrindo windowMs / generations.
+// Inserções vão para a geração atual; consultas olham todas. Ao girar, a geração mais antiga é descartada,
+// então uma chave é lembrada por pelo menos (generations - 1) / generations da janela e no máximo a janela inteira.
+// Memória fixa (independe do número de chaves); falsos positivos na taxa configurada, nunca falsos negativos.
+public class RotatingBloomFilter {
+
+    private final int generations;
+    private final long generationMs;
+    private final int bitsPerGeneration;
+    private final int hashFunctions;
+
+    private final AtomicLongArray[] filters;
+    private volatile int current;
+    private volatile long currentStartMs;
+
+    public RotatingBloomFilter(long windowMs, int generations, long expectedKeysPerWindow, double falsePositiveRate) {
+        this(windowMs, generations, expectedKeysPerWindow, falsePositiveRate, System.currentTimeMillis());
+    }
+
+    // startMs: início da primeira geração (o mesmo relógio do nowMs passado em put/mightContain)
+    public RotatingBloomFilter(long windowMs, int generations, long expectedKeysPerWindow, double falsePositiveRate, long startMs) {
+        this.generations = Math.max(2, generations);
+        this.generationMs = Math.max(1, windowMs / this.generations);
+        long keysPerGeneration = Math.max(1, expectedKeysPerWindow / this.generations);
+        // Dimensionamento clássico: m = -n ln p / (ln 2)^2, k = m/n ln 2
+        long bits = (long) Math.ceil(-keysPerGeneration * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitsPerGeneration = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, bits));
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitsPerGeneration / keysPerGeneration * Math.log(2)));
+        this.filters = new AtomicLongArray[this.generations];
+        for (int i = 0; i < this.generations; i++) {
+            filters[i] = new AtomicLongArray((bitsPerGeneration + 63) / 64);
+        }
+        this.currentStartMs = startMs;
+    }
+
+    public void put(String key, long nowMs) {
+        rotateIfNeeded(nowMs);
+        AtomicLongArray filter = filters[current];
+        long hash = hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashFunctions; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitsPerGeneration);
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            if ((filter.get(word) & mask) == 0) {
+                filter.getAndAccumulate(word, mask, (a, b) -> a | b);
+            }
+        }
+    }
+
+    public boolean mightContain(String key, long nowMs) {
+        rotateIfNeeded(nowMs);
+        long hash = hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (AtomicLongArray filter : filters) {
+            boolean all = true;
+            for (int i = 0; i < hashFunctions && all; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitsPerGeneration);
+                all = (filter.get(bit >>> 6) & (1L << bit)) != 0;
+            }
+            if (all) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int bitsPerGeneration() {
+        return bitsPerGeneration;
+    }
+
+    int hashFunctions() {
+        return hashFunctions;
+    }
+
+    public long memoryBytes() {
+        return (long) generations * ((bitsPerGeneration + 63) / 64) * 8L;
+    }
+
+    private void rotateIfNeeded(long nowMs) {
+        if (nowMs - currentStartMs < generationMs) {
+            return;
+        }
+        synchronized (this) {
+            if (nowMs - currentStartMs >= generationMs * generations) {
+                // Ociosa por uma janela inteira: nenhuma geração guarda chave ainda válida
+                for (int i = 0; i < generations; i++) {
+                    filters[i] = new AtomicLongArray((bitsPerGeneration + 63) / 64);
+                }
+                currentStartMs = nowMs;
+                return;
+            }
+            while (nowMs - currentStartMs >= generationMs) {
+                int next = (current + 1) % generations;
+                filters[next] = new AtomicLongArray((bitsPerGeneration + 63) / 64); // Descarta a geração mais antiga
+                current = next;
+                currentStartMs += generationMs;
+            }
+        }
+    }
+
+    // FNV-1a 64 bits seguido de um finalizador de mistura (splitmix64) para espalhar bem os bits usados pelos dois hashes
+    private static long hash64(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 30;
+        hash *= 0xbf58476d1ce4e5b9L;
+        hash ^= hash >>> 27;
+        hash *= 0x94d049bb133111ebL;
+        hash ^= hash >>> 31;
+        return hash;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/config/ActiveMQConfig.java
+package com.ufma.tap.middleware.config;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.messaginghub.pooled.jms.JmsPoolConnectionFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jms.core.JmsTemplate;
+
+@Configuration
+public class ActiveMQConfig {
+
+    @Value("${middleware.activemq.broker-url:tcp://activemq:61616}")
+    private String brokerUrl;
+
+    @Value("${middleware.activemq.username:}")
+    private String username;
+
+    @Value("${middleware.activemq.password:}")
+    private String password;
+
+    @Value("${middleware.activemq.pool.max-connections:4}")
+    private int maxConnections;
+
+    @Value("${middleware.activemq.pool.max-sessions-per-connection:100}")
+    private int maxSessionsPerConnection;
+
+    // Fábrica "crua": usada pelos listener containers, que já mantêm sua própria conexão/sessão/consumer abertos
+    @Bean
+    public ActiveMQConnectionFactory activeMQConnectionFactory() {
+        ActiveMQConnectionFactory connectionFactory = new ActiveMQConnectionFactory(brokerUrl);
+        if (!username.isEmpty()) {
+            connectionFactory.setUserName(username);
+            connectionFactory.setPassword(password);
+        }
+        return connectionFactory;
+    }
+
+    // Pool de conexões e sessões para envio: cada send pega uma sessão já aberta (com seu MessageProducer em cache)
+    // em vez de abrir conexão + sessão + producer a cada mensagem.
+    @Bean(destroyMethod = "stop")
+    public JmsPoolConnectionFactory activeMQPooledConnectionFactory(ActiveMQConnectionFactory activeMQConnectionFactory) {
+        JmsPoolConnectionFactory pooledConnectionFactory = new JmsPoolConnectionFactory();
+        pooledConnectionFactory.setConnectionFactory(activeMQConnectionFactory);
+        pooledConnectionFactory.setMaxConnections(maxConnections);
+        pooledConnectionFactory.setMaxSessionsPerConnection(maxSessionsPerConnection);
+        // Um único MessageProducer anônimo por sessão, reaproveitado para qualquer destino
+        pooledConnectionFactory.setUseAnonymousProducers(true);
+        return pooledConnectionFactory;
+    }
+
+    @Bean
+    public JmsTemplate activeMQJmsTemplate(@Qualifier("activeMQPooledConnectionFactory") JmsPoolConnectionFactory activeMQPooledConnectionFactory) {
+        JmsTemplate jmsTemplate = new JmsTemplate(activeMQPooledConnectionFactory);
+        jmsTemplate.setExplicitQosEnabled(true);
+        jmsTemplate.setDeliveryPersistent(true);
+        return jmsTemplate;
+    }
+}
\ No newline at end of file
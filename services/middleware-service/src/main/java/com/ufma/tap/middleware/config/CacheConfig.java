@@ -0,0 +1,59 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/config/CacheConfig.java
+package com.ufma.tap.middleware.config;
+
+import com.ufma.tap.middleware.cache.CacheInvalidationBroadcaster;
+import com.ufma.tap.middleware.cache.EntityCache;
+import com.ufma.tap.middleware.model.Consumer;
+import com.ufma.tap.middleware.model.Producer;
+import com.ufma.tap.middleware.model.ProjectLimits;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CacheConfig {
+
+    @Value("${middleware.cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${middleware.cache.ttl-ms:300000}")
+    private long ttlMs;
+
+    @Bean
+    public EntityCache<Producer> producerCache() {
+        return new EntityCache<>("producers", maxSize, ttlMs);
+    }
+
+    @Bean
+    public EntityCache<Consumer> consumerCache() {
+        return new EntityCache<>("consumers", maxSize, ttlMs);
+    }
+
+    @Bean
+    public EntityCache<ProjectLimits> projectLimitsCache() {
+        // Sem invalidação: os limites do projeto são alterados no registration-service e chegam aqui pelo TTL
+        return new EntityCache<>("projectLimits", maxSize, ttlMs);
+    }
+
+    // Declarados como beans para que o RabbitAdmin os redeclare automaticamente após uma reconexão
+    @Bean
+    public FanoutExchange cacheInvalidationExchange() {
+        return new FanoutExchange(CacheInvalidationBroadcaster.CACHE_INVALIDATION_EXCHANGE);
+    }
+
+    @Bean
+    public Queue cacheInvalidationQueue() {
+        // Fila exclusiva, não durável e auto-delete: uma por réplica
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding cacheInvalidationBinding(FanoutExchange cacheInvalidationExchange, Queue cacheInvalidationQueue) {
+        return BindingBuilder.bind(cacheInvalidationQueue).to(cacheInvalidationExchange);
+    }
+}
\ No newline at end of file
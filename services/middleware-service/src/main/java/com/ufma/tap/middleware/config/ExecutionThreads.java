@@ -0,0 +1,61 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/config/ExecutionThreads.java
+package com.ufma.tap.middleware.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Tipo de thread usado pelos workers internos e pelos listener containers criados em código.
+// Com spring.threads.virtual.enabled=true rodando em Java 21, o Spring Boot já coloca as requisições do Tomcat,
+// os @RabbitListener e o @Async em virtual threads; aqui o mesmo vale para os containers que o middleware cria
+// por consumidor e para os pools de trabalho bloqueante (envio assíncrono, relay do outbox, envios atrasados).
+// Em Java 17 (ou com a propriedade desligada) tudo continua em threads de plataforma daemon.
+@Component
+public class ExecutionThreads {
+
+    @Autowired
+    private Environment environment;
+
+    private boolean virtual;
+
+    @PostConstruct
+    public void detect() {
+        virtual = Threading.VIRTUAL.isActive(environment); // Exige a propriedade e Java 21+
+        System.out.println("Execution threads: " + (virtual ? "virtual" : "platform") + " (Java " + Runtime.version().feature() + ").");
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Fábrica para pools de trabalho que bloqueiam em I/O (banco, confirms do broker).
+     * Não usar em threads que fazem spin (ex: leitores do broker em memória): essas devem continuar de plataforma.
+     */
+    public ThreadFactory threadFactory(String namePrefix) {
+        if (virtual) {
+            return new VirtualThreadTaskExecutor(namePrefix).getVirtualThreadFactory();
+        }
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Executor para listener containers (RabbitMQ, Kafka, JMS) criados fora das fábricas do Spring Boot.
+     * @return null quando o container deve manter o executor padrão (threads de plataforma).
+     */
+    public AsyncTaskExecutor listenerExecutor(String namePrefix) {
+        return virtual ? new VirtualThreadTaskExecutor(namePrefix) : null;
+    }
+}
\ No newline at end of file
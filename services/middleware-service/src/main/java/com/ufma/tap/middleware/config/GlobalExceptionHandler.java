@@ -3,6 +3,7 @@ package com.ufma.tap.middleware.config;
 
 import com.ufma.tap.middleware.dto.Response;
 import com.ufma.tap.middleware.exception.*; // Importa todas as suas exceções personalizadas
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -75,6 +76,17 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    // Limite de envio (token bucket do produtor ou do projeto) esgotado
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<Response<Void>> handleRateLimitExceeded(RateLimitExceededException ex) {
+        Response<Void> errorResponse = new Response<>(ex.getMessage(), 1429, null); // 1429 para RateLimitExceeded
+        errorResponse.setStatus("ERROR");
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfterMs() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(errorResponse);
+    }
+
     // Tratamento para erros de validação de DTOs (ex: @NotBlank, @Size)
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Response<Void>> handleValidationExceptions(MethodArgumentNotValidException ex) {
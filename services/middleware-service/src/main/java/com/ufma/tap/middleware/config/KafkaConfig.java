@@ -0,0 +1,80 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/config/KafkaConfig.java
+package com.ufma.tap.middleware.config;
+
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class KafkaConfig {
+
+    @Value("${middleware.kafka.bootstrap-servers:kafka:9092}")
+    private String bootstrapServers;
+
+    // Tempo que o produtor espera para juntar mensagens no mesmo lote antes de enviar
+    @Value("${middleware.kafka.linger-ms:5}")
+    private int lingerMs;
+
+    @Value("${middleware.kafka.batch-size:65536}")
+    private int batchSize;
+
+    // none, gzip, snappy, lz4 ou zstd (aplicada por lote)
+    @Value("${middleware.kafka.compression-type:lz4}")
+    private String compressionType;
+
+    @Value("${middleware.kafka.acks:all}")
+    private String acks;
+
+    @Value("${middleware.kafka.auto-offset-reset:latest}")
+    private String autoOffsetReset;
+
+    @Bean
+    public ProducerFactory<String, String> kafkaProducerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        props.put(ProducerConfig.ACKS_CONFIG, acks);
+        return new DefaultKafkaProducerFactory<>(props);
+    }
+
+    @Bean
+    public KafkaTemplate<String, String> kafkaTemplate(ProducerFactory<String, String> kafkaProducerFactory) {
+        // O KafkaTemplate é Thread-safe e compartilha um único KafkaProducer (que agrupa os envios em lotes)
+        return new KafkaTemplate<>(kafkaProducerFactory);
+    }
+
+    @Bean
+    public ConsumerFactory<String, String> kafkaConsumerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, autoOffsetReset);
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+
+    @Bean
+    public KafkaAdmin kafkaAdmin() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        return new KafkaAdmin(props);
+    }
+}
\ No newline at end of file
@@ -1,8 +1,8 @@
 // Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/config/RabbitMQConfig.java
 package com.ufma.tap.middleware.config;
 
+import com.ufma.tap.middleware.messagebroker.rabbitmq.RabbitMQPublisherPool;
 import org.springframework.amqp.core.AmqpAdmin;
-import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitAdmin;
@@ -11,6 +11,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 public class RabbitMQConfig {
 
@@ -26,13 +29,55 @@ public class RabbitMQConfig {
     @Value("${spring.rabbitmq.password}")
     private String rabbitmqPassword;
 
+    @Value("${middleware.rabbitmq.publisher-confirms:true}")
+    private boolean publisherConfirms;
+
+    @Value("${middleware.rabbitmq.publisher.connections:4}")
+    private int publisherConnections;
+
+    @Value("${middleware.rabbitmq.publisher.channel-cache-size:64}")
+    private int publisherChannelCacheSize;
+
+    // > 0: o cache vira limite de canais por conexão e o checkout espera até esse tempo por um canal livre
+    @Value("${middleware.rabbitmq.publisher.channel-checkout-timeout-ms:0}")
+    private long publisherChannelCheckoutTimeoutMs;
+
+    // Conexão principal: consumidores, declarações (RabbitAdmin) e mensagens internas entre réplicas
     @Bean
     public ConnectionFactory connectionFactory() {
+        return createConnectionFactory("middleware");
+    }
+
+    // Conexões dedicadas à publicação das mensagens dos produtores (ver RabbitMQPublisherPool)
+    @Bean(destroyMethod = "destroy")
+    public RabbitMQPublisherPool rabbitMQPublisherPool() {
+        int connections = Math.max(1, publisherConnections); // Valor zero ou negativo na configuração: uma conexão
+        List<CachingConnectionFactory> connectionFactories = new ArrayList<>(connections);
+        List<RabbitTemplate> templates = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            CachingConnectionFactory connectionFactory = createConnectionFactory("middleware-publisher-" + i);
+            connectionFactory.setChannelCacheSize(publisherChannelCacheSize);
+            if (publisherChannelCheckoutTimeoutMs > 0) {
+                connectionFactory.setChannelCheckoutTimeout(publisherChannelCheckoutTimeoutMs);
+            }
+            connectionFactories.add(connectionFactory);
+            templates.add(createRabbitTemplate(connectionFactory));
+        }
+        return new RabbitMQPublisherPool(connectionFactories, templates, publisherChannelCacheSize, publisherChannelCheckoutTimeoutMs);
+    }
+
+    private CachingConnectionFactory createConnectionFactory(String connectionName) {
         CachingConnectionFactory connectionFactory = new CachingConnectionFactory(rabbitmqHost);
+        connectionFactory.setConnectionNameStrategy(factory -> connectionName); // Nome visível no painel do RabbitMQ
         connectionFactory.setPort(rabbitmqPort);
         connectionFactory.setUsername(rabbitmqUsername);
         connectionFactory.setPassword(rabbitmqPassword);
-        // Configurações adicionais podem ser feitas aqui, como modo de publicação, etc.
+        if (publisherConfirms) {
+            // Confirms correlacionados: cada publicação recebe ack/nack assíncrono do broker (ver RabbitMQPublisherConfirms)
+            connectionFactory.setPublisherConfirmType(CachingConnectionFactory.ConfirmType.CORRELATED);
+            // Devolução de mensagens sem rota (mandatory), para não confirmar como entregue o que foi descartado
+            connectionFactory.setPublisherReturns(true);
+        }
         return connectionFactory;
     }
 
@@ -42,9 +87,14 @@ public class RabbitMQConfig {
     }
 
     @Bean
-    public AmqpTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
+        return createRabbitTemplate(connectionFactory);
+    }
+
+    private RabbitTemplate createRabbitTemplate(ConnectionFactory connectionFactory) {
         // O RabbitTemplate é Thread-safe e reutilizável
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
+        rabbitTemplate.setMandatory(publisherConfirms);
         // Configurar MessageConverter se usar objetos complexos diretamente
         // rabbitTemplate.setMessageConverter(new Jackson2JsonMessageConverter());
         return rabbitTemplate;
@@ -0,0 +1,29 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/config/WebSocketConfig.java
+package com.ufma.tap.middleware.config;
+
+import com.ufma.tap.middleware.websocket.ProducerHandshakeInterceptor;
+import com.ufma.tap.middleware.websocket.ProducerWebSocketHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    @Autowired
+    private ProducerWebSocketHandler producerWebSocketHandler;
+
+    @Autowired
+    private ProducerHandshakeInterceptor producerHandshakeInterceptor;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // Canal persistente dos produtores (ver ProducerWebSocketHandler)
+        registry.addHandler(producerWebSocketHandler, "/ws/senders/{producerId}")
+                .addInterceptors(producerHandshakeInterceptor)
+                .setAllowedOrigins("*");
+    }
+}
\ No newline at end of file
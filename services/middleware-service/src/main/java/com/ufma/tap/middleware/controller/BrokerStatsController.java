@@ -0,0 +1,26 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/controller/BrokerStatsController.java
+package com.ufma.tap.middleware.controller;
+
+import com.ufma.tap.middleware.dto.PublisherPoolStats;
+import com.ufma.tap.middleware.dto.Response;
+import com.ufma.tap.middleware.messagebroker.rabbitmq.RabbitMQPublisherPool;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Estatísticas das conexões com os brokers nesta réplica (não dependem de projeto)
+@RestController
+@RequestMapping("/api/brokers")
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class BrokerStatsController {
+
+    @Autowired
+    private RabbitMQPublisherPool rabbitMQPublisherPool;
+
+    @GetMapping("/rabbitmq/publisher-pool")
+    public ResponseEntity<Response<PublisherPoolStats>> getRabbitMQPublisherPoolStats() {
+        Response<PublisherPoolStats> apiResponse = new Response<>("RabbitMQ publisher pool stats retrieved.", HttpStatus.OK.value(), rabbitMQPublisherPool.getStats());
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+}
\ No newline at end of file
@@ -10,6 +10,8 @@ import com.ufma.tap.middleware.dto.BrokerUpdate;
 import com.ufma.tap.middleware.dto.QueueUpdate;
 import com.ufma.tap.middleware.dto.StrategyUpdate;
 import com.ufma.tap.middleware.dto.PersistenceUpdate;
+import com.ufma.tap.middleware.dto.DeliveryUpdate;
+import com.ufma.tap.middleware.dto.DeliveryStatus;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -62,9 +64,11 @@ public class ConsumerController {
     @GetMapping("/{consumerId}/receive")
     public SseEmitter connectConsumer(
             @PathVariable String consumerId,
-            @RequestHeader("Authorization") String projectAuthToken) {
+            @RequestHeader("Authorization") String projectAuthToken,
+            @RequestParam(required = false) Integer batchSize, // Opcional: eventos 'messages' com até batchSize mensagens
+            @RequestParam(required = false) Long lingerMs) {   // Espera máxima de um lote incompleto
         // Retorna SseEmitter para conexão de streaming de longa duração
-        return iConsumerService.connectConsumer(consumerId, projectAuthToken);
+        return iConsumerService.connectConsumer(consumerId, projectAuthToken, batchSize, lingerMs);
     }
 
     @PostMapping("/{consumerId}/close")
@@ -144,4 +148,23 @@ public class ConsumerController {
         Response<ConsumerDto> apiResponse = new Response<>("Consumer persistence time updated.", HttpStatus.OK.value(), updatedConsumer);
         return new ResponseEntity<>(apiResponse, HttpStatus.OK);
     }
+
+    @PutMapping("/{consumerId}/delivery")
+    public ResponseEntity<Response<ConsumerDto>> setDelivery(
+            @PathVariable String consumerId,
+            @Valid @RequestBody DeliveryUpdate deliveryUpdate,
+            @RequestHeader("Authorization") String projectAuthToken) {
+        ConsumerDto updatedConsumer = iConsumerService.setDelivery(consumerId, deliveryUpdate, projectAuthToken);
+        Response<ConsumerDto> apiResponse = new Response<>("Consumer delivery settings updated.", HttpStatus.OK.value(), updatedConsumer);
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    @GetMapping("/{consumerId}/delivery")
+    public ResponseEntity<Response<DeliveryStatus>> getDeliveryStatus(
+            @PathVariable String consumerId,
+            @RequestHeader("Authorization") String projectAuthToken) {
+        DeliveryStatus deliveryStatus = iConsumerService.getDeliveryStatus(consumerId, projectAuthToken);
+        Response<DeliveryStatus> apiResponse = new Response<>("Consumer delivery status retrieved.", HttpStatus.OK.value(), deliveryStatus);
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
 }
\ No newline at end of file
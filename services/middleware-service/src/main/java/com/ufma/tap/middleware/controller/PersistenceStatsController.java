@@ -0,0 +1,26 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/controller/PersistenceStatsController.java
+package com.ufma.tap.middleware.controller;
+
+import com.ufma.tap.middleware.dto.Response;
+import com.ufma.tap.middleware.dto.WriteBehindStats;
+import com.ufma.tap.middleware.repository.MessageWriteBehind;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Estatísticas da persistência de mensagens nesta réplica (não dependem de projeto)
+@RestController
+@RequestMapping("/api/persistence")
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class PersistenceStatsController {
+
+    @Autowired
+    private MessageWriteBehind messageWriteBehind;
+
+    @GetMapping("/write-behind")
+    public ResponseEntity<Response<WriteBehindStats>> getWriteBehindStats() {
+        Response<WriteBehindStats> apiResponse = new Response<>("Message write-behind stats retrieved.", HttpStatus.OK.value(), messageWriteBehind.getStats());
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+}
\ No newline at end of file
@@ -1,27 +1,44 @@
 // Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/controller/ProducerController.java
 package com.ufma.tap.middleware.controller;
 
+import com.ufma.tap.middleware.dto.AsyncSendStatus;
 import com.ufma.tap.middleware.dto.MessageReceived;
+import com.ufma.tap.middleware.dto.MessageSendResult;
 import com.ufma.tap.middleware.dto.ProducerDto;
 import com.ufma.tap.middleware.dto.Response;
+import com.ufma.tap.middleware.dto.StreamSendSummary;
 import com.ufma.tap.middleware.model.Producer;
 import com.ufma.tap.middleware.service.IProducerService;
 import com.ufma.tap.middleware.dto.BrokerUpdate;
 import com.ufma.tap.middleware.dto.QueueUpdate;
+import com.ufma.tap.middleware.dto.RateLimitStatus;
+import com.ufma.tap.middleware.dto.RateLimitUpdate;
 import com.ufma.tap.middleware.dto.StrategyUpdate;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.validation.annotation.Validated;
 
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/senders")
 @Validated
 @CrossOrigin(origins = "*", allowedHeaders = "*")
 public class ProducerController {
 
+    private static final String MESSAGE_HEADER_PREFIX = "X-Message-Header-";
+    private static final String RESPOND_ASYNC = "respond-async"; // Preferência do header Prefer (RFC 7240)
+
     @Autowired
     private IProducerService iProducerService;
 
@@ -65,12 +82,96 @@ public class ProducerController {
     }
 
     @PostMapping("/{producerId}/send")
-    public ResponseEntity<Response<Void>> send(
+    public CompletableFuture<ResponseEntity<Response<AsyncSendStatus>>> send(
             @PathVariable String producerId,
             @Valid @RequestBody MessageReceived messageReceived,
+            @RequestHeader(value = "Prefer", required = false) String prefer,
+            @RequestHeader("Authorization") String projectAuthToken) {
+        if (prefer != null && prefer.toLowerCase().contains(RESPOND_ASYNC)) {
+            // Modo assíncrono: 202 com o messageId assim que a mensagem entra no outbox (status em /messages/{messageId})
+            return iProducerService.sendRespondAsync(producerId, messageReceived, projectAuthToken)
+                    .thenApply(status -> {
+                        if (!AsyncSendStatus.PENDING.equals(status.getStatus())) {
+                            // Outbox cheio: a mensagem foi enviada de forma síncrona
+                            Response<AsyncSendStatus> apiResponse = new Response<>("Message successfully sent.", HttpStatus.OK.value(), status);
+                            return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+                        }
+                        Response<AsyncSendStatus> apiResponse = new Response<>("Message accepted for asynchronous sending.", HttpStatus.ACCEPTED.value(), status);
+                        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                                .header("Preference-Applied", RESPOND_ASYNC)
+                                .header(HttpHeaders.LOCATION, "/api/senders/" + producerId + "/messages/" + status.getMessageId())
+                                .body(apiResponse);
+                    });
+        }
+        // A resposta só é enviada após a confirmação do broker, sem prender a thread do Tomcat enquanto isso
+        return iProducerService.send(producerId, messageReceived, projectAuthToken)
+                .thenApply(ignored -> {
+                    String message = messageReceived.getTimeToWait() != null && messageReceived.getTimeToWait() > 0
+                            ? "Message scheduled to be sent in " + messageReceived.getTimeToWait() + " ms."
+                            : Boolean.TRUE.equals(messageReceived.getGuaranteedDelivery())
+                                    ? "Message stored for guaranteed delivery."
+                                    : "Message successfully sent.";
+                    Response<AsyncSendStatus> apiResponse = new Response<>(message, HttpStatus.OK.value(), null);
+                    return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+                });
+    }
+
+    @GetMapping("/{producerId}/messages/{messageId}")
+    public ResponseEntity<Response<AsyncSendStatus>> getAsyncSendStatus(
+            @PathVariable String producerId,
+            @PathVariable String messageId,
             @RequestHeader("Authorization") String projectAuthToken) {
-        iProducerService.send(producerId, messageReceived, projectAuthToken);
-        Response<Void> apiResponse = new Response<>("Message successfully sent.", HttpStatus.OK.value(), null);
+        AsyncSendStatus status = iProducerService.getAsyncSendStatus(producerId, messageId, projectAuthToken);
+        Response<AsyncSendStatus> apiResponse = new Response<>("Message status retrieved.", HttpStatus.OK.value(), status);
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    // Corpo binário bruto (ex.: frames de sensores): os bytes vão direto para o broker, sem JSON nem Base64.
+    // Headers da mensagem são enviados como headers HTTP com o prefixo X-Message-Header-.
+    @PostMapping(value = "/{producerId}/send", consumes = {MediaType.APPLICATION_OCTET_STREAM_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public CompletableFuture<ResponseEntity<Response<Void>>> sendBinary(
+            @PathVariable String producerId,
+            @RequestBody byte[] payload,
+            @RequestHeader HttpHeaders requestHeaders,
+            @RequestHeader("Authorization") String projectAuthToken) {
+        Map<String, Object> messageHeaders = new HashMap<>();
+        requestHeaders.forEach((name, values) -> {
+            if (name.regionMatches(true, 0, MESSAGE_HEADER_PREFIX, 0, MESSAGE_HEADER_PREFIX.length()) && !values.isEmpty()) {
+                messageHeaders.put(name.substring(MESSAGE_HEADER_PREFIX.length()), values.get(0));
+            }
+        });
+        String contentType = requestHeaders.getContentType().getType() + "/" + requestHeaders.getContentType().getSubtype();
+        return iProducerService.sendBinary(producerId, payload, contentType, messageHeaders, projectAuthToken)
+                .thenApply(ignored -> {
+                    Response<Void> apiResponse = new Response<>("Message successfully sent.", HttpStatus.OK.value(), null);
+                    return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+                });
+    }
+
+    // Ingestão NDJSON (uma MessageReceived por linha), lida e publicada de forma incremental
+    @PostMapping(value = "/{producerId}/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Response<StreamSendSummary>> sendStream(
+            @PathVariable String producerId,
+            HttpServletRequest request,
+            @RequestHeader("Authorization") String projectAuthToken) throws IOException {
+        StreamSendSummary summary = iProducerService.sendStream(producerId, request.getInputStream(), projectAuthToken);
+        Response<StreamSendSummary> apiResponse = new Response<>(
+                "Stream processed: " + summary.getAccepted() + " accepted, " + summary.getFailed() + " failed.",
+                HttpStatus.OK.value(), summary);
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    @PostMapping("/{producerId}/send-batch")
+    public ResponseEntity<Response<List<MessageSendResult>>> sendBatch(
+            @PathVariable String producerId,
+            @RequestBody List<MessageReceived> messagesReceived,
+            @RequestHeader("Authorization") String projectAuthToken) {
+        // A validação de cada mensagem é feita no serviço, para que uma mensagem inválida não derrube o lote inteiro
+        List<MessageSendResult> results = iProducerService.sendBatch(producerId, messagesReceived, projectAuthToken);
+        long accepted = results.stream().filter(r -> MessageSendResult.ACCEPTED.equals(r.getStatus())).count();
+        Response<List<MessageSendResult>> apiResponse = new Response<>(
+                "Batch processed: " + accepted + " accepted, " + (results.size() - accepted) + " failed.",
+                HttpStatus.OK.value(), results);
         return new ResponseEntity<>(apiResponse, HttpStatus.OK);
     }
 
@@ -112,4 +213,23 @@ public class ProducerController {
         Response<ProducerDto> apiResponse = new Response<>("Producer queue successfully updated.", HttpStatus.OK.value(), updatedProducer);
         return new ResponseEntity<>(apiResponse, HttpStatus.OK);
     }
+
+    @PutMapping("/{producerId}/rate-limit")
+    public ResponseEntity<Response<ProducerDto>> setRateLimit(
+            @PathVariable String producerId,
+            @Valid @RequestBody RateLimitUpdate rateLimitUpdate,
+            @RequestHeader("Authorization") String projectAuthToken) {
+        ProducerDto updatedProducer = iProducerService.setRateLimit(producerId, rateLimitUpdate, projectAuthToken);
+        Response<ProducerDto> apiResponse = new Response<>("Producer rate limit successfully updated.", HttpStatus.OK.value(), updatedProducer);
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    @GetMapping("/{producerId}/rate-limit")
+    public ResponseEntity<Response<RateLimitStatus>> getRateLimitStatus(
+            @PathVariable String producerId,
+            @RequestHeader("Authorization") String projectAuthToken) {
+        RateLimitStatus status = iProducerService.getRateLimitStatus(producerId, projectAuthToken);
+        Response<RateLimitStatus> apiResponse = new Response<>("Rate limit status retrieved.", HttpStatus.OK.value(), status);
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/dto/AsyncSendStatus.java
+package com.ufma.tap.middleware.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Situação de uma mensagem aceita em modo assíncrono (202)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AsyncSendStatus {
+    public static final String PENDING = "pending"; // Ainda no outbox ou aguardando confirmação do broker
+    public static final String PUBLISHED = "published";
+    public static final String FAILED = "failed";
+
+    private String messageId;
+    private String status;
+    private String error; // Motivo da falha (null nos demais estados)
+}
\ No newline at end of file
@@ -2,6 +2,7 @@
 package com.ufma.tap.middleware.dto;
 
 import com.ufma.tap.middleware.model.Consumer;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -45,6 +46,17 @@ public class ConsumerDto {
     private String routingKey;
     private String headers; // JSON String
 
+    // Controle de fluxo (RabbitMQ): opcionais, nulos usam o padrão da aplicação
+    private Boolean manualAck;
+    @Min(value = 1, message = "Prefetch count must be between 1 and 65535")
+    @Max(value = 65535, message = "Prefetch count must be between 1 and 65535")
+    private Integer prefetchCount;
+    @Min(value = 1, message = "SSE queue capacity must be between 1 and 100000")
+    @Max(value = 100000, message = "SSE queue capacity must be between 1 and 100000")
+    private Integer sseQueueCapacity;
+    @Pattern(regexp = "^(block|drop-oldest|disconnect)$", message = "SSE overflow policy must be 'block', 'drop-oldest' or 'disconnect'")
+    private String sseOverflowPolicy;
+
     // Métodos de conversão
     public Consumer toModel() {
         Consumer consumer = new Consumer();
@@ -58,6 +70,10 @@ public class ConsumerDto {
         consumer.setExchange(this.exchange);
         consumer.setRoutingKey(this.routingKey);
         consumer.setHeaders(this.headers);
+        consumer.setManualAck(this.manualAck);
+        consumer.setPrefetchCount(this.prefetchCount);
+        consumer.setSseQueueCapacity(this.sseQueueCapacity);
+        consumer.setSseOverflowPolicy(this.sseOverflowPolicy);
         return consumer;
     }
 
@@ -73,6 +89,10 @@ public class ConsumerDto {
         dto.setExchange(consumer.getExchange());
         dto.setRoutingKey(consumer.getRoutingKey());
         dto.setHeaders(consumer.getHeaders());
+        dto.setManualAck(consumer.getManualAck());
+        dto.setPrefetchCount(consumer.getPrefetchCount());
+        dto.setSseQueueCapacity(consumer.getSseQueueCapacity());
+        dto.setSseOverflowPolicy(consumer.getSseOverflowPolicy());
         return dto;
     }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/dto/DeliveryStatus.java
+package com.ufma.tap.middleware.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Situação da fila de entrega SSE de um consumidor nesta réplica (contadores zeram a cada conexão)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryStatus {
+    private String consumerId;
+    private boolean connected;    // Há conexão SSE ativa nesta réplica
+    private String overflowPolicy;
+    private Integer queueCapacity;
+    private Integer queueDepth;   // Mensagens aguardando escrita no SSE
+    private Long delivered;
+    private Long dropped;         // Descartadas por fila cheia (ou por tempo esgotado na política 'block')
+    private Integer batchSize;    // Máximo de mensagens por evento 'messages' (1 = um evento 'message' por mensagem)
+    private Long lingerMs;
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/dto/DeliveryUpdate.java
+package com.ufma.tap.middleware.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryUpdate {
+    // RabbitMQ: nulos voltam ao padrão da aplicação (ack automático e prefetch de middleware.rabbitmq.consumer.prefetch)
+    private Boolean manualAck;
+    @Min(value = 1, message = "Prefetch count must be between 1 and 65535")
+    @Max(value = 65535, message = "Prefetch count must be between 1 and 65535")
+    private Integer prefetchCount;
+
+    // Fila de entrega SSE (nulos usam middleware.sse.queue-capacity e middleware.sse.overflow-policy)
+    @Min(value = 1, message = "SSE queue capacity must be between 1 and 100000")
+    @Max(value = 100000, message = "SSE queue capacity must be between 1 and 100000")
+    private Integer sseQueueCapacity;
+    @Pattern(regexp = "^(block|drop-oldest|disconnect)$", message = "SSE overflow policy must be 'block', 'drop-oldest' or 'disconnect'")
+    private String sseOverflowPolicy;
+}
\ No newline at end of file
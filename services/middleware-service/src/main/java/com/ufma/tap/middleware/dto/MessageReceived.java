@@ -21,5 +21,7 @@ public class MessageReceived {
     private String queue;
     private String routingKey;
     private Map<String, Object> headers; // Para headers AMQP/MQTT
-    private Long timeToWait; // Para envio com atraso (futuro)
+    private Long timeToWait; // Atraso do envio em milissegundos (envio com atraso)
+    private String idempotencyKey; // Opcional: reenvios com a mesma chave (por produtor) dentro da janela não são publicados de novo
+    private Boolean guaranteedDelivery; // Opcional: grava a mensagem no outbox (Postgres) e deixa a publicação para o relay
 }
\ No newline at end of file
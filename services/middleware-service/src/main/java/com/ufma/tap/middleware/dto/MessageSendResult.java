@@ -0,0 +1,27 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/dto/MessageSendResult.java
+package com.ufma.tap.middleware.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Resultado individual de uma mensagem enviada em lote
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageSendResult {
+    public static final String ACCEPTED = "accepted";
+    public static final String FAILED = "failed";
+
+    private String messageId;
+    private String status; // "accepted" ou "failed"
+    private String error; // Motivo da falha (null quando aceita)
+
+    public static MessageSendResult accepted(String messageId) {
+        return new MessageSendResult(messageId, ACCEPTED, null);
+    }
+
+    public static MessageSendResult failed(String messageId, String error) {
+        return new MessageSendResult(messageId, FAILED, error);
+    }
+}
\ No newline at end of file
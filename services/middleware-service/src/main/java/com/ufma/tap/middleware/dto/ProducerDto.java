@@ -4,6 +4,7 @@ package com.ufma.tap.middleware.dto;
 import com.ufma.tap.middleware.model.Producer;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -42,6 +43,11 @@ public class ProducerDto {
     private String routingKey;
     private String headers; // JSON String
 
+    @PositiveOrZero(message = "Rate limit must be zero or positive")
+    private Double rateLimitPerSecond; // Opcional: mensagens por segundo (0 = sem limite)
+    @PositiveOrZero(message = "Burst must be zero or positive")
+    private Integer rateLimitBurst;
+
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -59,6 +65,8 @@ public class ProducerDto {
         producer.setQueue(this.queue);
         producer.setRoutingKey(this.routingKey);
         producer.setHeaders(this.headers);
+        producer.setRateLimitPerSecond(this.rateLimitPerSecond);
+        producer.setRateLimitBurst(this.rateLimitBurst);
         producer.setCreatedAt(this.createdAt);
         producer.setUpdatedAt(this.updatedAt);
         // projectId será adicionado no serviço, com base no token
@@ -78,6 +86,8 @@ public class ProducerDto {
         dto.setQueue(producer.getQueue());
         dto.setRoutingKey(producer.getRoutingKey());
         dto.setHeaders(producer.getHeaders());
+        dto.setRateLimitPerSecond(producer.getRateLimitPerSecond());
+        dto.setRateLimitBurst(producer.getRateLimitBurst());
         dto.setCreatedAt(producer.getCreatedAt());
         dto.setUpdatedAt(producer.getUpdatedAt());
         return dto;
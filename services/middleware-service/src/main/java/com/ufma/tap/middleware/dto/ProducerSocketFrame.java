@@ -0,0 +1,15 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/dto/ProducerSocketFrame.java
+package com.ufma.tap.middleware.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Frame enviado pelo produtor no WebSocket: a mensagem e um número de sequência escolhido pelo cliente
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProducerSocketFrame {
+    private Long seq; // Devolvido no ack/nack para o cliente correlacionar a resposta
+    private MessageReceived message;
+}
\ No newline at end of file
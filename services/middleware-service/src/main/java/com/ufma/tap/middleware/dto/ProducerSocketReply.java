@@ -0,0 +1,34 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/dto/ProducerSocketReply.java
+package com.ufma.tap.middleware.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Frame enviado pelo servidor no WebSocket do produtor
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProducerSocketReply {
+    public static final String WINDOW = "window"; // Tamanho da janela, enviado ao abrir a sessão
+    public static final String ACK = "ack";
+    public static final String NACK = "nack";
+
+    private String type;
+    private Long seq;
+    private String messageId; // Apenas no ack
+    private String error; // Apenas no nack
+    private Integer credits; // Mensagens que o cliente ainda pode enviar sem aguardar resposta
+
+    public static ProducerSocketReply window(int credits) {
+        return new ProducerSocketReply(WINDOW, null, null, null, credits);
+    }
+
+    public static ProducerSocketReply ack(Long seq, String messageId, int credits) {
+        return new ProducerSocketReply(ACK, seq, messageId, null, credits);
+    }
+
+    public static ProducerSocketReply nack(Long seq, String error, int credits) {
+        return new ProducerSocketReply(NACK, seq, null, error, credits);
+    }
+}
\ No newline at end of file
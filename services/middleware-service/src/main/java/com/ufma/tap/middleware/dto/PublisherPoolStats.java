@@ -0,0 +1,23 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/dto/PublisherPoolStats.java
+package com.ufma.tap.middleware.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Estatísticas do pool de conexões de publicação do RabbitMQ (RabbitMQPublisherPool)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PublisherPoolStats {
+    private int connections;
+    private int channelCacheSize;
+    private long channelCheckoutTimeoutMs; // 0 = sem limite de canais (o cache só guarda os ociosos)
+    private long checkouts; // Canais obtidos para publicar
+    private long channelsCreated; // Canais físicos abertos (checkouts que não vieram do cache)
+    private double cacheHitRate; // 1 - channelsCreated / checkouts
+    private double averageCheckoutWaitMs;
+    private double maxCheckoutWaitMs;
+    private long checkoutTimeouts; // Checkouts que esperaram mais que o timeout (canal não obtido)
+    private long[] checkoutsPerConnection; // Distribuição dos produtores entre as conexões
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/dto/RateLimitStatus.java
+package com.ufma.tap.middleware.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Estado atual dos token buckets de um produtor e do seu projeto (campos de limite nulos = sem limite)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateLimitStatus {
+    private String producerId;
+    private Double producerRatePerSecond;
+    private Integer producerBurst;
+    private Integer producerAvailableTokens;
+
+    private String projectId;
+    private Double projectRatePerSecond;
+    private Integer projectBurst;
+    private Integer projectAvailableTokens;
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/dto/RateLimitUpdate.java
+package com.ufma.tap.middleware.dto;
+
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateLimitUpdate {
+    // Nulos voltam ao padrão da aplicação; taxa 0 desativa o limite do produtor; abaixo de 1 por dia vale como 1 por dia
+    @PositiveOrZero(message = "Rate limit must be zero or positive")
+    private Double rateLimitPerSecond;
+    @PositiveOrZero(message = "Burst must be zero or positive")
+    private Integer rateLimitBurst;
+}
\ No newline at end of file
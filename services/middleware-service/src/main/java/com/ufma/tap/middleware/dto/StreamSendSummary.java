@@ -0,0 +1,19 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/dto/StreamSendSummary.java
+package com.ufma.tap.middleware.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Resumo de uma ingestão NDJSON (POST /stream): contagens e as linhas (1-based) que falharam
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StreamSendSummary {
+    private long received; // Linhas não vazias lidas
+    private long accepted;
+    private long failed;
+    private List<Long> failedLines; // Em ordem crescente
+}
\ No newline at end of file
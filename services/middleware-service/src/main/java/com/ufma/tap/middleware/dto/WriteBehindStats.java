@@ -0,0 +1,21 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/dto/WriteBehindStats.java
+package com.ufma.tap.middleware.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Situação da persistência write-behind das mensagens consumidas nesta réplica
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WriteBehindStats {
+    private int pending;             // Mensagens na fila aguardando gravação
+    private int capacity;
+    private long oldestPendingAgeMs; // Quanto a gravação está atrasada (idade da mensagem mais antiga na fila)
+    private long written;
+    private long failed;             // Não gravadas (fila cheia ou erro no lote)
+    private long batches;
+    private int lastBatchSize;
+    private long lastBatchMillis;
+}
\ No newline at end of file
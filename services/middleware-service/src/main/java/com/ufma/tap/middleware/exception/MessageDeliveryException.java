@@ -0,0 +1,13 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/exception/MessageDeliveryException.java
+package com.ufma.tap.middleware.exception;
+
+// Mensagem recebida do broker que não chegou ao consumidor (nem via SSE nem persistida): com ack manual, volta para a fila
+public class MessageDeliveryException extends RuntimeException {
+    public MessageDeliveryException(String message) {
+        super(message);
+    }
+
+    public MessageDeliveryException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/exception/RateLimitExceededException.java
+package com.ufma.tap.middleware.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS) // 429 Too Many Requests
+public class RateLimitExceededException extends RuntimeException {
+    private final long retryAfterMs; // Tempo até o próximo token disponível
+
+    public RateLimitExceededException(String message, long retryAfterMs) {
+        super(message);
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+}
\ No newline at end of file
@@ -3,6 +3,11 @@ package com.ufma.tap.middleware.messagebroker;
 
 import com.ufma.tap.middleware.model.Broker; // Representa a configuração do broker (nome, estratégia, etc.)
 import com.ufma.tap.middleware.model.MessageToSend; // O objeto a ser enviado
+import com.ufma.tap.middleware.dto.MessageSendResult;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface IProducerMessaging {
     /**
@@ -18,6 +23,47 @@ public interface IProducerMessaging {
      */
     void send(MessageToSend messageToSend, Broker broker);
 
+    /**
+     * Envia uma mensagem sem bloquear até a confirmação do broker.
+     * @param messageToSend A mensagem a ser enviada.
+     * @param broker Objeto Broker contendo as configurações de roteamento.
+     * @return Future concluído quando o broker confirmar o recebimento (ou com erro em caso de rejeição/timeout).
+     */
+    CompletableFuture<Void> sendAsync(MessageToSend messageToSend, Broker broker);
+
+    /**
+     * Valida a configuração do broker e pré-compila o plano de envio de um produtor (roteamento e headers resolvidos).
+     * @param producerId O ID do produtor dono do plano.
+     * @param producerVersion Versão (updatedAt) do produtor usada para detectar planos desatualizados.
+     * @param broker Objeto Broker contendo as configurações de roteamento.
+     * @return O plano, reaproveitável em todos os envios sem sobrescritas desse produtor.
+     */
+    SendPlan compilePlan(String producerId, LocalDateTime producerVersion, Broker broker);
+
+    /**
+     * Envia uma mensagem usando um plano pré-compilado, sem revalidar nem reprocessar a configuração do broker.
+     * @param messageToSend A mensagem a ser enviada.
+     * @param plan Plano obtido de compilePlan.
+     * @return Future concluído quando o broker confirmar o recebimento (ou com erro em caso de rejeição/timeout).
+     */
+    CompletableFuture<Void> sendAsync(MessageToSend messageToSend, SendPlan plan);
+
+    /**
+     * Envia um lote de mensagens com a mesma configuração de roteamento, reaproveitando o mesmo canal.
+     * @param messagesToSend As mensagens a serem enviadas, na ordem de publicação.
+     * @param broker Objeto Broker contendo as configurações de roteamento (comum a todo o lote).
+     * @return O resultado de cada mensagem, na mesma ordem de entrada.
+     */
+    List<MessageSendResult> sendBatch(List<MessageToSend> messagesToSend, Broker broker);
+
+    /**
+     * Envia um lote de mensagens usando um plano já compilado (o producerId do plano identifica o dono do lote).
+     * @param messagesToSend As mensagens a serem enviadas, na ordem de publicação.
+     * @param plan Plano obtido de compilePlan.
+     * @return O resultado de cada mensagem, na mesma ordem de entrada.
+     */
+    List<MessageSendResult> sendBatch(List<MessageToSend> messagesToSend, SendPlan plan);
+
     /**
      * Desconecta o produtor do broker de mensagens.
      * @param producerId O ID do produtor a ser desconectado.
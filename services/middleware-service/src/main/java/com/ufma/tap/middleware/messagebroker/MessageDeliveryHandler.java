@@ -0,0 +1,16 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/messagebroker/MessageDeliveryHandler.java
+package com.ufma.tap.middleware.messagebroker;
+
+import com.ufma.tap.middleware.model.Message;
+
+import java.util.concurrent.CompletableFuture;
+
+// Callback que os adaptadores de consumo chamam para cada mensagem recebida do broker.
+// A entrega ao cliente (SSE) é assíncrona: o future diz quando ela terminou, para quem precisa confirmar só depois.
+@FunctionalInterface
+public interface MessageDeliveryHandler {
+    /**
+     * @return Future concluído quando a mensagem foi entregue via SSE ou persistida; concluído com exceção se não chegou ao consumidor.
+     */
+    CompletableFuture<Void> deliver(Message message);
+}
\ No newline at end of file
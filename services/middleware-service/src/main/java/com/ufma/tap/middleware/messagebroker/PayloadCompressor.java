@@ -0,0 +1,68 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/messagebroker/PayloadCompressor.java
+package com.ufma.tap.middleware.messagebroker;
+
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Compressão de payloads grandes (telemetria JSON repetitiva). Só comprime acima do limiar: abaixo dele o custo
+// de CPU não compensa. O codec usado vai no content-encoding da mensagem, e é por ele que o consumidor descomprime.
+@Component
+public class PayloadCompressor {
+
+    public static final String GZIP = "gzip";
+    public static final String LZ4 = "lz4"; // Formato de frame LZ4 (mais rápido, taxa menor que o gzip)
+
+    @Value("${middleware.compression.enabled:true}")
+    private boolean enabled;
+
+    @Value("${middleware.compression.threshold-bytes:4096}")
+    private int thresholdBytes;
+
+    @Value("${middleware.compression.codec:lz4}")
+    private String codec;
+
+    /**
+     * @return O codec a aplicar a um payload desse tamanho, ou null se ele deve seguir sem compressão.
+     */
+    public String codecFor(int payloadLength) {
+        return enabled && payloadLength >= thresholdBytes ? codec : null;
+    }
+
+    public static boolean isSupported(String encoding) {
+        return GZIP.equals(encoding) || LZ4.equals(encoding);
+    }
+
+    public static byte[] compress(byte[] data, String encoding) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (OutputStream out = GZIP.equals(encoding) ? new GZIPOutputStream(buffer) : new LZ4FrameOutputStream(buffer)) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compress payload with " + encoding, e);
+        }
+        return buffer.toByteArray();
+    }
+
+    public static byte[] decompress(byte[] data, String encoding) {
+        if (!isSupported(encoding)) {
+            throw new IllegalArgumentException("Unsupported content-encoding: " + encoding);
+        }
+        try (InputStream in = GZIP.equals(encoding)
+                ? new GZIPInputStream(new ByteArrayInputStream(data))
+                : new LZ4FrameInputStream(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decompress payload with " + encoding, e);
+        }
+    }
+}
\ No newline at end of file
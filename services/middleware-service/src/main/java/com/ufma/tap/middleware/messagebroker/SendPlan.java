@@ -0,0 +1,108 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/messagebroker/SendPlan.java
+package com.ufma.tap.middleware.messagebroker;
+
+import com.ufma.tap.middleware.model.Broker;
+import org.springframework.amqp.core.MessagePostProcessor;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+
+// Plano de envio pré-compilado de um produtor: roteamento resolvido, headers já convertidos para Map
+// e o MessagePostProcessor a aplicar. É montado quando o produtor é configurado e reaproveitado em todo
+// send sem sobrescritas, evitando recriar Broker, reserializar/parsear headers e revalidar a estratégia.
+public final class SendPlan {
+
+    private final String producerId;
+    private final LocalDateTime producerVersion; // updatedAt do produtor usado na compilação
+    private final Broker broker; // Configuração original (não deve ser alterada após a compilação)
+    private final String routingKey; // Routing key do binding (para 'direct', o nome da fila por padrão)
+    private final String publishRoutingKey; // Routing key usada na publicação ("" para fanout/headers)
+    private final Map<String, Object> headers;
+    private final MessagePostProcessor postProcessor; // null quando não há nada a aplicar na mensagem
+
+    // Geração da topologia já garantida pelo adaptador para este plano (-1 = ainda não validado/declarado)
+    private volatile long topologyGeneration = -1;
+
+    public SendPlan(String producerId, LocalDateTime producerVersion, Broker broker, Map<String, Object> headers) {
+        this.producerId = producerId;
+        this.producerVersion = producerVersion;
+        this.broker = broker;
+        this.headers = headers != null ? Collections.unmodifiableMap(headers) : null;
+
+        String strategy = broker.getStrategy();
+        String configuredRoutingKey = broker.getRoutingKey();
+        if ("direct".equals(strategy) && (configuredRoutingKey == null || configuredRoutingKey.isEmpty())) {
+            this.routingKey = broker.getQueue(); // Default routing key is queue name
+        } else {
+            this.routingKey = configuredRoutingKey;
+        }
+        // Fanout e Headers exchanges não usam routing key na publicação
+        this.publishRoutingKey = ("fanout".equals(strategy) || "headers".equals(strategy)) ? "" : this.routingKey;
+
+        if ("headers".equals(strategy) && this.headers != null) {
+            Map<String, Object> messageHeaders = this.headers;
+            // Copia para as propriedades de cada mensagem (o map do plano é compartilhado entre envios)
+            this.postProcessor = message -> {
+                messageHeaders.forEach(message.getMessageProperties()::setHeader);
+                return message;
+            };
+        } else {
+            this.postProcessor = null;
+        }
+    }
+
+    // Indica se o plano ainda corresponde à versão atual do produtor
+    public boolean isCompiledFrom(String producerId, LocalDateTime producerVersion) {
+        return Objects.equals(this.producerId, producerId) && Objects.equals(this.producerVersion, producerVersion);
+    }
+
+    public String getProducerId() {
+        return producerId;
+    }
+
+    public Broker getBroker() {
+        return broker;
+    }
+
+    public String getBrokerName() {
+        return broker.getName();
+    }
+
+    public String getStrategy() {
+        return broker.getStrategy();
+    }
+
+    public String getExchange() {
+        return broker.getExchange();
+    }
+
+    public String getQueue() {
+        return broker.getQueue();
+    }
+
+    public String getRoutingKey() {
+        return routingKey;
+    }
+
+    public String getPublishRoutingKey() {
+        return publishRoutingKey;
+    }
+
+    public Map<String, Object> getHeaders() {
+        return headers;
+    }
+
+    public MessagePostProcessor getPostProcessor() {
+        return postProcessor;
+    }
+
+    public long getTopologyGeneration() {
+        return topologyGeneration;
+    }
+
+    public void setTopologyGeneration(long topologyGeneration) {
+        this.topologyGeneration = topologyGeneration;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,130 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/messagebroker/activemq/ActiveMQ5Consumer.java
+package com.ufma.tap.middleware.messagebroker.activemq;
+
+import com.google.gson.Gson;
+import com.ufma.tap.middleware.config.ExecutionThreads;
+import com.ufma.tap.middleware.exception.BrokerStrategyIncompatibleException;
+import com.ufma.tap.middleware.messagebroker.IConsumerMessaging;
+import com.ufma.tap.middleware.messagebroker.MessageDeliveryHandler;
+import com.ufma.tap.middleware.model.Consumer;
+import com.ufma.tap.middleware.model.Message;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.TextMessage;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.jms.JmsException;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@Qualifier("activeMQ5Consumer")
+public class ActiveMQ5Consumer implements IConsumerMessaging {
+
+    // Fábrica sem pool: o DefaultMessageListenerContainer já mantém conexão, sessão e consumer em cache
+    @Autowired
+    private ActiveMQConnectionFactory activeMQConnectionFactory;
+
+    @Autowired
+    private ExecutionThreads executionThreads; // Virtual threads nos listener containers quando habilitadas
+
+    private final Gson gson = new Gson();
+
+    private final Map<String, DefaultMessageListenerContainer> listenerContainers = new ConcurrentHashMap<>();
+
+    @Override
+    public void connectAndListen(Consumer consumer, MessageDeliveryHandler messageHandler) {
+        DefaultMessageListenerContainer oldContainer = listenerContainers.remove(consumer.getId());
+        if (oldContainer != null) {
+            oldContainer.shutdown();
+            System.out.println("Stopped existing ActiveMQ listener for consumer: " + consumer.getId());
+        }
+
+        validateBrokerConfiguration(consumer);
+        String destinationName = ActiveMQ5Producer.resolveDestinationName(consumer.getQueue(), consumer.getExchange());
+
+        try {
+            DefaultMessageListenerContainer container = new DefaultMessageListenerContainer();
+            container.setConnectionFactory(activeMQConnectionFactory);
+            container.setDestinationName(destinationName);
+            container.setPubSubDomain("topic".equals(consumer.getStrategy())); // 'direct' = Queue, 'topic' = Topic
+            container.setCacheLevel(DefaultMessageListenerContainer.CACHE_CONSUMER);
+            container.setBeanName("activemq-consumer-" + consumer.getId());
+            AsyncTaskExecutor listenerExecutor = executionThreads.listenerExecutor("activemq-consumer-" + consumer.getId() + "-");
+            if (listenerExecutor != null) {
+                container.setTaskExecutor(listenerExecutor);
+            }
+            container.setMessageListener((jakarta.jms.MessageListener) jmsMessage -> {
+                try {
+                    Message receivedMessage;
+                    if (jmsMessage instanceof TextMessage) {
+                        receivedMessage = gson.fromJson(((TextMessage) jmsMessage).getText(), Message.class);
+                    } else if (jmsMessage instanceof BytesMessage) {
+                        // Payload binário publicado sem envelope JSON: 'data' (TEXT) recebe o corpo em Base64
+                        BytesMessage bytesMessage = (BytesMessage) jmsMessage;
+                        byte[] body = new byte[(int) bytesMessage.getBodyLength()];
+                        bytesMessage.readBytes(body);
+                        receivedMessage = new Message();
+                        receivedMessage.setMessageId(bytesMessage.getJMSCorrelationID());
+                        receivedMessage.setData(Base64.getEncoder().encodeToString(body));
+                    } else {
+                        System.err.println("Ignoring unsupported ActiveMQ message type for consumer " + consumer.getId());
+                        return;
+                    }
+
+                    receivedMessage.setConsumerId(consumer.getId());
+                    receivedMessage.setQueue(destinationName);
+
+                    if (consumer.getPersistenceTime() != null && consumer.getPersistenceTime() > 0) {
+                        long expireTimeMillis = System.currentTimeMillis() + consumer.getPersistenceTime();
+                        if (expireTimeMillis < 0) {
+                            expireTimeMillis = Long.MAX_VALUE;
+                        }
+                        receivedMessage.setExpireAt(new Date(expireTimeMillis));
+                    } else {
+                        receivedMessage.setExpireAt(null);
+                    }
+
+                    messageHandler.deliver(receivedMessage);
+                } catch (Exception e) {
+                    System.err.println("Error processing ActiveMQ message for consumer " + consumer.getId() + ": " + e.getMessage());
+                }
+            });
+            container.afterPropertiesSet();
+            container.start();
+            listenerContainers.put(consumer.getId(), container);
+
+            System.out.println("ActiveMQ Consumer " + consumer.getId() + " connected and listening on "
+                    + (container.isPubSubDomain() ? "topic: " : "queue: ") + destinationName);
+
+        } catch (JmsException e) {
+            throw new RuntimeException("Failed to connect ActiveMQ Consumer: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close(String consumerId) {
+        DefaultMessageListenerContainer container = listenerContainers.remove(consumerId);
+        if (container != null) {
+            container.shutdown();
+            System.out.println("ActiveMQ Consumer " + consumerId + " listener stopped.");
+        }
+    }
+
+    private void validateBrokerConfiguration(Consumer consumer) {
+        String strategy = consumer.getStrategy();
+        if (!"direct".equals(strategy) && !"topic".equals(strategy)) {
+            throw new BrokerStrategyIncompatibleException("ActiveMQ5 only supports 'direct' and 'topic' strategies.");
+        }
+        String name = ActiveMQ5Producer.resolveDestinationName(consumer.getQueue(), consumer.getExchange());
+        if (name == null || name.isEmpty()) {
+            throw new BrokerStrategyIncompatibleException("Queue (or topic name) is required for ActiveMQ5.");
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,186 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/messagebroker/activemq/ActiveMQ5Producer.java
+package com.ufma.tap.middleware.messagebroker.activemq;
+
+import com.google.gson.Gson;
+import com.ufma.tap.middleware.dto.MessageSendResult;
+import com.ufma.tap.middleware.exception.BrokerStrategyIncompatibleException;
+import com.ufma.tap.middleware.exception.MessageSendException;
+import com.ufma.tap.middleware.messagebroker.IProducerMessaging;
+import com.ufma.tap.middleware.messagebroker.SendPlan;
+import com.ufma.tap.middleware.model.Broker;
+import com.ufma.tap.middleware.model.MessageToSend;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.DeliveryMode;
+import jakarta.jms.Destination;
+import jakarta.jms.JMSException;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
+import org.apache.activemq.command.ActiveMQQueue;
+import org.apache.activemq.command.ActiveMQTopic;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jms.JmsException;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.SessionCallback;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Adaptador ActiveMQ 5 (JMS). 'direct' publica em uma Queue e 'topic' em um Topic, ambos com o nome da 'queue'
+// do produtor (ou do 'exchange', se a fila não for informada). As sessões e o MessageProducer vêm do pool
+// (JmsPoolConnectionFactory no ActiveMQConfig); os objetos Destination ficam em cache por nome.
+@Component
+@Qualifier("activeMQ5Producer")
+public class ActiveMQ5Producer implements IProducerMessaging {
+
+    @Autowired
+    @Qualifier("activeMQJmsTemplate")
+    private JmsTemplate jmsTemplate;
+
+    private static final String CONTENT_TYPE_PROPERTY = "content_type"; // JMS não tem content-type nativo
+
+    private final Gson gson = new Gson();
+
+    // "queue://nome" ou "topic://nome" -> Destination
+    private final Map<String, Destination> destinations = new ConcurrentHashMap<>();
+
+    @Override
+    public void connect(Broker broker) {
+        validateBrokerConfiguration(broker);
+        System.out.println("ActiveMQ5Producer connected/validated for broker: " + broker.getName());
+    }
+
+    @Override
+    public void send(MessageToSend messageToSend, Broker broker) {
+        sendAsync(messageToSend, broker);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAsync(MessageToSend messageToSend, Broker broker) {
+        return sendAsync(messageToSend, compilePlan(null, null, broker));
+    }
+
+    @Override
+    public SendPlan compilePlan(String producerId, LocalDateTime producerVersion, Broker broker) {
+        validateBrokerConfiguration(broker);
+        Map<String, Object> headersMap = gson.fromJson(broker.getHeaders(), Map.class);
+        return new SendPlan(producerId, producerVersion, broker, headersMap);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAsync(MessageToSend messageToSend, SendPlan plan) {
+        Destination destination = resolveDestination(plan.getStrategy(), plan.getQueue(), plan.getExchange());
+        try {
+            // Mensagens persistentes são enviadas de forma síncrona pelo cliente ActiveMQ: ao retornar, o broker já confirmou
+            jmsTemplate.send(destination, session -> createMessage(session, messageToSend, plan));
+            System.out.println("Message sent to ActiveMQ: " + messageToSend.getMessageId() + " via " + destination);
+        } catch (JmsException e) {
+            throw new MessageSendException("Failed to send message to ActiveMQ: " + e.getMessage(), e);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public List<MessageSendResult> sendBatch(List<MessageToSend> messagesToSend, Broker broker) {
+        return sendBatch(messagesToSend, compilePlan(null, null, broker));
+    }
+
+    @Override
+    public List<MessageSendResult> sendBatch(List<MessageToSend> messagesToSend, SendPlan plan) {
+        Destination destination = resolveDestination(plan.getStrategy(), plan.getQueue(), plan.getExchange());
+
+        // Uma única sessão (e producer) do pool para todo o lote
+        List<MessageSendResult> results;
+        try {
+            results = jmsTemplate.execute((SessionCallback<List<MessageSendResult>>) session -> {
+                List<MessageSendResult> batchResults = new ArrayList<>(messagesToSend.size());
+                MessageProducer producer = session.createProducer(destination);
+                producer.setDeliveryMode(DeliveryMode.PERSISTENT);
+                try {
+                    for (MessageToSend messageToSend : messagesToSend) {
+                        try {
+                            producer.send(createMessage(session, messageToSend, plan));
+                            batchResults.add(MessageSendResult.accepted(messageToSend.getMessageId()));
+                        } catch (JMSException | RuntimeException e) {
+                            batchResults.add(MessageSendResult.failed(messageToSend.getMessageId(), e.getMessage()));
+                        }
+                    }
+                } finally {
+                    producer.close();
+                }
+                return batchResults;
+            }, true);
+        } catch (JmsException e) {
+            throw new MessageSendException("Failed to send batch to ActiveMQ: " + e.getMessage(), e);
+        }
+
+        System.out.println("Batch of " + messagesToSend.size() + " messages sent to ActiveMQ via " + destination);
+        return results;
+    }
+
+    @Override
+    public void close(String producerId) {
+        // Conexões e sessões pertencem ao pool compartilhado; nada a fechar por produtor
+        System.out.println("ActiveMQ5Producer close operation for producer: " + producerId + " (pooled JMS connections)");
+    }
+
+    static String resolveDestinationName(String queue, String exchange) {
+        return (queue != null && !queue.isEmpty()) ? queue : exchange;
+    }
+
+    private Destination resolveDestination(String strategy, String queue, String exchange) {
+        String name = resolveDestinationName(queue, exchange);
+        boolean topic = "topic".equals(strategy);
+        return destinations.computeIfAbsent((topic ? "topic://" : "queue://") + name,
+                key -> topic ? new ActiveMQTopic(name) : new ActiveMQQueue(name));
+    }
+
+    private jakarta.jms.Message createMessage(Session session, MessageToSend messageToSend, SendPlan plan) throws JMSException {
+        jakarta.jms.Message message;
+        if (messageToSend.isBinary()) {
+            // Payload binário vai como BytesMessage, sem envelope JSON; os headers da mensagem viram propriedades JMS
+            BytesMessage bytesMessage = session.createBytesMessage();
+            bytesMessage.writeBytes(messageToSend.getPayload());
+            bytesMessage.setStringProperty(CONTENT_TYPE_PROPERTY, messageToSend.getContentType());
+            if (messageToSend.getCustomHeaders() != null) {
+                for (Map.Entry<String, Object> header : messageToSend.getCustomHeaders().entrySet()) {
+                    bytesMessage.setStringProperty(header.getKey(), String.valueOf(header.getValue()));
+                }
+            }
+            message = bytesMessage;
+        } else {
+            message = session.createTextMessage(gson.toJson(messageToSend));
+        }
+        message.setJMSCorrelationID(messageToSend.getMessageId());
+        if (plan.getHeaders() != null) {
+            // Propriedades JMS (podem ser usadas em seletores pelos consumidores)
+            for (Map.Entry<String, Object> header : plan.getHeaders().entrySet()) {
+                message.setStringProperty(header.getKey(), String.valueOf(header.getValue()));
+            }
+        }
+        return message;
+    }
+
+    private void validateBrokerConfiguration(Broker broker) {
+        String strategy = broker.getStrategy();
+        if (!"direct".equals(strategy) && !"topic".equals(strategy)) {
+            throw new BrokerStrategyIncompatibleException("ActiveMQ5 only supports 'direct' and 'topic' strategies.");
+        }
+        String name = resolveDestinationName(broker.getQueue(), broker.getExchange());
+        if (name == null || name.isEmpty()) {
+            throw new BrokerStrategyIncompatibleException("Queue (or topic name) is required for ActiveMQ5.");
+        }
+        if (broker.getHeaders() != null && !broker.getHeaders().isEmpty()) {
+            try {
+                gson.fromJson(broker.getHeaders(), Map.class);
+            } catch (Exception e) {
+                throw new BrokerStrategyIncompatibleException("Headers must be a valid JSON string.");
+            }
+        }
+    }
+}
\ No newline at end of file
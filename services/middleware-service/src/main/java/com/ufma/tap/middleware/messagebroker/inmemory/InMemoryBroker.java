@@ -0,0 +1,180 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/messagebroker/inmemory/InMemoryBroker.java
+package com.ufma.tap.middleware.messagebroker.inmemory;
+
+import com.ufma.tap.middleware.exception.BrokerStrategyIncompatibleException;
+import com.ufma.tap.middleware.exception.MessageSendException;
+import com.ufma.tap.middleware.model.MessageToSend;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Broker "inmemory": exchanges, filas e bindings dentro da própria réplica, com a mesma semântica de roteamento
+// que o RabbitMQProducer usa (direct, topic com '*'/'#', fanout e headers com x-match=any).
+// Cada fila é um InMemoryRingBuffer; as mensagens trafegam como objetos, sem serialização.
+@Component
+public class InMemoryBroker {
+
+    @Value("${middleware.inmemory.queue-capacity:65536}")
+    private int queueCapacity;
+
+    // nome do exchange -> tipo (estratégia)
+    private final Map<String, String> exchanges = new ConcurrentHashMap<>();
+    private final Map<String, InMemoryRingBuffer<MessageToSend>> queues = new ConcurrentHashMap<>();
+    // nome do exchange -> bindings (leitura muito mais frequente que escrita)
+    private final Map<String, List<Binding>> bindings = new ConcurrentHashMap<>();
+
+    public void declareExchange(String exchangeName, String strategy) {
+        String declaredType = exchanges.putIfAbsent(exchangeName, strategy);
+        if (declaredType != null && !declaredType.equals(strategy)) {
+            throw new BrokerStrategyIncompatibleException("Exchange '" + exchangeName + "' already exists with a different type: " + declaredType);
+        }
+    }
+
+    public InMemoryRingBuffer<MessageToSend> declareQueue(String queueName) {
+        return queues.computeIfAbsent(queueName, name -> new InMemoryRingBuffer<>(queueCapacity));
+    }
+
+    public void declareBinding(String exchangeName, String queueName, String routingKey, Map<String, Object> headersMap) {
+        Binding binding = new Binding(queueName, routingKey, headersMap);
+        List<Binding> exchangeBindings = bindings.computeIfAbsent(exchangeName, name -> new CopyOnWriteArrayList<>());
+        ((CopyOnWriteArrayList<Binding>) exchangeBindings).addIfAbsent(binding);
+    }
+
+    /**
+     * Roteia a mensagem para todas as filas cujos bindings casam com o exchange.
+     * Garantia: quando publish lança exceção, a mensagem não foi entregue a nenhuma fila, então o cliente pode
+     * tentar de novo sem duplicar. A capacidade de todas as filas casadas é verificada antes da primeira entrega;
+     * se outro produtor encher uma delas entre a verificação e a entrega (as filas não têm lock), a mensagem segue
+     * para as demais e a fila que ficou sem cópia é registrada no log, em vez de a publicação falhar já entregue em parte.
+     * @param headersMap Headers da mensagem (usados apenas pelo exchange 'headers').
+     * @throws MessageSendException se nenhuma fila casar (equivalente ao retorno 'mandatory' do RabbitMQ) ou se alguma fila estiver cheia.
+     */
+    public void publish(String exchangeName, String routingKey, Map<String, Object> headersMap, MessageToSend messageToSend) {
+        String strategy = exchanges.get(exchangeName);
+        if (strategy == null) {
+            throw new MessageSendException("In-memory exchange '" + exchangeName + "' does not exist.");
+        }
+        List<InMemoryRingBuffer<MessageToSend>> targets = null;
+        List<String> targetNames = null;
+        List<String> fullQueues = null;
+        Set<String> matchedQueues = null; // Como no RabbitMQ, no máximo uma cópia por fila, mesmo com vários bindings casando
+        for (Binding binding : bindings.getOrDefault(exchangeName, List.of())) {
+            if (!binding.matches(strategy, routingKey, headersMap)) {
+                continue;
+            }
+            if (matchedQueues == null) {
+                matchedQueues = new HashSet<>(4);
+                targets = new ArrayList<>(4);
+                targetNames = new ArrayList<>(4);
+            }
+            if (!matchedQueues.add(binding.queueName)) {
+                continue;
+            }
+            InMemoryRingBuffer<MessageToSend> queue = queues.get(binding.queueName);
+            if (queue.size() >= queue.capacity()) {
+                if (fullQueues == null) {
+                    fullQueues = new ArrayList<>();
+                }
+                fullQueues.add(binding.queueName);
+            }
+            targets.add(queue);
+            targetNames.add(binding.queueName);
+        }
+        if (fullQueues != null) {
+            throw new MessageSendException("In-memory queue(s) full, message " + messageToSend.getMessageId() + " not delivered to: " + fullQueues);
+        }
+        if (targets == null) {
+            throw new MessageSendException("Message " + messageToSend.getMessageId() + " could not be routed by in-memory exchange '" + exchangeName + "'.");
+        }
+        int routed = 0;
+        for (int i = 0; i < targets.size(); i++) {
+            if (targets.get(i).offer(messageToSend)) {
+                routed++;
+            } else {
+                System.err.println("In-memory queue '" + targetNames.get(i) + "' filled up concurrently; message " + messageToSend.getMessageId() + " routed to the other queues only.");
+            }
+        }
+        if (routed == 0) {
+            // Nenhuma cópia entregue (todas as filas encheram ao mesmo tempo): falhar ainda é seguro para o reenvio
+            throw new MessageSendException("In-memory queue(s) full, message " + messageToSend.getMessageId() + " not delivered to: " + targetNames);
+        }
+    }
+
+    private static final class Binding {
+        private final String queueName;
+        private final String routingKey;
+        private final String[] routingKeyWords; // Pré-dividida para o casamento de 'topic'
+        private final Map<String, Object> headers;
+
+        private Binding(String queueName, String routingKey, Map<String, Object> headers) {
+            this.queueName = queueName;
+            this.routingKey = routingKey;
+            this.routingKeyWords = routingKey != null ? routingKey.split("\\.", -1) : new String[0];
+            this.headers = headers;
+        }
+
+        private boolean matches(String strategy, String messageRoutingKey, Map<String, Object> messageHeaders) {
+            switch (strategy) {
+                case "direct":
+                    return Objects.equals(routingKey, messageRoutingKey);
+                case "topic":
+                    return messageRoutingKey != null && topicMatches(routingKeyWords, 0, messageRoutingKey.split("\\.", -1), 0);
+                case "fanout":
+                    return true;
+                case "headers":
+                    // whereAny: basta um header igual
+                    if (headers == null || messageHeaders == null) {
+                        return false;
+                    }
+                    for (Map.Entry<String, Object> header : headers.entrySet()) {
+                        if (Objects.equals(header.getValue(), messageHeaders.get(header.getKey()))) {
+                            return true;
+                        }
+                    }
+                    return false;
+                default:
+                    return false;
+            }
+        }
+
+        // '*' casa exatamente uma palavra e '#' casa zero ou mais palavras
+        private static boolean topicMatches(String[] pattern, int p, String[] words, int w) {
+            if (p == pattern.length) {
+                return w == words.length;
+            }
+            if ("#".equals(pattern[p])) {
+                for (int next = w; next <= words.length; next++) {
+                    if (topicMatches(pattern, p + 1, words, next)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            if (w == words.length) {
+                return false;
+            }
+            return ("*".equals(pattern[p]) || pattern[p].equals(words[w])) && topicMatches(pattern, p + 1, words, w + 1);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Binding)) return false;
+            Binding other = (Binding) o;
+            return queueName.equals(other.queueName) && Objects.equals(routingKey, other.routingKey) && Objects.equals(headers, other.headers);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(queueName, routingKey, headers);
+        }
+    }
+}
\ No newline at end of file
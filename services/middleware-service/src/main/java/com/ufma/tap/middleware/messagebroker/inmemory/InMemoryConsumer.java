@@ -0,0 +1,192 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/messagebroker/inmemory/InMemoryConsumer.java
+package com.ufma.tap.middleware.messagebroker.inmemory;
+
+import com.google.gson.Gson;
+import com.ufma.tap.middleware.exception.BrokerStrategyIncompatibleException;
+import com.ufma.tap.middleware.messagebroker.IConsumerMessaging;
+import com.ufma.tap.middleware.messagebroker.MessageDeliveryHandler;
+import com.ufma.tap.middleware.model.Consumer;
+import com.ufma.tap.middleware.model.Message;
+import com.ufma.tap.middleware.model.MessageToSend;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Uma thread leitora por consumidor, lendo direto do ring buffer da fila. Consumidores na mesma fila competem
+// pelas mensagens (como no RabbitMQ). Quando a fila esvazia, a thread faz spin -> yield -> park curto,
+// mantendo a latência baixa sob carga sem ocupar CPU quando ociosa.
+@Component
+@Qualifier("inMemoryConsumer")
+public class InMemoryConsumer implements IConsumerMessaging {
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 200;
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Autowired
+    private InMemoryBroker inMemoryBroker;
+
+    private final Gson gson = new Gson();
+
+    private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+
+    @Override
+    public void connectAndListen(Consumer consumer, MessageDeliveryHandler messageHandler) {
+        Subscription oldSubscription = subscriptions.remove(consumer.getId());
+        if (oldSubscription != null) {
+            oldSubscription.stop();
+            System.out.println("Stopped existing in-memory listener for consumer: " + consumer.getId());
+        }
+
+        validateBrokerConfiguration(consumer);
+
+        String strategy = consumer.getStrategy();
+        String queueName = consumer.getQueue();
+        String routingKey = consumer.getRoutingKey();
+        if ("direct".equals(strategy) && (routingKey == null || routingKey.isEmpty())) {
+            routingKey = queueName;
+        }
+        Map<String, Object> headersMap = gson.fromJson(consumer.getHeaders(), Map.class);
+
+        inMemoryBroker.declareExchange(consumer.getExchange(), strategy);
+        InMemoryRingBuffer<MessageToSend> queue = inMemoryBroker.declareQueue(queueName);
+        inMemoryBroker.declareBinding(consumer.getExchange(), queueName, routingKey, headersMap);
+
+        Subscription subscription = new Subscription(consumer, queue, messageHandler);
+        subscriptions.put(consumer.getId(), subscription);
+        subscription.start();
+
+        System.out.println("In-memory Consumer " + consumer.getId() + " connected and listening on queue: " + queueName);
+    }
+
+    @Override
+    public void close(String consumerId) {
+        Subscription subscription = subscriptions.remove(consumerId);
+        if (subscription != null) {
+            subscription.stop();
+            System.out.println("In-memory Consumer " + consumerId + " listener stopped.");
+        }
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        subscriptions.keySet().forEach(this::close);
+    }
+
+    private void validateBrokerConfiguration(Consumer consumer) {
+        if (consumer.getExchange() == null || consumer.getExchange().isEmpty()) {
+            throw new BrokerStrategyIncompatibleException("Exchange name is required for all in-memory strategies.");
+        }
+        if (consumer.getQueue() == null || consumer.getQueue().isEmpty()) {
+            throw new BrokerStrategyIncompatibleException("Queue name is required for all in-memory strategies.");
+        }
+
+        switch (consumer.getStrategy()) {
+            case "direct":
+            case "fanout":
+                break;
+            case "topic":
+                if (consumer.getRoutingKey() == null || consumer.getRoutingKey().isEmpty()) {
+                    throw new BrokerStrategyIncompatibleException("Routing Key is mandatory for 'topic' strategy.");
+                }
+                break;
+            case "headers":
+                if (consumer.getHeaders() == null || consumer.getHeaders().isEmpty()) {
+                    throw new BrokerStrategyIncompatibleException("Headers are mandatory for 'headers' strategy.");
+                }
+                try {
+                    gson.fromJson(consumer.getHeaders(), Map.class);
+                } catch (Exception e) {
+                    throw new BrokerStrategyIncompatibleException("Headers must be a valid JSON string for 'headers' strategy.");
+                }
+                break;
+            default:
+                throw new BrokerStrategyIncompatibleException("Invalid strategy for in-memory broker: " + consumer.getStrategy());
+        }
+    }
+
+    private static final class Subscription implements Runnable {
+        private final Consumer consumer;
+        private final InMemoryRingBuffer<MessageToSend> queue;
+        private final MessageDeliveryHandler messageHandler;
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        private Subscription(Consumer consumer, InMemoryRingBuffer<MessageToSend> queue, MessageDeliveryHandler messageHandler) {
+            this.consumer = consumer;
+            this.queue = queue;
+            this.messageHandler = messageHandler;
+            this.thread = new Thread(this, "inmemory-consumer-" + consumer.getId());
+            this.thread.setDaemon(true);
+        }
+
+        private void start() {
+            thread.start();
+        }
+
+        private void stop() {
+            running = false;
+            LockSupport.unpark(thread);
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            long parkNanos = 1_000;
+            while (running) {
+                MessageToSend messageToSend = queue.poll();
+                if (messageToSend == null) {
+                    idle++;
+                    if (idle < SPIN_TRIES) {
+                        Thread.onSpinWait();
+                    } else if (idle < YIELD_TRIES) {
+                        Thread.yield();
+                    } else {
+                        LockSupport.parkNanos(parkNanos);
+                        parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+                    }
+                    continue;
+                }
+                idle = 0;
+                parkNanos = 1_000;
+                deliver(messageToSend);
+            }
+        }
+
+        private void deliver(MessageToSend messageToSend) {
+            try {
+                // Uma instância por entrega: a mesma MessageToSend pode estar em várias filas (fanout/topic)
+                Message receivedMessage = new Message();
+                receivedMessage.setMessageId(messageToSend.getMessageId());
+                // Payload binário chega como o próprio byte[] publicado; 'data' (TEXT) recebe o corpo em Base64
+                receivedMessage.setData(messageToSend.isBinary()
+                        ? Base64.getEncoder().encodeToString(messageToSend.getPayload())
+                        : messageToSend.getData());
+                receivedMessage.setConsumerId(consumer.getId());
+                receivedMessage.setQueue(consumer.getQueue());
+
+                if (consumer.getPersistenceTime() != null && consumer.getPersistenceTime() > 0) {
+                    long expireTimeMillis = System.currentTimeMillis() + consumer.getPersistenceTime();
+                    if (expireTimeMillis < 0) {
+                        expireTimeMillis = Long.MAX_VALUE;
+                    }
+                    receivedMessage.setExpireAt(new Date(expireTimeMillis));
+                } else {
+                    receivedMessage.setExpireAt(null);
+                }
+
+                messageHandler.deliver(receivedMessage);
+            } catch (Exception e) {
+                System.err.println("Error processing in-memory message for consumer " + consumer.getId() + ": " + e.getMessage());
+            }
+        }
+    }
+}
\ No newline at end of file
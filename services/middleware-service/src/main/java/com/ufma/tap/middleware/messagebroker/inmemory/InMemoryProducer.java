@@ -0,0 +1,128 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/messagebroker/inmemory/InMemoryProducer.java
+package com.ufma.tap.middleware.messagebroker.inmemory;
+
+import com.google.gson.Gson;
+import com.ufma.tap.middleware.dto.MessageSendResult;
+import com.ufma.tap.middleware.exception.BrokerStrategyIncompatibleException;
+import com.ufma.tap.middleware.messagebroker.IProducerMessaging;
+import com.ufma.tap.middleware.messagebroker.SendPlan;
+import com.ufma.tap.middleware.model.Broker;
+import com.ufma.tap.middleware.model.MessageToSend;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@Component
+@Qualifier("inMemoryProducer")
+public class InMemoryProducer implements IProducerMessaging {
+
+    private static final long TOPOLOGY_DECLARED = 0; // Topologia em memória não se perde: basta declarar uma vez por plano
+
+    @Autowired
+    private InMemoryBroker inMemoryBroker;
+
+    private final Gson gson = new Gson();
+
+    @Override
+    public void connect(Broker broker) {
+        System.out.println("InMemoryProducer connected/validated for broker: " + broker.getName());
+    }
+
+    @Override
+    public void send(MessageToSend messageToSend, Broker broker) {
+        sendAsync(messageToSend, broker);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAsync(MessageToSend messageToSend, Broker broker) {
+        return sendAsync(messageToSend, compilePlan(null, null, broker));
+    }
+
+    @Override
+    public SendPlan compilePlan(String producerId, LocalDateTime producerVersion, Broker broker) {
+        validateBrokerConfiguration(broker);
+        Map<String, Object> headersMap = gson.fromJson(broker.getHeaders(), Map.class);
+        return new SendPlan(producerId, producerVersion, broker, headersMap);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAsync(MessageToSend messageToSend, SendPlan plan) {
+        ensurePlanTopology(plan);
+        // A mensagem já está na fila ao retornar: não há confirmação assíncrona a esperar
+        inMemoryBroker.publish(plan.getExchange(), plan.getPublishRoutingKey(), plan.getHeaders(), messageToSend);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public List<MessageSendResult> sendBatch(List<MessageToSend> messagesToSend, Broker broker) {
+        return sendBatch(messagesToSend, compilePlan(null, null, broker));
+    }
+
+    @Override
+    public List<MessageSendResult> sendBatch(List<MessageToSend> messagesToSend, SendPlan plan) {
+        ensurePlanTopology(plan);
+        List<MessageSendResult> results = new ArrayList<>(messagesToSend.size());
+        for (MessageToSend messageToSend : messagesToSend) {
+            try {
+                inMemoryBroker.publish(plan.getExchange(), plan.getPublishRoutingKey(), plan.getHeaders(), messageToSend);
+                results.add(MessageSendResult.accepted(messageToSend.getMessageId()));
+            } catch (RuntimeException e) {
+                results.add(MessageSendResult.failed(messageToSend.getMessageId(), e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void close(String producerId) {
+        System.out.println("InMemoryProducer close operation for producer: " + producerId + " (nothing to release)");
+    }
+
+    private void ensurePlanTopology(SendPlan plan) {
+        if (plan.getTopologyGeneration() == TOPOLOGY_DECLARED) {
+            return;
+        }
+        inMemoryBroker.declareExchange(plan.getExchange(), plan.getStrategy());
+        inMemoryBroker.declareQueue(plan.getQueue());
+        inMemoryBroker.declareBinding(plan.getExchange(), plan.getQueue(), plan.getRoutingKey(), plan.getHeaders());
+        plan.setTopologyGeneration(TOPOLOGY_DECLARED);
+    }
+
+    private void validateBrokerConfiguration(Broker broker) {
+        if (broker.getExchange() == null || broker.getExchange().isEmpty()) {
+            throw new BrokerStrategyIncompatibleException("Exchange name is required for all in-memory strategies.");
+        }
+        if (broker.getQueue() == null || broker.getQueue().isEmpty()) {
+            throw new BrokerStrategyIncompatibleException("Queue name is required for all in-memory strategies.");
+        }
+
+        switch (broker.getStrategy()) {
+            case "direct":
+            case "fanout":
+                break;
+            case "topic":
+                if (broker.getRoutingKey() == null || broker.getRoutingKey().isEmpty()) {
+                    throw new BrokerStrategyIncompatibleException("Routing Key is mandatory for 'topic' strategy.");
+                }
+                break;
+            case "headers":
+                if (broker.getHeaders() == null || broker.getHeaders().isEmpty()) {
+                    throw new BrokerStrategyIncompatibleException("Headers are mandatory for 'headers' strategy.");
+                }
+                try {
+                    gson.fromJson(broker.getHeaders(), Map.class);
+                } catch (Exception e) {
+                    throw new BrokerStrategyIncompatibleException("Headers must be a valid JSON string for 'headers' strategy.");
+                }
+                break;
+            default:
+                throw new BrokerStrategyIncompatibleException("Invalid strategy for in-memory broker: " + broker.getStrategy());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/messagebroker/inmemory/InMemoryRingBuffer.java
+package com.ufma.tap.middleware.messagebroker.inmemory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Ring buffer limitado e sem locks (algoritmo de D. Vyukov): cada slot guarda um número de sequência que diz
+// se ele está livre para o próximo escritor ou pronto para o próximo leitor. Escritores e leitores só disputam
+// um CAS no próprio cursor (tail/head); não há lock nem alocação por mensagem.
+// Com vários leitores, cada item é entregue a apenas um deles (consumidores concorrentes, como numa fila AMQP).
+public class InMemoryRingBuffer<T> {
+
+    private final int mask;
+    private final AtomicReferenceArray<T> items;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong(); // Próxima posição a ler
+    private final AtomicLong tail = new AtomicLong(); // Próxima posição a escrever
+
+    public InMemoryRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity) - 1) << 1; // Potência de 2 (índice por máscara)
+        this.mask = capacity - 1;
+        this.items = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return false se o buffer estiver cheio (o chamador decide se rejeita ou tenta de novo).
+     */
+    public boolean offer(T item) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    items.lazySet(index, item);
+                    sequences.set(index, position + 1); // Publica o item para os leitores
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false; // O slot ainda não foi consumido na volta anterior: buffer cheio
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * @return O próximo item, ou null se o buffer estiver vazio.
+     */
+    public T poll() {
+        long position = head.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    T item = items.get(index);
+                    items.lazySet(index, null);
+                    sequences.set(index, position + mask + 1); // Libera o slot para a próxima volta dos escritores
+                    return item;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
\ No newline at end of file
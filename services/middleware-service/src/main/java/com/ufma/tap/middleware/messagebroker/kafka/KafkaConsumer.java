@@ -0,0 +1,162 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/messagebroker/kafka/KafkaConsumer.java
+package com.ufma.tap.middleware.messagebroker.kafka;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.ufma.tap.middleware.config.ExecutionThreads;
+import com.ufma.tap.middleware.exception.BrokerStrategyIncompatibleException;
+import com.ufma.tap.middleware.exception.MessageDeliveryException;
+import com.ufma.tap.middleware.messagebroker.IConsumerMessaging;
+import com.ufma.tap.middleware.messagebroker.MessageDeliveryHandler;
+import com.ufma.tap.middleware.model.Consumer;
+import com.ufma.tap.middleware.model.Message;
+import org.apache.kafka.common.KafkaException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Um listener container por consumidor, com group.id = id do consumidor: cada consumidor do middleware
+// recebe todas as mensagens do tópico (como uma fila própria no RabbitMQ) e retoma do último offset confirmado.
+// O listener espera a entrega (SSE ou persistência) de cada registro antes de seguir: se ela falhar, a exceção
+// chega ao DefaultErrorHandler, que volta o offset (seek) e tenta de novo após o backoff, sem confirmar o registro.
+@Component
+@Qualifier("kafkaConsumer")
+public class KafkaConsumer implements IConsumerMessaging {
+
+    @Autowired
+    private ConsumerFactory<String, String> kafkaConsumerFactory;
+
+    @Autowired
+    private KafkaTopicRegistry topicRegistry;
+
+    @Autowired
+    private ExecutionThreads executionThreads; // Virtual threads nos listener containers quando habilitadas
+
+    // Espera máxima pela entrega de um registro (abaixo do max.poll.interval.ms do consumidor Kafka)
+    @Value("${middleware.kafka.consumer.delivery-timeout-ms:30000}")
+    private long deliveryTimeoutMs;
+
+    // Intervalo entre novas tentativas de um registro não entregue (o offset fica parado até lá)
+    @Value("${middleware.kafka.consumer.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    private final Gson gson = new Gson();
+
+    private final Map<String, ConcurrentMessageListenerContainer<String, String>> listenerContainers = new ConcurrentHashMap<>();
+
+    @Override
+    public void connectAndListen(Consumer consumer, MessageDeliveryHandler messageHandler) {
+        ConcurrentMessageListenerContainer<String, String> oldContainer = listenerContainers.remove(consumer.getId());
+        if (oldContainer != null) {
+            oldContainer.stop();
+            System.out.println("Stopped existing Kafka listener for consumer: " + consumer.getId());
+        }
+
+        validateBrokerConfiguration(consumer);
+        String topic = KafkaProducer.resolveTopic(consumer.getQueue(), consumer.getExchange());
+
+        try {
+            topicRegistry.ensureTopic(topic);
+
+            ContainerProperties containerProperties = new ContainerProperties(topic);
+            containerProperties.setGroupId(consumer.getId());
+            AsyncTaskExecutor listenerExecutor = executionThreads.listenerExecutor("kafka-consumer-" + consumer.getId() + "-");
+            if (listenerExecutor != null) {
+                containerProperties.setListenerTaskExecutor(listenerExecutor);
+            }
+            containerProperties.setMessageListener((MessageListener<String, String>) record -> {
+                Message receivedMessage = gson.fromJson(record.value(), Message.class);
+                if (receivedMessage == null) {
+                    throw new JsonParseException("Empty Kafka record value.");
+                }
+
+                receivedMessage.setConsumerId(consumer.getId());
+                receivedMessage.setQueue(topic);
+
+                if (consumer.getPersistenceTime() != null && consumer.getPersistenceTime() > 0) {
+                    long expireTimeMillis = System.currentTimeMillis() + consumer.getPersistenceTime();
+                    if (expireTimeMillis < 0) {
+                        expireTimeMillis = Long.MAX_VALUE;
+                    }
+                    receivedMessage.setExpireAt(new Date(expireTimeMillis));
+                } else {
+                    receivedMessage.setExpireAt(null);
+                }
+
+                awaitDelivery(consumer.getId(), receivedMessage, messageHandler);
+            });
+
+            ConcurrentMessageListenerContainer<String, String> container =
+                    new ConcurrentMessageListenerContainer<>(kafkaConsumerFactory, containerProperties);
+            container.setBeanName("kafka-consumer-" + consumer.getId());
+            container.setCommonErrorHandler(deliveryErrorHandler());
+            container.start();
+            listenerContainers.put(consumer.getId(), container);
+
+            System.out.println("Kafka Consumer " + consumer.getId() + " connected and listening on topic: " + topic);
+
+        } catch (KafkaException e) {
+            throw new RuntimeException("Failed to connect Kafka Consumer: " + e.getMessage(), e);
+        }
+    }
+
+    // Só retorna quando a mensagem foi entregue; qualquer falha sobe para o error handler, que não confirma o offset
+    private void awaitDelivery(String consumerId, Message receivedMessage, MessageDeliveryHandler messageHandler) {
+        try {
+            messageHandler.deliver(receivedMessage).get(deliveryTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessageDeliveryException("Interrupted while delivering Kafka message " + receivedMessage.getMessageId() + " to consumer " + consumerId + ".", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new MessageDeliveryException("Kafka message " + receivedMessage.getMessageId() + " was not delivered to consumer " + consumerId + ": " + cause.getMessage(), cause);
+        } catch (TimeoutException e) {
+            throw new MessageDeliveryException("Kafka message " + receivedMessage.getMessageId() + " was not delivered to consumer " + consumerId + " within " + deliveryTimeoutMs + " ms.", e);
+        }
+    }
+
+    // Entrega que falhou: seek de volta e nova tentativa após o backoff, sem limite (o offset só avança com a entrega).
+    // Registro que não é uma Message válida não tem conserto: é registrado no log e confirmado.
+    private DefaultErrorHandler deliveryErrorHandler() {
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(
+                (record, e) -> System.err.println("Discarding unreadable Kafka record at " + record.topic() + "-" + record.partition() + "@" + record.offset() + ": " + e.getMessage()),
+                new FixedBackOff(retryBackoffMs, FixedBackOff.UNLIMITED_ATTEMPTS));
+        errorHandler.addNotRetryableExceptions(JsonParseException.class);
+        return errorHandler;
+    }
+
+    @Override
+    public void close(String consumerId) {
+        ConcurrentMessageListenerContainer<String, String> container = listenerContainers.remove(consumerId);
+        if (container != null) {
+            // Parada assíncrona: pode ser chamada da própria thread do listener (cliente SSE desconectado no meio de
+            // uma entrega), que termina o registro atual sem confirmá-lo e sai
+            container.stop(() -> System.out.println("Kafka Consumer " + consumerId + " listener stopped."));
+        }
+    }
+
+    private void validateBrokerConfiguration(Consumer consumer) {
+        if (!"topic".equals(consumer.getStrategy())) {
+            throw new BrokerStrategyIncompatibleException("Kafka only supports 'topic' strategy.");
+        }
+        String topic = KafkaProducer.resolveTopic(consumer.getQueue(), consumer.getExchange());
+        if (topic == null || topic.isEmpty()) {
+            throw new BrokerStrategyIncompatibleException("Queue (topic name) is required for Kafka.");
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,170 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/messagebroker/kafka/KafkaProducer.java
+package com.ufma.tap.middleware.messagebroker.kafka;
+
+import com.google.gson.Gson;
+import com.ufma.tap.middleware.dto.MessageSendResult;
+import com.ufma.tap.middleware.exception.BrokerStrategyIncompatibleException;
+import com.ufma.tap.middleware.exception.MessageSendException;
+import com.ufma.tap.middleware.messagebroker.IProducerMessaging;
+import com.ufma.tap.middleware.messagebroker.SendPlan;
+import com.ufma.tap.middleware.model.Broker;
+import com.ufma.tap.middleware.model.MessageToSend;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Adaptador Kafka. Só existe a estratégia 'topic': o tópico Kafka é a 'queue' do produtor (ou o 'exchange',
+// se a fila não for informada) e a routing key vira a chave do registro, definindo a partição (ordem por chave).
+// Lotes e compressão ficam a cargo do KafkaProducer do cliente (linger.ms/batch.size/compression.type no KafkaConfig).
+@Component
+@Qualifier("kafkaProducer")
+public class KafkaProducer implements IProducerMessaging {
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private KafkaTopicRegistry topicRegistry;
+
+    private final Gson gson = new Gson();
+
+    @Override
+    public void connect(Broker broker) {
+        validateBrokerConfiguration(broker);
+        topicRegistry.ensureTopic(resolveTopic(broker.getQueue(), broker.getExchange()));
+        System.out.println("KafkaProducer connected/validated for broker: " + broker.getName());
+    }
+
+    @Override
+    public void send(MessageToSend messageToSend, Broker broker) {
+        try {
+            sendAsync(messageToSend, broker).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new MessageSendException("Failed to send message to Kafka: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAsync(MessageToSend messageToSend, Broker broker) {
+        return sendAsync(messageToSend, compilePlan(null, null, broker));
+    }
+
+    @Override
+    public SendPlan compilePlan(String producerId, LocalDateTime producerVersion, Broker broker) {
+        validateBrokerConfiguration(broker);
+        Map<String, Object> headersMap = gson.fromJson(broker.getHeaders(), Map.class);
+        return new SendPlan(producerId, producerVersion, broker, headersMap);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAsync(MessageToSend messageToSend, SendPlan plan) {
+        String topic = resolveTopic(plan.getQueue(), plan.getExchange());
+        try {
+            topicRegistry.ensureTopic(topic);
+            // O future do KafkaTemplate conclui quando o broker confirmar o lote (conforme 'acks')
+            return kafkaTemplate.send(buildRecord(topic, messageToSend, plan))
+                    .handle((result, ex) -> {
+                        if (ex != null) {
+                            throw new MessageSendException("Failed to send message " + messageToSend.getMessageId() + " to Kafka: " + ex.getMessage(), ex);
+                        }
+                        return null;
+                    });
+        } catch (KafkaException e) {
+            throw new MessageSendException("Failed to send message to Kafka: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<MessageSendResult> sendBatch(List<MessageToSend> messagesToSend, Broker broker) {
+        return sendBatch(messagesToSend, compilePlan(null, null, broker));
+    }
+
+    @Override
+    public List<MessageSendResult> sendBatch(List<MessageToSend> messagesToSend, SendPlan plan) {
+        String topic = resolveTopic(plan.getQueue(), plan.getExchange());
+        try {
+            topicRegistry.ensureTopic(topic);
+        } catch (KafkaException e) {
+            throw new MessageSendException("Failed to declare Kafka topic for batch: " + e.getMessage(), e);
+        }
+
+        // Todos os registros vão para o acumulador do produtor antes de esperarmos qualquer confirmação,
+        // assim o cliente monta lotes grandes (e comprimidos) em vez de um request por mensagem.
+        List<CompletableFuture<?>> acks = new ArrayList<>(messagesToSend.size());
+        for (MessageToSend messageToSend : messagesToSend) {
+            try {
+                acks.add(kafkaTemplate.send(buildRecord(topic, messageToSend, plan)));
+            } catch (KafkaException e) {
+                acks.add(CompletableFuture.failedFuture(e));
+            }
+        }
+        kafkaTemplate.flush();
+
+        List<MessageSendResult> results = new ArrayList<>(messagesToSend.size());
+        for (int i = 0; i < messagesToSend.size(); i++) {
+            String messageId = messagesToSend.get(i).getMessageId();
+            try {
+                acks.get(i).join();
+                results.add(MessageSendResult.accepted(messageId));
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                results.add(MessageSendResult.failed(messageId, cause.getMessage()));
+            }
+        }
+
+        System.out.println("Batch of " + messagesToSend.size() + " messages sent to Kafka topic: " + topic);
+        return results;
+    }
+
+    @Override
+    public void close(String producerId) {
+        // O KafkaProducer é compartilhado por todos os produtores e fechado junto com o contexto do Spring
+        System.out.println("KafkaProducer close operation for producer: " + producerId + " (shared Kafka producer)");
+    }
+
+    static String resolveTopic(String queue, String exchange) {
+        return (queue != null && !queue.isEmpty()) ? queue : exchange;
+    }
+
+    private ProducerRecord<String, String> buildRecord(String topic, MessageToSend messageToSend, SendPlan plan) {
+        String key = plan.getRoutingKey() != null && !plan.getRoutingKey().isEmpty() ? plan.getRoutingKey() : null;
+        ProducerRecord<String, String> record = new ProducerRecord<>(topic, key, gson.toJson(messageToSend));
+        record.headers().add("messageId", messageToSend.getMessageId().getBytes(StandardCharsets.UTF_8));
+        if (plan.getHeaders() != null) {
+            plan.getHeaders().forEach((name, value) ->
+                    record.headers().add(name, String.valueOf(value).getBytes(StandardCharsets.UTF_8)));
+        }
+        return record;
+    }
+
+    private void validateBrokerConfiguration(Broker broker) {
+        if (!"topic".equals(broker.getStrategy())) {
+            throw new BrokerStrategyIncompatibleException("Kafka only supports 'topic' strategy.");
+        }
+        String topic = resolveTopic(broker.getQueue(), broker.getExchange());
+        if (topic == null || topic.isEmpty()) {
+            throw new BrokerStrategyIncompatibleException("Queue (topic name) is required for Kafka.");
+        }
+        if (broker.getHeaders() != null && !broker.getHeaders().isEmpty()) {
+            try {
+                gson.fromJson(broker.getHeaders(), Map.class);
+            } catch (Exception e) {
+                throw new BrokerStrategyIncompatibleException("Headers must be a valid JSON string.");
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/messagebroker/kafka/KafkaTopicRegistry.java
+package com.ufma.tap.middleware.messagebroker.kafka;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Registro compartilhado (produtor e consumidor) dos tópicos Kafka já garantidos, no mesmo papel do
+// RabbitMQTopologyRegistry: só vai ao broker na primeira vez que um tópico é usado.
+@Component
+public class KafkaTopicRegistry {
+
+    @Autowired
+    private KafkaAdmin kafkaAdmin;
+
+    @Value("${middleware.kafka.topic-partitions:3}")
+    private int topicPartitions;
+
+    @Value("${middleware.kafka.topic-replicas:1}")
+    private int topicReplicas;
+
+    private final Set<String> declaredTopics = ConcurrentHashMap.newKeySet();
+
+    public void ensureTopic(String topic) {
+        if (declaredTopics.contains(topic)) {
+            return;
+        }
+        // Tópicos já existentes não são alterados (createOrModifyTopics só aumenta partições se necessário)
+        kafkaAdmin.createOrModifyTopics(TopicBuilder.name(topic).partitions(topicPartitions).replicas(topicReplicas).build());
+        declaredTopics.add(topic);
+    }
+}
\ No newline at end of file
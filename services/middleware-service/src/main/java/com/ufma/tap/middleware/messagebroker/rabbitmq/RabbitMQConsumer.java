@@ -2,48 +2,174 @@
 package com.ufma.tap.middleware.messagebroker.rabbitmq;
 
 import com.google.gson.Gson;
-import com.ufma.tap.middleware.model.Broker;
+import com.rabbitmq.client.Channel;
+import com.ufma.tap.middleware.config.ExecutionThreads;
 import com.ufma.tap.middleware.model.Consumer;
 import com.ufma.tap.middleware.model.Message;
 import com.ufma.tap.middleware.exception.BrokerStrategyIncompatibleException;
 import com.ufma.tap.middleware.messagebroker.IConsumerMessaging;
+import com.ufma.tap.middleware.messagebroker.MessageDeliveryHandler;
+import com.ufma.tap.middleware.messagebroker.PayloadCompressor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.amqp.AmqpException;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
-import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
-import org.springframework.amqp.rabbit.listener.adapter.MessageListenerAdapter; // <<< Import alterado/adicionado
+import org.springframework.amqp.rabbit.listener.DirectMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.api.ChannelAwareMessageListener;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Component;
 
-import java.io.IOException; // Adicionar se não estiver presente
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.util.Date; // Adicionar se não estiver presente
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-//import java.util.function.Consumer; // A interface funcional, como discutido
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
 
+// Consumidores RabbitMQ multiplexados em poucos DirectMessageListenerContainer compartilhados, em vez de um
+// SimpleMessageListenerContainer (com threads próprias) por consumidor. Cada fila é atribuída a um container pelo
+// hash do nome e entra/sai dele com addQueueNames/removeQueueNames; as entregas rodam nas threads de despacho da
+// conexão (quantidade fixa por réplica) e são encaminhadas ao handler pelo nome da fila de origem.
+// Consumidores conectados à mesma fila continuam competindo pelas mensagens (rodízio entre eles).
+// Ack mode e prefetch são do container, então há um grupo de containers por perfil (ack + prefetch): o padrão é
+// criado na inicialização e os demais sob demanda, quando um consumidor pede ack manual ou outro prefetch. O prefetch
+// pedido é arredondado para um dos poucos níveis configurados (prefetch-levels), o que limita o número de grupos
+// por réplica; um grupo sob demanda é parado e descartado quando sua última fila sai.
+// Com ack manual, a mensagem só é confirmada quando a entrega termina sem erro (SSE enviado ou persistida);
+// em caso de falha ela volta para a fila, e o prefetch limita quantas ficam em trânsito para um cliente lento.
 @Component
 @Qualifier("rabbitMQConsumer")
 public class RabbitMQConsumer implements IConsumerMessaging {
 
     @Autowired
-    private AmqpAdmin amqpAdmin;
+    private RabbitMQTopologyRegistry topologyRegistry;
 
     @Autowired
     private ConnectionFactory rabbitConnectionFactory;
 
+    @Autowired
+    private ExecutionThreads executionThreads; // Virtual threads nos listener containers quando habilitadas
+
+    @Value("${middleware.rabbitmq.consumer.containers:4}")
+    private int containerCount;
+
+    @Value("${middleware.rabbitmq.consumer.prefetch:250}")
+    private int prefetchCount;
+
+    @Value("${middleware.rabbitmq.consumer.prefetch-levels:10,50,250,1000}")
+    private int[] prefetchLevels;
+
     private final Gson gson = new Gson();
 
-    private final Map<String, SimpleMessageListenerContainer> listenerContainers = new ConcurrentHashMap<>();
-    private final Map<String, String> declaredExchanges = new ConcurrentHashMap<>();
+    // perfil ("auto-250", "manual-10", ...) -> grupo de containers
+    private final Map<String, DirectMessageListenerContainer[]> containerGroups = new ConcurrentHashMap<>();
+    // perfil -> quantidade de filas consumidas pelo grupo (alterado só sob o subscriptionLock)
+    private final Map<String, Integer> groupQueueCounts = new HashMap<>();
+    private String defaultProfile;
+    // perfil + nome da fila -> consumidores desta réplica conectados a ela com esse perfil
+    private final Map<String, QueueSubscribers> queueSubscribers = new ConcurrentHashMap<>();
+    // consumerId -> inscrição (para o close)
+    private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+    // Serializa inscrições/cancelamentos: addQueueNames/removeQueueNames conversam com o broker,
+    // então não podem rodar dentro de um compute() do ConcurrentHashMap
+    private final ReentrantLock subscriptionLock = new ReentrantLock();
+
+    @PostConstruct
+    public void startContainers() {
+        // O prefetch padrão sempre é um dos níveis
+        prefetchLevels = IntStream.concat(Arrays.stream(prefetchLevels), IntStream.of(prefetchCount))
+                .filter(level -> level > 0).distinct().sorted().toArray();
+        defaultProfile = profileKey(false, prefetchCount);
+        containerGroups.put(defaultProfile, createContainerGroup(defaultProfile, false, prefetchCount));
+    }
+
+    @PreDestroy
+    public void stopContainers() {
+        for (DirectMessageListenerContainer[] containers : containerGroups.values()) {
+            for (DirectMessageListenerContainer container : containers) {
+                container.stop();
+            }
+        }
+    }
+
+    private DirectMessageListenerContainer[] createContainerGroup(String profile, boolean manualAck, int prefetch) {
+        DirectMessageListenerContainer[] containers = new DirectMessageListenerContainer[Math.max(1, containerCount)];
+        for (int i = 0; i < containers.length; i++) {
+            DirectMessageListenerContainer container = new DirectMessageListenerContainer(rabbitConnectionFactory);
+            container.setConsumersPerQueue(1);
+            container.setPrefetchCount(prefetch);
+            container.setAcknowledgeMode(manualAck ? AcknowledgeMode.MANUAL : AcknowledgeMode.AUTO);
+            container.setBeanName("rabbitmq-consumers-" + profile + "-" + i);
+            AsyncTaskExecutor listenerExecutor = executionThreads.listenerExecutor("rabbitmq-consumers-" + profile + "-" + i + "-");
+            if (listenerExecutor != null) {
+                container.setTaskExecutor(listenerExecutor);
+            }
+            if (manualAck) {
+                container.setMessageListener((ChannelAwareMessageListener) (message, channel) -> dispatchWithManualAck(profile, message, channel));
+            } else {
+                container.setMessageListener((MessageListener) message -> dispatch(profile, message));
+            }
+            container.start(); // Começa sem filas; elas são adicionadas conforme os consumidores se conectam
+            containers[i] = container;
+        }
+        System.out.println("RabbitMQ consumer container group '" + profile + "' started with " + containers.length + " containers.");
+        return containers;
+    }
+
+    private static String profileKey(boolean manualAck, int prefetch) {
+        return (manualAck ? "manual-" : "auto-") + prefetch;
+    }
+
+    // Maior nível que não passa do pedido (ou o menor nível, se o pedido estiver abaixo de todos)
+    private int effectivePrefetch(Integer requested) {
+        if (requested == null) {
+            return prefetchCount;
+        }
+        int effective = prefetchLevels[0];
+        for (int level : prefetchLevels) {
+            if (level <= requested) {
+                effective = level;
+            }
+        }
+        return effective;
+    }
+
+    // Sob o subscriptionLock: a fila saiu do grupo; grupo sob demanda sem filas é parado e descartado
+    private void releaseGroupQueue(String profile) {
+        int remaining = groupQueueCounts.merge(profile, -1, Integer::sum);
+        if (remaining > 0 || profile.equals(defaultProfile)) {
+            return;
+        }
+        groupQueueCounts.remove(profile);
+        DirectMessageListenerContainer[] containers = containerGroups.remove(profile);
+        if (containers == null) {
+            return;
+        }
+        // Fora da thread atual: o close pode vir de uma thread de despacho do próprio grupo, e o stop espera por elas
+        executionThreads.threadFactory("rabbitmq-consumers-stop-").newThread(() -> {
+            for (DirectMessageListenerContainer container : containers) {
+                container.stop();
+            }
+            System.out.println("RabbitMQ consumer container group '" + profile + "' stopped (no queues left).");
+        }).start();
+    }
 
     @Override
-    public void connectAndListen(com.ufma.tap.middleware.model.Consumer consumer, java.util.function.Consumer<Message> messageHandler) {
-        if (listenerContainers.containsKey(consumer.getId())) {
-            SimpleMessageListenerContainer oldContainer = listenerContainers.get(consumer.getId());
-            oldContainer.stop();
-            listenerContainers.remove(consumer.getId());
+    public void connectAndListen(Consumer consumer, MessageDeliveryHandler messageHandler) {
+        if (subscriptions.containsKey(consumer.getId())) {
+            close(consumer.getId());
             System.out.println("Stopped existing RabbitMQ listener for consumer: " + consumer.getId());
         }
 
@@ -56,78 +182,42 @@ public class RabbitMQConsumer implements IConsumerMessaging {
         Map<String, Object> headersMap = gson.fromJson(consumer.getHeaders(), Map.class);
 
         try {
-            declareExchangeOnce(exchangeName, strategy);
-
-            Queue queue = new Queue(queueName, true, false, false);
-            amqpAdmin.declareQueue(queue);
-
-            Binding binding;
-            switch (strategy) {
-                case "direct":
-                    routingKey = (routingKey != null && !routingKey.isEmpty()) ? routingKey : queueName;
-                    binding = BindingBuilder.bind(queue).to(new DirectExchange(exchangeName)).with(routingKey);
-                    break;
-                case "topic":
-                    if (routingKey == null || routingKey.isEmpty()) {
-                        throw new BrokerStrategyIncompatibleException("Routing Key is required for 'topic' strategy.");
-                    }
-                    binding = BindingBuilder.bind(queue).to(new TopicExchange(exchangeName)).with(routingKey);
-                    break;
-                case "fanout":
-                    binding = BindingBuilder.bind(queue).to(new FanoutExchange(exchangeName));
-                    break;
-                case "headers":
-                    if (headersMap == null || headersMap.isEmpty()) {
-                        throw new BrokerStrategyIncompatibleException("Headers are required for 'headers' strategy.");
-                    }
-                    binding = BindingBuilder.bind(queue).to(new HeadersExchange(exchangeName)).whereAny(headersMap).match();
-                    break;
-                default:
-                    throw new BrokerStrategyIncompatibleException("Strategy '" + strategy + "' not supported by RabbitMQ.");
+            if ("direct".equals(strategy)) {
+                routingKey = (routingKey != null && !routingKey.isEmpty()) ? routingKey : queueName;
             }
-            amqpAdmin.declareBinding(binding);
-
-            SimpleMessageListenerContainer container = new SimpleMessageListenerContainer();
-            container.setConnectionFactory(rabbitConnectionFactory);
-            container.setQueueNames(queueName);
-            container.setAcknowledgeMode(AcknowledgeMode.AUTO);
-
-            // --- MODIFICAÇÃO AQUI ---
-            // Usando MessageListenerAdapter para encapsular o onMessage
-            MessageListenerAdapter messageListenerAdapter = new MessageListenerAdapter(new Object() {
-                // Método que será invocado quando uma mensagem for recebida
-                // O nome 'handleMessage' é o padrão, mas pode ser configurado
-                @SuppressWarnings("unused") // Usado pelo Spring AMQP, mas não diretamente no código
-                public void handleMessage(org.springframework.amqp.core.Message springAmqpMessage) {
+            topologyRegistry.ensureTopology(exchangeName, strategy, queueName, routingKey, headersMap);
+
+            boolean manualAck = Boolean.TRUE.equals(consumer.getManualAck());
+            int prefetch = effectivePrefetch(consumer.getPrefetchCount());
+            String profile = profileKey(manualAck, prefetch);
+            Subscription subscription = new Subscription(consumer, messageHandler, profile);
+            subscriptionLock.lock();
+            try {
+                DirectMessageListenerContainer[] containers = containerGroups.get(profile);
+                if (containers == null) {
+                    containers = createContainerGroup(profile, manualAck, prefetch);
+                    containerGroups.put(profile, containers);
+                }
+                QueueSubscribers subscribers = queueSubscribers.computeIfAbsent(subscription.subscribersKey, key -> new QueueSubscribers());
+                boolean firstSubscriber = subscribers.isEmpty();
+                subscribers.add(subscription);
+                if (firstSubscriber) {
+                    // Primeiro consumidor da fila com este perfil nesta réplica: passa a consumir dela no container
+                    groupQueueCounts.merge(profile, 1, Integer::sum);
                     try {
-                        String messageBody = new String(springAmqpMessage.getBody(), StandardCharsets.UTF_8);
-                        Message receivedMessage = gson.fromJson(messageBody, Message.class);
-
-                        receivedMessage.setConsumerId(consumer.getId());
-                        receivedMessage.setQueue(queueName);
-
-                        if (consumer.getPersistenceTime() != null && consumer.getPersistenceTime() > 0) {
-                            long expireTimeMillis = System.currentTimeMillis() + consumer.getPersistenceTime();
-                            if (expireTimeMillis < 0) {
-                                expireTimeMillis = Long.MAX_VALUE;
-                            }
-                            receivedMessage.setExpireAt(new Date(expireTimeMillis));
-                        } else {
-                            receivedMessage.setExpireAt(null);
-                        }
-
-                        messageHandler.accept(receivedMessage);
-                    } catch (Exception e) {
-                        System.err.println("Error processing RabbitMQ message for consumer " + consumer.getId() + ": " + e.getMessage());
+                        containerFor(containers, queueName).addQueueNames(queueName);
+                    } catch (RuntimeException e) {
+                        queueSubscribers.remove(subscription.subscribersKey);
+                        releaseGroupQueue(profile);
+                        throw e;
                     }
                 }
-            });
-            container.setMessageListener(messageListenerAdapter); // <<< Atribui o adapter
-
-            container.start();
-            listenerContainers.put(consumer.getId(), container);
+                subscriptions.put(consumer.getId(), subscription);
+            } finally {
+                subscriptionLock.unlock();
+            }
 
-            System.out.println("RabbitMQ Consumer " + consumer.getId() + " connected and listening on queue: " + queueName);
+            System.out.println("RabbitMQ Consumer " + consumer.getId() + " connected and listening on queue: " + queueName + " (" + profile + ")");
 
         } catch (AmqpException e) {
             throw new RuntimeException("Failed to connect RabbitMQ Consumer: " + e.getMessage(), e);
@@ -136,13 +226,140 @@ public class RabbitMQConsumer implements IConsumerMessaging {
 
     @Override
     public void close(String consumerId) {
-        SimpleMessageListenerContainer container = listenerContainers.remove(consumerId);
-        if (container != null) {
-            container.stop();
+        subscriptionLock.lock();
+        try {
+            Subscription subscription = subscriptions.remove(consumerId);
+            if (subscription == null) {
+                return;
+            }
+            String queueName = subscription.consumer.getQueue();
+            QueueSubscribers subscribers = queueSubscribers.get(subscription.subscribersKey);
+            if (subscribers != null) {
+                subscribers.remove(subscription);
+                if (subscribers.isEmpty()) {
+                    // Último consumidor da fila com este perfil: cancela o consumo no broker (as mensagens ficam na fila,
+                    // inclusive as entregues e ainda sem ack manual)
+                    queueSubscribers.remove(subscription.subscribersKey);
+                    containerFor(containerGroups.get(subscription.profile), queueName).removeQueueNames(queueName);
+                    releaseGroupQueue(subscription.profile);
+                }
+            }
             System.out.println("RabbitMQ Consumer " + consumerId + " listener stopped.");
+        } finally {
+            subscriptionLock.unlock();
+        }
+    }
+
+    private static DirectMessageListenerContainer containerFor(DirectMessageListenerContainer[] containers, String queueName) {
+        return containers[Math.floorMod(queueName.hashCode(), containers.length)];
+    }
+
+    private Subscription subscriberFor(String profile, String queueName) {
+        QueueSubscribers subscribers = queueName != null ? queueSubscribers.get(profile + "/" + queueName) : null;
+        return subscribers != null ? subscribers.next() : null;
+    }
+
+    // Executado na thread de despacho da conexão: encaminha a mensagem ao consumidor da fila de origem (ack automático)
+    private void dispatch(String profile, org.springframework.amqp.core.Message springAmqpMessage) {
+        String queueName = springAmqpMessage.getMessageProperties().getConsumerQueue();
+        Subscription subscription = subscriberFor(profile, queueName);
+        if (subscription == null) {
+            // Fila removida enquanto a entrega estava em trânsito: devolve para outra réplica/consumidor
+            throw new AmqpException("No consumer subscribed to queue " + queueName); // Rejeitada com requeue
+        }
+        try {
+            subscription.messageHandler.deliver(toMessage(springAmqpMessage, subscription.consumer, queueName));
+        } catch (Exception e) {
+            System.err.println("Error processing RabbitMQ message for consumer " + subscription.consumer.getId() + ": " + e.getMessage());
         }
     }
 
+    // Ack manual: confirma só depois que a entrega do handler terminar; falha de entrega devolve para a fila
+    private void dispatchWithManualAck(String profile, org.springframework.amqp.core.Message springAmqpMessage, Channel channel) {
+        MessageProperties properties = springAmqpMessage.getMessageProperties();
+        long deliveryTag = properties.getDeliveryTag();
+        String queueName = properties.getConsumerQueue();
+        Subscription subscription = subscriberFor(profile, queueName);
+        if (subscription == null) {
+            settle(channel, deliveryTag, false, true);
+            return;
+        }
+
+        Message receivedMessage;
+        try {
+            receivedMessage = toMessage(springAmqpMessage, subscription.consumer, queueName);
+        } catch (Exception e) {
+            // Corpo inválido nunca será entregue: descarta (ou vai para a DLX da fila) em vez de voltar em loop
+            System.err.println("Discarding unreadable RabbitMQ message for consumer " + subscription.consumer.getId() + ": " + e.getMessage());
+            settle(channel, deliveryTag, false, false);
+            return;
+        }
+
+        CompletableFuture<Void> delivery;
+        try {
+            delivery = subscription.messageHandler.deliver(receivedMessage);
+        } catch (Exception e) {
+            delivery = CompletableFuture.failedFuture(e);
+        }
+        // A escrita SSE termina numa thread do pool de escritores: o ack (ou nack) sai de lá, sem prender esta thread
+        delivery.whenComplete((ignored, error) -> {
+            if (error != null) {
+                System.err.println("Message " + receivedMessage.getMessageId() + " not delivered to consumer " + subscription.consumer.getId()
+                        + ", returning it to queue " + queueName + ": " + error.getMessage());
+            }
+            settle(channel, deliveryTag, error == null, error != null);
+        });
+    }
+
+    private void settle(Channel channel, long deliveryTag, boolean ack, boolean requeue) {
+        try {
+            if (ack) {
+                channel.basicAck(deliveryTag, false);
+            } else {
+                channel.basicNack(deliveryTag, false, requeue);
+            }
+        } catch (IOException | RuntimeException e) {
+            // Canal já fechado (ex.: consumidor desconectado): o broker devolve sozinho as mensagens sem ack para a fila
+            System.err.println("Could not " + (ack ? "ack" : "nack") + " RabbitMQ delivery " + deliveryTag + ": " + e.getMessage());
+        }
+    }
+
+    private Message toMessage(org.springframework.amqp.core.Message springAmqpMessage, Consumer consumer, String queueName) {
+        Message receivedMessage;
+        MessageProperties properties = springAmqpMessage.getMessageProperties();
+        byte[] body = springAmqpMessage.getBody();
+        if (PayloadCompressor.isSupported(properties.getContentEncoding())) {
+            body = PayloadCompressor.decompress(body, properties.getContentEncoding());
+        }
+        if (isBinaryContentType(properties.getContentType())) {
+            // Payload binário publicado sem envelope JSON: 'data' (TEXT) recebe o corpo em Base64
+            receivedMessage = new Message();
+            receivedMessage.setMessageId(properties.getMessageId());
+            receivedMessage.setData(Base64.getEncoder().encodeToString(body));
+        } else {
+            String messageBody = new String(body, StandardCharsets.UTF_8);
+            receivedMessage = gson.fromJson(messageBody, Message.class);
+        }
+
+        receivedMessage.setConsumerId(consumer.getId());
+        receivedMessage.setQueue(queueName);
+
+        if (consumer.getPersistenceTime() != null && consumer.getPersistenceTime() > 0) {
+            long expireTimeMillis = System.currentTimeMillis() + consumer.getPersistenceTime();
+            if (expireTimeMillis < 0) {
+                expireTimeMillis = Long.MAX_VALUE;
+            }
+            receivedMessage.setExpireAt(new Date(expireTimeMillis));
+        } else {
+            receivedMessage.setExpireAt(null);
+        }
+        return receivedMessage;
+    }
+
+    static boolean isBinaryContentType(String contentType) {
+        return MessageProperties.CONTENT_TYPE_BYTES.equals(contentType) || "application/cbor".equals(contentType);
+    }
+
     private void validateBrokerConfiguration(Consumer consumer) {
         if (consumer.getExchange() == null || consumer.getExchange().isEmpty()) {
             throw new BrokerStrategyIncompatibleException("Exchange name is required for all RabbitMQ strategies.");
@@ -176,32 +393,51 @@ public class RabbitMQConsumer implements IConsumerMessaging {
         }
     }
 
-    private void declareExchangeOnce(String exchangeName, String strategy) {
-        if (declaredExchanges.containsKey(exchangeName)) {
-            if (!declaredExchanges.get(exchangeName).equals(strategy)) {
-                throw new AmqpException("Exchange '" + exchangeName + "' already exists with a different type: " + declaredExchanges.get(exchangeName));
-            }
-            return;
+    private static final class Subscription {
+        private final Consumer consumer;
+        private final MessageDeliveryHandler messageHandler;
+        private final String profile;
+        private final String subscribersKey; // Chave em queueSubscribers: perfil + fila
+
+        private Subscription(Consumer consumer, MessageDeliveryHandler messageHandler, String profile) {
+            this.consumer = consumer;
+            this.messageHandler = messageHandler;
+            this.profile = profile;
+            this.subscribersKey = profile + "/" + consumer.getQueue();
         }
+    }
 
-        Exchange exchange;
-        switch (strategy) {
-            case "direct":
-                exchange = new DirectExchange(exchangeName);
-                break;
-            case "topic":
-                exchange = new TopicExchange(exchangeName);
-                break;
-            case "fanout":
-                exchange = new FanoutExchange(exchangeName);
-                break;
-            case "headers":
-                exchange = new HeadersExchange(exchangeName);
-                break;
-            default:
-                throw new BrokerStrategyIncompatibleException("Unknown exchange strategy: " + strategy);
+    // Consumidores da mesma fila nesta réplica; as entregas são distribuídas em rodízio
+    private static final class QueueSubscribers {
+        private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+        private final AtomicInteger nextIndex = new AtomicInteger();
+
+        private void add(Subscription subscription) {
+            subscriptions.add(subscription);
+        }
+
+        private void remove(Subscription subscription) {
+            subscriptions.remove(subscription);
+        }
+
+        private boolean isEmpty() {
+            return subscriptions.isEmpty();
+        }
+
+        private Subscription next() {
+            List<Subscription> current = subscriptions;
+            int size = current.size();
+            if (size == 0) {
+                return null;
+            }
+            if (size == 1) {
+                return current.get(0);
+            }
+            try {
+                return current.get(Math.floorMod(nextIndex.getAndIncrement(), size));
+            } catch (IndexOutOfBoundsException e) {
+                return null; // Removido concorrentemente
+            }
         }
-        amqpAdmin.declareExchange(exchange);
-        declaredExchanges.put(exchangeName, strategy);
     }
 }
\ No newline at end of file
@@ -4,32 +4,45 @@ package com.ufma.tap.middleware.messagebroker.rabbitmq;
 import com.google.gson.Gson;
 import com.ufma.tap.middleware.model.Broker;
 import com.ufma.tap.middleware.model.MessageToSend;
+import com.ufma.tap.middleware.dto.MessageSendResult;
 import com.ufma.tap.middleware.messagebroker.IProducerMessaging;
+import com.ufma.tap.middleware.messagebroker.PayloadCompressor;
+import com.ufma.tap.middleware.messagebroker.SendPlan;
 import com.ufma.tap.middleware.exception.BrokerStrategyIncompatibleException; // Exceção personalizada
 import com.ufma.tap.middleware.exception.MessageSendException; // Nova exceção para falhas no envio
 import org.springframework.amqp.core.*; // Importa todas as classes core do AMQP (Exchange, Queue, Binding etc.)
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import org.springframework.amqp.AmqpException;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Component
 @Qualifier("rabbitMQProducer") // Qualificador para injeção de dependência no ProducerService
 public class RabbitMQProducer implements IProducerMessaging {
 
     @Autowired
-    private AmqpTemplate rabbitTemplate; // Para operações de envio (convertAndSend)
+    private RabbitMQPublisherPool publisherPool; // Conexões de publicação; cada produtor usa sempre a mesma
 
     @Autowired
-    private AmqpAdmin amqpAdmin; // Para operações administrativas (declarar exchanges, queues, bindings)
+    private RabbitMQTopologyRegistry topologyRegistry; // Declarações de exchanges, queues e bindings (com cache compartilhado)
 
-    private final Gson gson = new Gson();
+    @Autowired
+    private RabbitMQPublisherConfirms publisherConfirms; // Mensagens em voo aguardando ack do broker
 
-    // Cache para exchanges já declarados (nome -> tipo). Evita redeclarações que podem causar conflitos.
-    private final Map<String, String> declaredExchanges = new ConcurrentHashMap<>();
+    @Autowired
+    private PayloadCompressor payloadCompressor; // Compressão acima do limiar configurado
+
+    private final Gson gson = new Gson();
 
     @Override
     public void connect(Broker broker) {
@@ -40,70 +53,152 @@ public class RabbitMQProducer implements IProducerMessaging {
 
     @Override
     public void send(MessageToSend messageToSend, Broker broker) {
-        // 1. Validar a estratégia e os parâmetros do broker
-        validateBrokerConfiguration(broker);
+        // Versão síncrona: aguarda a confirmação do broker
+        try {
+            sendAsync(messageToSend, broker).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new MessageSendException("Failed to send message to RabbitMQ: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAsync(MessageToSend messageToSend, Broker broker) {
+        // Envio com sobrescritas por mensagem: compila um plano avulso (validado a cada chamada)
+        return sendAsync(messageToSend, compilePlan(null, null, broker));
+    }
 
-        String exchangeName = broker.getExchange();
-        String strategy = broker.getStrategy();
-        String queueName = broker.getQueue();
-        String routingKey = broker.getRoutingKey();
+    @Override
+    public SendPlan compilePlan(String producerId, LocalDateTime producerVersion, Broker broker) {
+        // 1. Validar a estratégia e os parâmetros do broker (uma vez por plano, não por mensagem)
+        validateBrokerConfiguration(broker);
         Map<String, Object> headersMap = gson.fromJson(broker.getHeaders(), Map.class); // Converte JSON String para Map
+        return new SendPlan(producerId, producerVersion, broker, headersMap);
+    }
 
+    @Override
+    public CompletableFuture<Void> sendAsync(MessageToSend messageToSend, SendPlan plan) {
+        CorrelationData correlationData = null;
         try {
-            // 2. Declarar o Exchange (se ainda não declarado ou se o tipo mudou)
-            declareExchangeOnce(exchangeName, strategy);
-
-            // 3. Declarar a Fila (se ainda não declarada)
-            Queue queue = new Queue(queueName, true, false, false); // Nome, durável, não exclusiva, não auto-delete
-            amqpAdmin.declareQueue(queue);
-
-            // 4. Declarar o Binding entre Exchange e Fila
-            Binding binding;
-            switch (strategy) {
-                case "direct":
-                    routingKey = (routingKey != null && !routingKey.isEmpty()) ? routingKey : queueName; // Default routing key is queue name
-                    binding = BindingBuilder.bind(queue).to(new DirectExchange(exchangeName)).with(routingKey);
-                    break;
-                case "topic":
-                    if (routingKey == null || routingKey.isEmpty()) {
-                        throw new BrokerStrategyIncompatibleException("Routing Key is required for 'topic' strategy.");
-                    }
-                    binding = BindingBuilder.bind(queue).to(new TopicExchange(exchangeName)).with(routingKey);
-                    break;
-                case "fanout":
-                    binding = BindingBuilder.bind(queue).to(new FanoutExchange(exchangeName));
-                    break;
-                case "headers":
-                    if (headersMap == null || headersMap.isEmpty()) {
-                        throw new BrokerStrategyIncompatibleException("Headers are required for 'headers' strategy.");
+            // 2-4. Declarar Exchange, Fila e Binding (só se a topologia do plano ainda não foi garantida)
+            ensurePlanTopology(plan);
+
+            // 5. Converter a mensagem para JSON e enviar (com correlação para o publisher confirm)
+            correlationData = publisherConfirms.register(messageToSend.getMessageId());
+            CorrelationData messageCorrelation = correlationData;
+            publisherPool.invoke(plan.getProducerId(), operations -> {
+                publish(operations, messageToSend, plan, messageCorrelation);
+                return null;
+            });
+
+            System.out.println("Message sent to RabbitMQ: " + messageToSend.getMessageId() + " via exchange: " + plan.getExchange() + ", strategy: " + plan.getStrategy());
+
+        } catch (AmqpException e) {
+            publisherConfirms.discard(correlationData);
+            throw new MessageSendException("Failed to send message to RabbitMQ: " + e.getMessage(), e);
+        }
+
+        // 6. Conclui quando o broker confirmar (ack) a mensagem
+        return publisherConfirms.whenConfirmed(correlationData);
+    }
+
+    @Override
+    public List<MessageSendResult> sendBatch(List<MessageToSend> messagesToSend, Broker broker) {
+        return sendBatch(messagesToSend, compilePlan(null, null, broker));
+    }
+
+    @Override
+    public List<MessageSendResult> sendBatch(List<MessageToSend> messagesToSend, SendPlan plan) {
+        // Declaração de topologia uma única vez para todo o lote (o plano já foi validado)
+        try {
+            ensurePlanTopology(plan);
+        } catch (AmqpException e) {
+            throw new MessageSendException("Failed to declare RabbitMQ topology for batch: " + e.getMessage(), e);
+        }
+
+        // invoke() mantém o mesmo canal vinculado à thread durante todo o lote (publicações em pipeline).
+        // Os confirms chegam de forma assíncrona; só esperamos por eles depois de publicar o lote inteiro.
+        List<CompletableFuture<Void>> confirms;
+        try {
+            confirms = publisherPool.invoke(plan.getProducerId(), operations -> {
+                List<CompletableFuture<Void>> batchConfirms = new ArrayList<>(messagesToSend.size());
+                for (MessageToSend messageToSend : messagesToSend) {
+                    CorrelationData correlationData = publisherConfirms.register(messageToSend.getMessageId());
+                    try {
+                        publish(operations, messageToSend, plan, correlationData);
+                        batchConfirms.add(publisherConfirms.whenConfirmed(correlationData));
+                    } catch (AmqpException e) {
+                        publisherConfirms.discard(correlationData);
+                        batchConfirms.add(CompletableFuture.failedFuture(
+                                new MessageSendException("Failed to send message to RabbitMQ: " + e.getMessage(), e)));
                     }
-                    binding = BindingBuilder.bind(queue).to(new HeadersExchange(exchangeName)).whereAny(headersMap).match();
-                    break;
-                default:
-                    throw new BrokerStrategyIncompatibleException("Strategy '" + strategy + "' not supported by RabbitMQ.");
+                }
+                return batchConfirms;
+            });
+        } catch (AmqpException e) {
+            // Sem canal livre dentro do timeout de checkout ou conexão indisponível
+            throw new MessageSendException("Failed to send batch to RabbitMQ: " + e.getMessage(), e);
+        }
+
+        List<MessageSendResult> results = new ArrayList<>(messagesToSend.size());
+        for (int i = 0; i < messagesToSend.size(); i++) {
+            String messageId = messagesToSend.get(i).getMessageId();
+            try {
+                confirms.get(i).join();
+                results.add(MessageSendResult.accepted(messageId));
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                results.add(MessageSendResult.failed(messageId, cause.getMessage()));
             }
-            amqpAdmin.declareBinding(binding);
-
-            // 5. Converter a mensagem para JSON e enviar
-            String messageJson = gson.toJson(messageToSend);
-            if ("fanout".equals(strategy) || "headers".equals(strategy)) {
-                // Fanout e Headers exchanges não usam routing key no convertAndSend diretamente
-                rabbitTemplate.convertAndSend(exchangeName, "", messageJson, message -> {
-                    // Para headers exchange, os headers precisam ser adicionados ao MessageProperties
-                    if ("headers".equals(strategy) && headersMap != null) {
-                        message.getMessageProperties().setHeaders(headersMap);
-                    }
-                    return message;
-                });
-            } else {
-                rabbitTemplate.convertAndSend(exchangeName, routingKey, messageJson);
+        }
+
+        System.out.println("Batch of " + messagesToSend.size() + " messages sent to RabbitMQ via exchange: " + plan.getExchange() + ", strategy: " + plan.getStrategy());
+        return results;
+    }
+
+    // Garante a topologia do plano apenas na primeira vez e após o registro ser invalidado (reconexão)
+    private void ensurePlanTopology(SendPlan plan) {
+        long generation = topologyRegistry.getGeneration();
+        if (plan.getTopologyGeneration() == generation) {
+            return;
+        }
+        topologyRegistry.ensureTopology(plan.getExchange(), plan.getStrategy(), plan.getQueue(), plan.getRoutingKey(), plan.getHeaders());
+        plan.setTopologyGeneration(generation);
+    }
+
+    // Publica uma única mensagem (usado tanto no envio individual quanto dentro de um lote).
+    // O corpo AMQP é montado aqui: JSON da MessageToSend ou os bytes brutos do payload binário,
+    // comprimido quando passa do limiar (codec indicado no content-encoding).
+    private void publish(RabbitOperations operations, MessageToSend messageToSend, SendPlan plan, CorrelationData correlationData) {
+        MessageProperties properties = new MessageProperties();
+        properties.setMessageId(messageToSend.getMessageId());
+        byte[] body;
+        if (messageToSend.isBinary()) {
+            // Payload binário: os bytes recebidos viram o corpo sem conversão; os headers da mensagem vão no MessageProperties
+            body = messageToSend.getPayload();
+            properties.setContentType(messageToSend.getContentType());
+            if (messageToSend.getCustomHeaders() != null) {
+                messageToSend.getCustomHeaders().forEach(properties::setHeader);
             }
+        } else {
+            body = gson.toJson(messageToSend).getBytes(StandardCharsets.UTF_8);
+            properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        }
 
-            System.out.println("Message sent to RabbitMQ: " + messageToSend.getMessageId() + " via exchange: " + exchangeName + ", strategy: " + strategy);
+        String encoding = payloadCompressor.codecFor(body.length);
+        if (encoding != null) {
+            body = PayloadCompressor.compress(body, encoding);
+            properties.setContentEncoding(encoding);
+        }
 
-        } catch (AmqpException e) {
-            throw new MessageSendException("Failed to send message to RabbitMQ: " + e.getMessage(), e);
+        Message message = new Message(body, properties);
+        if (plan.getPostProcessor() != null) {
+            // Para headers exchange, os headers precisam ser adicionados ao MessageProperties
+            message = plan.getPostProcessor().postProcessMessage(message);
         }
+        operations.send(plan.getExchange(), plan.getPublishRoutingKey(), message, correlationData);
     }
 
     @Override
@@ -150,38 +245,4 @@ public class RabbitMQProducer implements IProducerMessaging {
                 throw new BrokerStrategyIncompatibleException("Invalid strategy for RabbitMQ: " + broker.getStrategy());
         }
     }
-
-    // Garante que o exchange seja declarado apenas uma vez e com o tipo correto
-    private void declareExchangeOnce(String exchangeName, String strategy) {
-        // Verifica se o exchange já foi declarado por esta instância do produtor
-        if (declaredExchanges.containsKey(exchangeName)) {
-            // Se já foi declarado, verifica se o tipo é consistente
-            if (!declaredExchanges.get(exchangeName).equals(strategy)) {
-                throw new AmqpException("Exchange '" + exchangeName + "' already exists with a different type: " + declaredExchanges.get(exchangeName));
-            }
-            return; // Já está declarado e consistente
-        }
-
-        // Tenta declarar o exchange. Se já existir com o mesmo tipo, não haverá erro.
-        // Se já existir com tipo diferente, o amqpAdmin.declareExchange lançará uma exceção.
-        Exchange exchange;
-        switch (strategy) {
-            case "direct":
-                exchange = new DirectExchange(exchangeName);
-                break;
-            case "topic":
-                exchange = new TopicExchange(exchangeName);
-                break;
-            case "fanout":
-                exchange = new FanoutExchange(exchangeName);
-                break;
-            case "headers":
-                exchange = new HeadersExchange(exchangeName);
-                break;
-            default:
-                throw new BrokerStrategyIncompatibleException("Unknown exchange strategy: " + strategy);
-        }
-        amqpAdmin.declareExchange(exchange);
-        declaredExchanges.put(exchangeName, strategy); // Adiciona ao cache local
-    }
 }
\ No newline at end of file
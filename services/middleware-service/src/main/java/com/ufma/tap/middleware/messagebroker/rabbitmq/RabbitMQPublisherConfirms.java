@@ -0,0 +1,125 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/messagebroker/rabbitmq/RabbitMQPublisherConfirms.java
+package com.ufma.tap.middleware.messagebroker.rabbitmq;
+
+import com.ufma.tap.middleware.exception.MessageSendException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Tabela de mensagens publicadas aguardando confirmação (publisher confirms) do RabbitMQ.
+// Cada publicação leva um CorrelationData; o future é concluído quando o broker envia ack/nack,
+// permitindo várias mensagens em voo por canal sem um waitForConfirms bloqueante após cada envio.
+// O id de correlação é único por publicação (o mesmo messageId pode ser publicado mais de uma vez ao mesmo tempo,
+// ex.: reenvios do cliente); é ele que o RabbitTemplate usa para associar confirms e mensagens devolvidas.
+@Component
+public class RabbitMQPublisherConfirms {
+
+    @Value("${middleware.rabbitmq.publisher-confirms:true}")
+    private boolean publisherConfirmsEnabled;
+
+    @Value("${middleware.rabbitmq.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    // id de correlação -> CorrelationData em voo
+    private final Map<String, CorrelationData> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong publishSequence = new AtomicLong();
+
+    private final AtomicLong acked = new AtomicLong();
+    private final AtomicLong nacked = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+
+    public boolean isEnabled() {
+        return publisherConfirmsEnabled;
+    }
+
+    /**
+     * Registra uma publicação na tabela de mensagens em voo.
+     * @return O CorrelationData a ser passado para o RabbitTemplate (null se os confirms estiverem desabilitados).
+     */
+    public CorrelationData register(String messageId) {
+        if (!publisherConfirmsEnabled) {
+            return null;
+        }
+        MessageCorrelation correlationData = new MessageCorrelation(messageId + "#" + publishSequence.incrementAndGet(), messageId);
+        inFlight.put(correlationData.getId(), correlationData);
+        return correlationData;
+    }
+
+    /**
+     * Future concluído com sucesso quando o broker confirmar (ack) a mensagem e ela tiver sido roteada.
+     * Falha com MessageSendException em caso de nack, mensagem devolvida (sem rota) ou timeout.
+     */
+    public CompletableFuture<Void> whenConfirmed(CorrelationData correlationData) {
+        if (correlationData == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String correlationId = correlationData.getId();
+        String messageId = correlationData instanceof MessageCorrelation
+                ? ((MessageCorrelation) correlationData).messageId
+                : correlationId;
+        return correlationData.getFuture()
+                .orTimeout(confirmTimeoutMs, TimeUnit.MILLISECONDS)
+                .handle((confirm, ex) -> {
+                    inFlight.remove(correlationId, correlationData);
+                    if (ex != null) {
+                        if (ex instanceof TimeoutException) {
+                            timedOut.incrementAndGet();
+                            throw new MessageSendException("No publisher confirm received from RabbitMQ for message " + messageId
+                                    + " within " + confirmTimeoutMs + " ms.");
+                        }
+                        nacked.incrementAndGet();
+                        throw new MessageSendException("Failed to confirm message " + messageId + ": " + ex.getMessage(), ex);
+                    }
+                    if (!confirm.isAck()) {
+                        nacked.incrementAndGet();
+                        throw new MessageSendException("RabbitMQ rejected message " + messageId + ": " + confirm.getReason());
+                    }
+                    if (correlationData.getReturned() != null) {
+                        nacked.incrementAndGet();
+                        throw new MessageSendException("Message " + messageId + " could not be routed by RabbitMQ: "
+                                + correlationData.getReturned().getReplyText());
+                    }
+                    acked.incrementAndGet();
+                    return null;
+                });
+    }
+
+    // Remove da tabela uma publicação que falhou antes de chegar ao broker
+    public void discard(CorrelationData correlationData) {
+        if (correlationData != null) {
+            inFlight.remove(correlationData.getId(), correlationData);
+        }
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    public long getAckedCount() {
+        return acked.get();
+    }
+
+    public long getNackedCount() {
+        return nacked.get();
+    }
+
+    public long getTimedOutCount() {
+        return timedOut.get();
+    }
+
+    private static final class MessageCorrelation extends CorrelationData {
+        private final String messageId;
+
+        private MessageCorrelation(String correlationId, String messageId) {
+            super(correlationId);
+            this.messageId = messageId;
+        }
+    }
+}
\ No newline at end of file
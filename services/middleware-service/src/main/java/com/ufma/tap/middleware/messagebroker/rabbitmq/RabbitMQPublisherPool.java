@@ -0,0 +1,101 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/messagebroker/rabbitmq/RabbitMQPublisherPool.java
+package com.ufma.tap.middleware.messagebroker.rabbitmq;
+
+import com.ufma.tap.middleware.dto.PublisherPoolStats;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Pool de conexões AMQP usadas só para publicar (os consumidores e o RabbitAdmin seguem na connectionFactory principal).
+// Cada conexão tem seu próprio CachingConnectionFactory/RabbitTemplate; o produtor é mapeado para uma conexão pelo
+// hash do seu id, espalhando a carga entre as conexões TCP e mantendo todas as publicações de um produtor na mesma
+// conexão (ordem preservada para quem publica de uma thread). Mede a espera no checkout de canal e a taxa de acerto
+// do cache de canais (canais físicos criados contam como falta).
+public class RabbitMQPublisherPool {
+
+    private final CachingConnectionFactory[] connectionFactories;
+    private final RabbitTemplate[] templates;
+    private final int channelCacheSize;
+    private final long channelCheckoutTimeoutMs;
+
+    private final LongAdder checkouts = new LongAdder();
+    private final LongAdder channelsCreated = new LongAdder();
+    private final LongAdder checkoutTimeouts = new LongAdder();
+    private final LongAdder checkoutWaitNanos = new LongAdder();
+    private final AtomicLong maxCheckoutWaitNanos = new AtomicLong();
+    private final AtomicLongArray checkoutsPerConnection;
+
+    public RabbitMQPublisherPool(List<CachingConnectionFactory> connectionFactories, List<RabbitTemplate> templates,
+                                 int channelCacheSize, long channelCheckoutTimeoutMs) {
+        this.connectionFactories = connectionFactories.toArray(new CachingConnectionFactory[0]);
+        this.templates = templates.toArray(new RabbitTemplate[0]);
+        this.channelCacheSize = channelCacheSize;
+        this.channelCheckoutTimeoutMs = channelCheckoutTimeoutMs;
+        this.checkoutsPerConnection = new AtomicLongArray(this.templates.length);
+        for (CachingConnectionFactory connectionFactory : this.connectionFactories) {
+            connectionFactory.addChannelListener((channel, transactional) -> channelsCreated.increment());
+        }
+    }
+
+    /**
+     * Executa 'action' com um canal dedicado da conexão do produtor (publicações em pipeline no mesmo canal).
+     * @param producerId Chave de distribuição; null espalha a publicação em uma conexão qualquer.
+     * @throws AmqpTimeoutException se nenhum canal ficar livre dentro do timeout de checkout.
+     */
+    public <T> T invoke(String producerId, RabbitTemplate.OperationsCallback<T> action) {
+        int shard = shardFor(producerId);
+        long start = System.nanoTime();
+        try {
+            return templates[shard].invoke(operations -> {
+                recordCheckout(shard, System.nanoTime() - start);
+                return action.doInRabbit(operations);
+            });
+        } catch (AmqpTimeoutException e) {
+            checkoutTimeouts.increment();
+            throw e;
+        }
+    }
+
+    public int shardFor(String producerId) {
+        if (producerId == null) {
+            return ThreadLocalRandom.current().nextInt(templates.length);
+        }
+        return Math.floorMod(producerId.hashCode(), templates.length);
+    }
+
+    public int getConnectionCount() {
+        return templates.length;
+    }
+
+    public PublisherPoolStats getStats() {
+        long checkoutCount = checkouts.sum();
+        long createdCount = channelsCreated.sum();
+        double hitRate = checkoutCount == 0 ? 0 : Math.max(0, 1 - (double) createdCount / checkoutCount);
+        double averageWaitMs = checkoutCount == 0 ? 0 : checkoutWaitNanos.sum() / (double) checkoutCount / 1_000_000;
+        long[] perConnection = new long[checkoutsPerConnection.length()];
+        for (int i = 0; i < perConnection.length; i++) {
+            perConnection[i] = checkoutsPerConnection.get(i);
+        }
+        return new PublisherPoolStats(templates.length, channelCacheSize, channelCheckoutTimeoutMs, checkoutCount, createdCount,
+                hitRate, averageWaitMs, maxCheckoutWaitNanos.get() / 1_000_000.0, checkoutTimeouts.sum(), perConnection);
+    }
+
+    public void destroy() {
+        for (CachingConnectionFactory connectionFactory : connectionFactories) {
+            connectionFactory.destroy();
+        }
+    }
+
+    private void recordCheckout(int shard, long waitNanos) {
+        checkouts.increment();
+        checkoutsPerConnection.incrementAndGet(shard);
+        checkoutWaitNanos.add(waitNanos);
+        maxCheckoutWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,155 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/messagebroker/rabbitmq/RabbitMQTopologyRegistry.java
+package com.ufma.tap.middleware.messagebroker.rabbitmq;
+
+import com.ufma.tap.middleware.exception.BrokerStrategyIncompatibleException;
+import com.rabbitmq.client.ShutdownSignalException;
+import jakarta.annotation.PostConstruct;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Registro compartilhado (produtor e consumidor) dos exchanges, filas e bindings já declarados no RabbitMQ.
+// Evita idas ao broker a cada send/connectAndListen: só declara o que ainda não foi declarado.
+// Quando a conexão é recriada (ex: restart do broker), o registro é limpo para que tudo seja redeclarado.
+@Component
+public class RabbitMQTopologyRegistry implements ConnectionListener {
+
+    @Autowired
+    private AmqpAdmin amqpAdmin;
+
+    @Autowired
+    private ConnectionFactory rabbitConnectionFactory;
+
+    // nome do exchange -> tipo (estratégia)
+    private final Map<String, String> declaredExchanges = new ConcurrentHashMap<>();
+    private final Set<String> declaredQueues = ConcurrentHashMap.newKeySet();
+    // chave: exchange|fila|estratégia|routingKey|headers
+    private final Set<String> declaredBindings = ConcurrentHashMap.newKeySet();
+    // Incrementada a cada invalidação; planos de envio guardam a geração em que sua topologia foi garantida
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    public void registerConnectionListener() {
+        rabbitConnectionFactory.addConnectionListener(this);
+    }
+
+    @Override
+    public void onCreate(Connection connection) {
+        // Nova conexão física: o broker pode ter perdido a topologia (não durável ou reiniciado)
+        invalidate();
+    }
+
+    @Override
+    public void onShutDown(ShutdownSignalException signal) {
+        invalidate();
+    }
+
+    public void invalidate() {
+        if (!declaredExchanges.isEmpty() || !declaredQueues.isEmpty() || !declaredBindings.isEmpty()) {
+            System.out.println("RabbitMQ topology registry invalidated (connection recreated or lost).");
+        }
+        generation.incrementAndGet();
+        declaredExchanges.clear();
+        declaredQueues.clear();
+        declaredBindings.clear();
+    }
+
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Garante que exchange, fila e binding existam no broker, declarando apenas o que estiver faltando.
+     * @param routingKey Routing key já resolvida (para 'direct', o chamador usa o nome da fila como padrão).
+     * @param headersMap Headers de binding (obrigatórios para 'headers').
+     */
+    public void ensureTopology(String exchangeName, String strategy, String queueName, String routingKey, Map<String, Object> headersMap) {
+        declareExchange(exchangeName, strategy);
+        Queue queue = declareQueue(queueName);
+        declareBinding(queue, exchangeName, strategy, routingKey, headersMap);
+    }
+
+    // Garante que o exchange seja declarado apenas uma vez e com o tipo correto
+    public void declareExchange(String exchangeName, String strategy) {
+        String declaredType = declaredExchanges.get(exchangeName);
+        if (declaredType != null) {
+            if (!declaredType.equals(strategy)) {
+                throw new AmqpException("Exchange '" + exchangeName + "' already exists with a different type: " + declaredType);
+            }
+            return;
+        }
+
+        // Se já existir com tipo diferente no broker, o amqpAdmin.declareExchange lançará uma exceção.
+        Exchange exchange;
+        switch (strategy) {
+            case "direct":
+                exchange = new DirectExchange(exchangeName);
+                break;
+            case "topic":
+                exchange = new TopicExchange(exchangeName);
+                break;
+            case "fanout":
+                exchange = new FanoutExchange(exchangeName);
+                break;
+            case "headers":
+                exchange = new HeadersExchange(exchangeName);
+                break;
+            default:
+                throw new BrokerStrategyIncompatibleException("Unknown exchange strategy: " + strategy);
+        }
+        amqpAdmin.declareExchange(exchange);
+        declaredExchanges.put(exchangeName, strategy);
+    }
+
+    public Queue declareQueue(String queueName) {
+        Queue queue = new Queue(queueName, true, false, false); // Nome, durável, não exclusiva, não auto-delete
+        if (!declaredQueues.contains(queueName)) {
+            // Declarações são idempotentes: duas threads declarando ao mesmo tempo não causam erro
+            amqpAdmin.declareQueue(queue);
+            declaredQueues.add(queueName);
+        }
+        return queue;
+    }
+
+    public void declareBinding(Queue queue, String exchangeName, String strategy, String routingKey, Map<String, Object> headersMap) {
+        String bindingKey = exchangeName + "|" + queue.getName() + "|" + strategy + "|" + routingKey + "|" + headersMap;
+        if (declaredBindings.contains(bindingKey)) {
+            return;
+        }
+
+        Binding binding;
+        switch (strategy) {
+            case "direct":
+                binding = BindingBuilder.bind(queue).to(new DirectExchange(exchangeName)).with(routingKey);
+                break;
+            case "topic":
+                if (routingKey == null || routingKey.isEmpty()) {
+                    throw new BrokerStrategyIncompatibleException("Routing Key is required for 'topic' strategy.");
+                }
+                binding = BindingBuilder.bind(queue).to(new TopicExchange(exchangeName)).with(routingKey);
+                break;
+            case "fanout":
+                binding = BindingBuilder.bind(queue).to(new FanoutExchange(exchangeName));
+                break;
+            case "headers":
+                if (headersMap == null || headersMap.isEmpty()) {
+                    throw new BrokerStrategyIncompatibleException("Headers are required for 'headers' strategy.");
+                }
+                binding = BindingBuilder.bind(queue).to(new HeadersExchange(exchangeName)).whereAny(headersMap).match();
+                break;
+            default:
+                throw new BrokerStrategyIncompatibleException("Strategy '" + strategy + "' not supported by RabbitMQ.");
+        }
+        amqpAdmin.declareBinding(binding);
+        declaredBindings.add(bindingKey);
+    }
+}
\ No newline at end of file
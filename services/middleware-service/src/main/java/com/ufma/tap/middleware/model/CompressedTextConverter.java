@@ -0,0 +1,44 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/model/CompressedTextConverter.java
+package com.ufma.tap.middleware.model;
+
+import com.ufma.tap.middleware.messagebroker.PayloadCompressor;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Grava textos grandes comprimidos (gzip + Base64, pois a coluna continua TEXT) quando habilitado.
+// A leitura reconhece o marcador e descomprime; valores sem marcador (gravados antes ou abaixo do limiar) voltam como estão.
+// Instanciado pelo Hibernate através do container de beans do Spring, por isso os @Value são resolvidos.
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, String> {
+
+    private static final String MARKER = "\u001Fgz:"; // Caractere de controle que não aparece em payloads JSON/texto
+
+    @Value("${middleware.compression.store-compressed:false}")
+    private boolean storeCompressed;
+
+    @Value("${middleware.compression.threshold-bytes:4096}")
+    private int thresholdBytes;
+
+    @Override
+    public String convertToDatabaseColumn(String data) {
+        if (!storeCompressed || data == null || data.length() < thresholdBytes) {
+            return data;
+        }
+        byte[] compressed = PayloadCompressor.compress(data.getBytes(StandardCharsets.UTF_8), PayloadCompressor.GZIP);
+        String encoded = MARKER + Base64.getEncoder().encodeToString(compressed);
+        return encoded.length() < data.length() ? encoded : data; // Payload pouco compressível: grava em claro
+    }
+
+    @Override
+    public String convertToEntityAttribute(String column) {
+        if (column == null || !column.startsWith(MARKER)) {
+            return column;
+        }
+        byte[] compressed = Base64.getDecoder().decode(column.substring(MARKER.length()));
+        return new String(PayloadCompressor.decompress(compressed, PayloadCompressor.GZIP), StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
@@ -24,4 +24,8 @@ public class Consumer {
     private String queue;     // Nome da fila ou tópico
     private String routingKey; // Chave de roteamento para RabbitMQ topic/direct
     private String headers;   // JSON String para headers personalizados (para RabbitMQ headers exchange)
+    private Boolean manualAck;     // RabbitMQ: confirma a mensagem só após entrega via SSE ou persistência; null = ack automático
+    private Integer prefetchCount; // RabbitMQ: mensagens sem ack em trânsito (arredondado para um dos prefetch-levels); null = padrão
+    private Integer sseQueueCapacity;  // Mensagens aguardando escrita no SSE; null = padrão da aplicação
+    private String sseOverflowPolicy;  // Fila SSE cheia: "block", "drop-oldest" ou "disconnect"; null = padrão da aplicação
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/model/DelayedMessage.java
+package com.ufma.tap.middleware.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+// Mensagem com envio atrasado (MessageReceived.timeToWait). Atrasos longos são gravados nesta tabela para
+// sobreviver a um restart; atrasos curtos usam a mesma classe apenas em memória (na timing wheel).
+@Entity
+@Table(name = "delayed_messages", indexes = @Index(name = "idx_delayed_messages_due_at", columnList = "dueAt"))
+@Data
+@NoArgsConstructor
+public class DelayedMessage {
+    @Id
+    private String messageId;
+    private String producerId;
+    @Column(columnDefinition = "TEXT")
+    private String data; // Texto no próprio registro: com @Lob o deleteById do scheduler deixaria o large object órfão
+    @Column(columnDefinition = "TEXT")
+    private String customHeaders; // Headers da mensagem (JSON string)
+
+    // Configuração efetiva de envio (já com as sobrescritas da mensagem aplicadas)
+    private String brokerName;
+    private String strategy;
+    private String exchange;
+    private String queue;
+    private String routingKey;
+    @Column(columnDefinition = "TEXT")
+    private String headers; // Headers do broker (JSON string)
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date dueAt; // Momento em que a mensagem deve ser enviada
+
+    // Réplica que carregou a mensagem na sua timing wheel (null = ainda não carregada)
+    private String claimedBy;
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date claimedAt;
+
+    public Broker toBroker() {
+        return new Broker(brokerName, strategy, exchange, queue, routingKey, headers);
+    }
+}
\ No newline at end of file
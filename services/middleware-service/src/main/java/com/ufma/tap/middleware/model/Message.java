@@ -5,6 +5,8 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.util.Date;
 
@@ -17,8 +19,9 @@ public class Message {
     @Id
     private String messageId; // ID da mensagem original (gerado pelo produtor)
     private String consumerId; // ID do consumidor a quem esta mensagem pertence
-    @Lob // Para armazenar String longa (LOB - Large Object)
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR) // Texto no próprio registro (setString/getString), como o INSERT em lote do MessageWriteBehind
     @Column(columnDefinition = "TEXT") // Definir o tipo da coluna no banco para TEXT
+    @Convert(converter = CompressedTextConverter.class) // Opcionalmente comprimido (middleware.compression.store-compressed)
     private String data; // O conteúdo da mensagem
     private String queue; // Fila/tópico pela qual a mensagem foi recebida
     @Temporal(TemporalType.TIMESTAMP) // Para mapear Date para TIMESTAMP no banco
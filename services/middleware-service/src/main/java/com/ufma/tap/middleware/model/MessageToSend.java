@@ -15,4 +15,19 @@ public class MessageToSend {
     private String data; // Conteúdo principal da mensagem
     // Se o broker precisar de headers ou propriedades adicionais que não são parte do 'data' principal
     private Map<String, Object> customHeaders;
+
+    // Corpo binário bruto (application/octet-stream ou application/cbor). Quando presente, 'data' fica nulo e os bytes
+    // vão direto para o corpo da mensagem no broker; 'transient' para nunca passar pelo Gson.
+    private transient byte[] payload;
+    private transient String contentType;
+
+    public MessageToSend(String messageId, String data, Map<String, Object> customHeaders) {
+        this.messageId = messageId;
+        this.data = data;
+        this.customHeaders = customHeaders;
+    }
+
+    public boolean isBinary() {
+        return payload != null;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/model/OutboxMessage.java
+package com.ufma.tap.middleware.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+// Mensagem com entrega garantida (MessageReceived.guaranteedDelivery): gravada nesta tabela antes de o envio
+// ser confirmado ao cliente e removida pelo OutboxRelay depois que o broker confirmar a publicação.
+// O id vem de uma sequence com alocação em blocos, para que o Hibernate agrupe os INSERTs em lotes JDBC
+// (com IDENTITY cada INSERT precisaria voltar ao banco para buscar o id gerado).
+@Entity
+@Table(name = "outbox_messages", indexes = @Index(name = "idx_outbox_messages_next_attempt_at", columnList = "nextAttemptAt"))
+@Data
+@NoArgsConstructor
+public class OutboxMessage {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_messages_seq")
+    @SequenceGenerator(name = "outbox_messages_seq", sequenceName = "outbox_messages_seq", allocationSize = 50)
+    private Long id; // Ordem de leitura do relay
+    @Column(unique = true)
+    private String messageId;
+    private String producerId;
+    @Column(columnDefinition = "TEXT")
+    private String data; // Texto no próprio registro: com @Lob cada linha apagada pelo relay deixaria um large object órfão
+    @Column(columnDefinition = "TEXT")
+    private String customHeaders; // Headers da mensagem (JSON string)
+
+    // Configuração efetiva de envio (já com as sobrescritas da mensagem aplicadas)
+    private String brokerName;
+    private String strategy;
+    private String exchange;
+    private String queue;
+    private String routingKey;
+    @Column(columnDefinition = "TEXT")
+    private String headers; // Headers do broker (JSON string)
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createdAt;
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date nextAttemptAt; // A linha só é lida pelo relay a partir deste momento (backoff entre tentativas)
+    private int attempts;
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    public Broker toBroker() {
+        return new Broker(brokerName, strategy, exchange, queue, routingKey, headers);
+    }
+}
\ No newline at end of file
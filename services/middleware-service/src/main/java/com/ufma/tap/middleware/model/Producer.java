@@ -27,6 +27,8 @@ public class Producer {
     private String queue;     // Nome da fila ou tópico
     private String routingKey; // Chave de roteamento para RabbitMQ topic/direct
     private String headers;   // JSON String para headers personalizados (para RabbitMQ headers exchange)
+    private Double rateLimitPerSecond; // Limite de envio (mensagens/s); null = padrão da aplicação, 0 = sem limite
+    private Integer rateLimitBurst;    // Rajada máxima do token bucket; null = padrão da aplicação
     
     @Column(name = "created_at")
     private LocalDateTime createdAt;
@@ -0,0 +1,24 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/model/ProjectLimits.java
+package com.ufma.tap.middleware.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+// Visão somente leitura dos limites de envio de um projeto (tabela 'projects', mantida pelo registration-service)
+@Entity
+@Immutable
+@Table(name = "projects")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectLimits {
+    @Id
+    private String id;
+    @Column(name = "rate_limit_per_second")
+    private Double rateLimitPerSecond; // Mensagens por segundo (null = padrão da aplicação)
+    @Column(name = "rate_limit_burst")
+    private Integer rateLimitBurst; // Rajada máxima (null = padrão da aplicação)
+}
\ No newline at end of file
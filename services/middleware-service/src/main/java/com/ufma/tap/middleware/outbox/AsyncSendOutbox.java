@@ -0,0 +1,249 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/outbox/AsyncSendOutbox.java
+package com.ufma.tap.middleware.outbox;
+
+import com.ufma.tap.middleware.dto.AsyncSendStatus;
+import com.ufma.tap.middleware.dto.MessageReceived;
+import com.ufma.tap.middleware.messagebroker.inmemory.InMemoryRingBuffer;
+import com.ufma.tap.middleware.model.Producer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+// Outbox em memória do envio assíncrono (Prefer: respond-async). As threads HTTP só enfileiram no ring buffer
+// (limitado e sem lock) e respondem 202; os workers retiram lotes, publicam todos em pipeline pelo dispatcher
+// e aguardam as confirmações do lote antes do próximo. A situação de cada messageId fica disponível por um tempo
+// limitado para a consulta de status. No desligamento os workers publicam o que já foi aceito antes de sair
+// (até 'shutdown-timeout-ms'); mensagens no outbox só se perdem se a réplica cair sem desligar normalmente.
+@Component
+public class AsyncSendOutbox {
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 200;
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Value("${middleware.async-send.capacity:65536}")
+    private int capacity;
+
+    @Value("${middleware.async-send.workers:4}")
+    private int workers;
+
+    @Value("${middleware.async-send.batch-size:256}")
+    private int batchSize;
+
+    @Value("${middleware.async-send.status-max-entries:100000}")
+    private int statusMaxEntries;
+
+    @Value("${middleware.async-send.status-ttl-ms:600000}")
+    private long statusTtlMs;
+
+    @Value("${middleware.async-send.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private InMemoryRingBuffer<Entry> outbox;
+    private final List<Thread> workerThreads = new ArrayList<>();
+    private volatile Function<Entry, CompletableFuture<?>> dispatcher;
+    private volatile boolean running;
+
+    // messageId -> situação; a fila de ordem de inserção limita tamanho e idade das entradas
+    private final ConcurrentHashMap<String, TrackedStatus> statuses = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<TrackedStatus> statusOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger trackedCount = new AtomicInteger();
+
+    @PostConstruct
+    public void start() {
+        outbox = new InMemoryRingBuffer<>(capacity);
+        running = true;
+        // Threads de plataforma mesmo com virtual threads habilitadas: ociosos, os workers fazem spin/yield no ring
+        // buffer, o que prenderia a carrier thread (ver ExecutionThreads.threadFactory). São poucos e de vida longa.
+        for (int i = 0; i < workers; i++) {
+            Thread worker = new Thread(this::runWorker, "async-send-worker-" + (i + 1));
+            worker.setDaemon(true);
+            workerThreads.add(worker);
+            worker.start();
+        }
+        System.out.println("Async send outbox started: capacity " + outbox.capacity() + ", " + workers + " workers, batch " + batchSize + ".");
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false; // Novas mensagens são recusadas (o chamador envia de forma síncrona); os workers esvaziam o outbox
+        workerThreads.forEach(LockSupport::unpark);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMs);
+        for (Thread worker : workerThreads) {
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMs > 0) {
+                worker.join(remainingMs);
+            }
+        }
+        if (outbox.size() > 0) {
+            System.err.println("Async send outbox stopped with " + outbox.size() + " accepted messages not published.");
+        }
+    }
+
+    // Registrado pelo ProducerService: publica a mensagem pelo adaptador do broker
+    public void setDispatcher(Function<Entry, CompletableFuture<?>> dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * @return false se o outbox estiver cheio (o chamador decide o que fazer, ex.: enviar de forma síncrona).
+     */
+    public boolean offer(Producer producer, MessageReceived messageReceived, String messageId) {
+        if (!running) {
+            return false; // Desligando: os workers podem já ter saído
+        }
+        TrackedStatus tracked = track(producer.getId(), messageId);
+        if (!outbox.offer(new Entry(producer, messageReceived, messageId))) {
+            if (statuses.remove(messageId, tracked)) {
+                trackedCount.decrementAndGet();
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return A situação da mensagem, ou null se ela não for deste produtor ou já tiver saído da janela de status.
+     */
+    public AsyncSendStatus getStatus(String producerId, String messageId) {
+        TrackedStatus tracked = statuses.get(messageId);
+        if (tracked == null || !tracked.producerId.equals(producerId)) {
+            return null;
+        }
+        return new AsyncSendStatus(messageId, tracked.status, tracked.error);
+    }
+
+    private void runWorker() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        List<CompletableFuture<?>> inFlight = new ArrayList<>(batchSize);
+        int idle = 0;
+        long parkNanos = 1_000;
+        while (true) {
+            Entry entry;
+            while (batch.size() < batchSize && (entry = outbox.poll()) != null) {
+                batch.add(entry);
+            }
+            if (batch.isEmpty()) {
+                if (!running) {
+                    return; // Desligando e sem mais nada aceito para publicar
+                }
+                idle++;
+                if (idle < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else if (idle < YIELD_TRIES) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(parkNanos);
+                    parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+                }
+                continue;
+            }
+            idle = 0;
+            parkNanos = 1_000;
+
+            // Publica o lote inteiro antes de esperar qualquer confirmação
+            for (Entry pending : batch) {
+                inFlight.add(dispatch(pending));
+            }
+            for (CompletableFuture<?> future : inFlight) {
+                try {
+                    future.join();
+                } catch (CompletionException e) {
+                    // Já registrado como 'failed' em dispatch
+                }
+            }
+            batch.clear();
+            inFlight.clear();
+        }
+    }
+
+    private CompletableFuture<?> dispatch(Entry entry) {
+        CompletableFuture<?> future;
+        try {
+            future = dispatcher.apply(entry);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((ignored, ex) -> {
+            TrackedStatus tracked = statuses.get(entry.messageId);
+            if (tracked == null) {
+                return;
+            }
+            if (ex == null) {
+                tracked.status = AsyncSendStatus.PUBLISHED;
+            } else {
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                tracked.error = cause.getMessage();
+                tracked.status = AsyncSendStatus.FAILED;
+                System.err.println("Async send of message " + entry.messageId + " failed: " + cause.getMessage());
+            }
+        });
+    }
+
+    private TrackedStatus track(String producerId, String messageId) {
+        long now = System.currentTimeMillis();
+        TrackedStatus oldest;
+        while ((oldest = statusOrder.peek()) != null
+                && (trackedCount.get() >= statusMaxEntries || now - oldest.createdAtMs > statusTtlMs)) {
+            TrackedStatus evicted = statusOrder.poll();
+            if (evicted != null && statuses.remove(evicted.messageId, evicted)) {
+                trackedCount.decrementAndGet();
+            }
+        }
+        TrackedStatus tracked = new TrackedStatus(producerId, messageId, now);
+        statuses.put(messageId, tracked);
+        statusOrder.add(tracked);
+        trackedCount.incrementAndGet();
+        return tracked;
+    }
+
+    public static final class Entry {
+        private final Producer producer;
+        private final MessageReceived messageReceived;
+        private final String messageId;
+
+        private Entry(Producer producer, MessageReceived messageReceived, String messageId) {
+            this.producer = producer;
+            this.messageReceived = messageReceived;
+            this.messageId = messageId;
+        }
+
+        public Producer getProducer() {
+            return producer;
+        }
+
+        public MessageReceived getMessageReceived() {
+            return messageReceived;
+        }
+
+        public String getMessageId() {
+            return messageId;
+        }
+    }
+
+    private static final class TrackedStatus {
+        private final String producerId;
+        private final String messageId;
+        private final long createdAtMs;
+        private volatile String status = AsyncSendStatus.PENDING;
+        private volatile String error;
+
+        private TrackedStatus(String producerId, String messageId, long createdAtMs) {
+            this.producerId = producerId;
+            this.messageId = messageId;
+            this.createdAtMs = createdAtMs;
+        }
+    }
+}
\ No newline at end of file
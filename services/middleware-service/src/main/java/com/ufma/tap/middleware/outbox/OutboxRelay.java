@@ -0,0 +1,145 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/outbox/OutboxRelay.java
+package com.ufma.tap.middleware.outbox;
+
+import com.ufma.tap.middleware.config.ExecutionThreads;
+import com.ufma.tap.middleware.dto.MessageSendResult;
+import com.ufma.tap.middleware.model.OutboxMessage;
+import com.ufma.tap.middleware.repository.OutboxMessageRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+// Relay do outbox transacional: cada thread trava o próximo lote de 'outbox_messages' (SELECT ... FOR UPDATE
+// SKIP LOCKED, em ordem de id), publica o lote pelo dispatcher (confirms do broker) e, na mesma transação,
+// apaga as linhas confirmadas. Linhas que falharam continuam na tabela com backoff exponencial.
+// Como cada relay só vê linhas livres, várias threads e várias réplicas drenam a tabela em paralelo sem
+// publicar a mesma linha duas vezes enquanto a transação estiver aberta. Se a réplica cair entre a
+// publicação e o commit, as linhas voltam a ficar livres e são publicadas de novo (entrega pelo menos uma vez).
+// A ordem é garantida dentro de cada lote; com mais de um relay, lotes distintos podem se intercalar.
+@Component
+public class OutboxRelay {
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ExecutionThreads executionThreads;
+
+    @Value("${middleware.outbox.relay-threads:2}")
+    private int relayThreads;
+
+    @Value("${middleware.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${middleware.outbox.poll-ms:200}")
+    private long pollMs;
+
+    @Value("${middleware.outbox.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    @Value("${middleware.outbox.retry-backoff-max-ms:60000}")
+    private long retryBackoffMaxMs;
+
+    private ExecutorService relayExecutor;
+    private volatile Function<List<OutboxMessage>, List<MessageSendResult>> dispatcher;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        relayExecutor = Executors.newFixedThreadPool(relayThreads, executionThreads.threadFactory("outbox-relay-"));
+        for (int i = 0; i < relayThreads; i++) {
+            relayExecutor.execute(this::runRelay);
+        }
+        System.out.println("Outbox relay started (" + relayThreads + " threads, batch size " + batchSize + ").");
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        relayExecutor.shutdown();
+    }
+
+    // Registrado pelo ProducerService: publica o lote e devolve um resultado por mensagem, na mesma ordem
+    public void setDispatcher(Function<List<OutboxMessage>, List<MessageSendResult>> dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    private void runRelay() {
+        while (running) {
+            int relayed = 0;
+            try {
+                if (dispatcher != null) {
+                    relayed = relayNextBatch();
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Outbox relay error: " + e.getMessage());
+            }
+            if (relayed < batchSize) {
+                // Tabela (quase) vazia: espera antes de consultar de novo; lote cheio segue direto para o próximo
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(pollMs));
+            }
+        }
+    }
+
+    private int relayNextBatch() {
+        Integer relayed = transactionTemplate.execute(status -> {
+            List<OutboxMessage> batch = outboxMessageRepository.lockNextBatch(new Date(), batchSize);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            List<MessageSendResult> results;
+            try {
+                results = dispatcher.apply(batch);
+            } catch (RuntimeException e) {
+                results = new ArrayList<>(batch.size());
+                for (OutboxMessage message : batch) {
+                    results.add(MessageSendResult.failed(message.getMessageId(), e.getMessage()));
+                }
+            }
+
+            List<Long> publishedIds = new ArrayList<>(batch.size());
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < batch.size(); i++) {
+                OutboxMessage message = batch.get(i);
+                MessageSendResult result = results.get(i);
+                if (MessageSendResult.ACCEPTED.equals(result.getStatus())) {
+                    publishedIds.add(message.getId());
+                    continue;
+                }
+                // Entidades gerenciadas: as alterações são gravadas no commit
+                message.setAttempts(message.getAttempts() + 1);
+                message.setLastError(result.getError());
+                message.setNextAttemptAt(new Date(now + backoffMs(message.getAttempts())));
+            }
+            if (!publishedIds.isEmpty()) {
+                outboxMessageRepository.deleteAllByIdInBatch(publishedIds);
+            }
+            if (publishedIds.size() < batch.size()) {
+                System.err.println("Outbox relay: " + (batch.size() - publishedIds.size()) + " of " + batch.size() + " messages failed and will be retried.");
+            }
+            return batch.size();
+        });
+        return relayed != null ? relayed : 0;
+    }
+
+    private long backoffMs(int attempts) {
+        long backoff = retryBackoffMs << Math.min(attempts - 1, 20);
+        return Math.min(backoff, retryBackoffMaxMs);
+    }
+}
\ No newline at end of file
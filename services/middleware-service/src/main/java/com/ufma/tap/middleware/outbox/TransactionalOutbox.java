@@ -0,0 +1,129 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/outbox/TransactionalOutbox.java
+package com.ufma.tap.middleware.outbox;
+
+import com.ufma.tap.middleware.exception.MessageSendException;
+import com.ufma.tap.middleware.model.OutboxMessage;
+import com.ufma.tap.middleware.repository.OutboxMessageRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Gravação no outbox transacional (entrega garantida). Envios individuais não abrem uma transação cada:
+// entram em uma fila e uma thread grava o que acumulou em um único commit, com os INSERTs em lote JDBC
+// (hibernate.jdbc.batch_size). O future de cada mensagem só conclui depois do commit do seu lote.
+@Component
+public class TransactionalOutbox {
+
+    private static final long WRITER_POLL_MS = 100;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${middleware.outbox.append-batch-size:500}")
+    private int appendBatchSize;
+
+    private final LinkedBlockingQueue<PendingAppend> pendingAppends = new LinkedBlockingQueue<>();
+    private Thread writerThread;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::runWriter, "outbox-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(5)); // O writer grava o que ainda estiver na fila antes de sair
+    }
+
+    /**
+     * Agenda a gravação da mensagem no próximo commit em grupo.
+     * @return Future concluído quando a linha estiver gravada (ou com MessageSendException se o commit falhar).
+     */
+    public CompletableFuture<Void> append(OutboxMessage message) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new MessageSendException("Outbox is shutting down."));
+        }
+        prepare(message);
+        PendingAppend pendingAppend = new PendingAppend(message);
+        pendingAppends.add(pendingAppend);
+        return pendingAppend.future;
+    }
+
+    /**
+     * Grava um lote inteiro em uma única transação, na thread do chamador (usado pelo envio em lote).
+     */
+    public void appendAll(List<OutboxMessage> messages) {
+        messages.forEach(this::prepare);
+        transactionTemplate.executeWithoutResult(status -> outboxMessageRepository.saveAll(messages));
+    }
+
+    private void prepare(OutboxMessage message) {
+        Date now = new Date();
+        message.setCreatedAt(now);
+        message.setNextAttemptAt(now);
+    }
+
+    private void runWriter() {
+        List<PendingAppend> batch = new ArrayList<>(appendBatchSize);
+        List<OutboxMessage> messages = new ArrayList<>(appendBatchSize);
+        while (running || !pendingAppends.isEmpty()) {
+            try {
+                PendingAppend first = pendingAppends.poll(WRITER_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                pendingAppends.drainTo(batch, appendBatchSize - 1);
+                for (PendingAppend pendingAppend : batch) {
+                    messages.add(pendingAppend.message);
+                }
+                writeBatch(batch, messages);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+                messages.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingAppend> batch, List<OutboxMessage> messages) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> outboxMessageRepository.saveAll(messages));
+        } catch (RuntimeException e) {
+            System.err.println("Failed to write " + batch.size() + " messages to the outbox: " + e.getMessage());
+            MessageSendException failure = new MessageSendException("Failed to store message for guaranteed delivery: " + e.getMessage(), e);
+            batch.forEach(pendingAppend -> pendingAppend.future.completeExceptionally(failure));
+            return;
+        }
+        batch.forEach(pendingAppend -> pendingAppend.future.complete(null));
+    }
+
+    private static final class PendingAppend {
+        private final OutboxMessage message;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private PendingAppend(OutboxMessage message) {
+            this.message = message;
+        }
+    }
+}
\ No newline at end of file
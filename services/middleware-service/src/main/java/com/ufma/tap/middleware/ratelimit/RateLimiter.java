@@ -0,0 +1,125 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/ratelimit/RateLimiter.java
+package com.ufma.tap.middleware.ratelimit;
+
+import com.ufma.tap.middleware.cache.EntityCache;
+import com.ufma.tap.middleware.dto.RateLimitStatus;
+import com.ufma.tap.middleware.exception.RateLimitExceededException;
+import com.ufma.tap.middleware.model.Producer;
+import com.ufma.tap.middleware.model.ProjectLimits;
+import com.ufma.tap.middleware.repository.ProjectLimitsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Limites de envio por produtor e por projeto (token buckets independentes, verificados nessa ordem).
+// Os limites vêm do Producer e do projeto (tabela 'projects' do registration-service); sem limite configurado,
+// valem os padrões da aplicação, e taxa <= 0 significa sem limite.
+@Component
+public class RateLimiter {
+
+    @Value("${middleware.ratelimit.default-producer-per-second:0}")
+    private double defaultProducerPerSecond;
+
+    @Value("${middleware.ratelimit.default-producer-burst:0}")
+    private int defaultProducerBurst;
+
+    @Value("${middleware.ratelimit.default-project-per-second:0}")
+    private double defaultProjectPerSecond;
+
+    @Value("${middleware.ratelimit.default-project-burst:0}")
+    private int defaultProjectBurst;
+
+    @Autowired
+    private EntityCache<ProjectLimits> projectLimitsCache;
+
+    @Autowired
+    private ProjectLimitsRepository projectLimitsRepository;
+
+    private final Map<String, TokenBucket> producerBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> projectBuckets = new ConcurrentHashMap<>();
+
+    /**
+     * Consome um token do produtor e um do projeto.
+     * @throws RateLimitExceededException se algum dos dois limites estiver esgotado (nenhum token é consumido).
+     */
+    public void acquire(Producer producer) {
+        TokenBucket producerBucket = producerBucket(producer);
+        if (producerBucket != null) {
+            long waitNanos = producerBucket.tryAcquire();
+            if (waitNanos > 0) {
+                throw new RateLimitExceededException("Rate limit exceeded for producer '" + producer.getId() + "'.",
+                        TimeUnit.NANOSECONDS.toMillis(waitNanos) + 1);
+            }
+        }
+        TokenBucket projectBucket = projectBucket(producer.getProjectId());
+        if (projectBucket != null) {
+            long waitNanos = projectBucket.tryAcquire();
+            if (waitNanos > 0) {
+                if (producerBucket != null) {
+                    producerBucket.refund();
+                }
+                throw new RateLimitExceededException("Rate limit exceeded for project '" + producer.getProjectId() + "'.",
+                        TimeUnit.NANOSECONDS.toMillis(waitNanos) + 1);
+            }
+        }
+    }
+
+    public RateLimitStatus status(Producer producer) {
+        RateLimitStatus status = new RateLimitStatus();
+        status.setProducerId(producer.getId());
+        status.setProjectId(producer.getProjectId());
+        TokenBucket producerBucket = producerBucket(producer);
+        if (producerBucket != null) {
+            status.setProducerRatePerSecond(producerBucket.getRatePerSecond());
+            status.setProducerBurst(producerBucket.getBurst());
+            status.setProducerAvailableTokens(producerBucket.availableTokens());
+        }
+        TokenBucket projectBucket = projectBucket(producer.getProjectId());
+        if (projectBucket != null) {
+            status.setProjectRatePerSecond(projectBucket.getRatePerSecond());
+            status.setProjectBurst(projectBucket.getBurst());
+            status.setProjectAvailableTokens(projectBucket.availableTokens());
+        }
+        return status;
+    }
+
+    public void removeProducer(String producerId) {
+        producerBuckets.remove(producerId);
+    }
+
+    private TokenBucket producerBucket(Producer producer) {
+        double rate = producer.getRateLimitPerSecond() != null ? producer.getRateLimitPerSecond() : defaultProducerPerSecond;
+        int burst = producer.getRateLimitBurst() != null ? producer.getRateLimitBurst() : defaultProducerBurst;
+        return bucket(producerBuckets, producer.getId(), rate, burst);
+    }
+
+    private TokenBucket projectBucket(String projectId) {
+        if (projectId == null) {
+            return null;
+        }
+        // Os limites do projeto mudam no registration-service: o TTL do cache define em quanto tempo a mudança chega aqui
+        ProjectLimits limits = projectLimitsCache.get(projectId, projectLimitsRepository::findById).orElse(null);
+        double rate = limits != null && limits.getRateLimitPerSecond() != null ? limits.getRateLimitPerSecond() : defaultProjectPerSecond;
+        int burst = limits != null && limits.getRateLimitBurst() != null ? limits.getRateLimitBurst() : defaultProjectBurst;
+        return bucket(projectBuckets, projectId, rate, burst);
+    }
+
+    // Balde atual da chave; recriado apenas quando os limites configurados mudam
+    private static TokenBucket bucket(Map<String, TokenBucket> buckets, String key, double ratePerSecond, int burst) {
+        if (ratePerSecond <= 0) {
+            buckets.remove(key);
+            return null;
+        }
+        int effectiveBurst = burst > 0 ? burst : (int) Math.max(1, Math.ceil(ratePerSecond)); // Padrão: 1 segundo de tokens
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null && bucket.hasLimits(ratePerSecond, effectiveBurst)) {
+            return bucket;
+        }
+        return buckets.compute(key, (k, current) ->
+                current != null && current.hasLimits(ratePerSecond, effectiveBurst) ? current : new TokenBucket(ratePerSecond, effectiveBurst));
+    }
+}
\ No newline at end of file
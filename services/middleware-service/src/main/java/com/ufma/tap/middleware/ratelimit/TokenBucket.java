@@ -0,0 +1,85 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/ratelimit/TokenBucket.java
+package com.ufma.tap.middleware.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Token bucket sem lock, na forma de "virtual scheduling" (GCRA): em vez de um contador de tokens com reposição
+// periódica, guarda apenas o instante teórico em que o balde estará cheio de novo (um AtomicLong em nanos).
+// Cada aquisição é um único CAS; não há thread de reposição nem lock, então não vira ponto de contenção.
+// Instantes em nanos são comparados só por diferença (o System.nanoTime pode estar perto de Long.MAX_VALUE) e
+// intervalo e tolerância são limitados, para que taxas minúsculas ou bursts enormes não estourem um long.
+public class TokenBucket {
+
+    // Taxas abaixo de 1 token por dia são tratadas como 1 por dia
+    public static final long MAX_EMISSION_INTERVAL_NANOS = 86_400_000_000_000L;
+    // Burst equivalente a no máximo 1 ano de tokens à taxa configurada
+    public static final long MAX_TOLERANCE_NANOS = 365 * MAX_EMISSION_INTERVAL_NANOS;
+
+    private final double ratePerSecond;
+    private final int burst;
+    private final long emissionIntervalNanos; // Tempo para repor 1 token
+    private final long toleranceNanos; // Quanto o instante teórico pode estar à frente de 'agora' (burst - 1 tokens)
+
+    private final LongSupplier nanoClock;
+    private final AtomicLong theoreticalArrivalNanos;
+
+    public TokenBucket(double ratePerSecond, int burst) {
+        this(ratePerSecond, burst, System::nanoTime);
+    }
+
+    TokenBucket(double ratePerSecond, int burst, LongSupplier nanoClock) {
+        this.ratePerSecond = ratePerSecond;
+        this.burst = Math.max(1, burst);
+        double intervalNanos = 1_000_000_000d / ratePerSecond; // Infinito, negativo ou NaN para taxas inválidas: vira o máximo
+        this.emissionIntervalNanos = intervalNanos > 0
+                ? (long) Math.max(1, Math.min(intervalNanos, MAX_EMISSION_INTERVAL_NANOS))
+                : MAX_EMISSION_INTERVAL_NANOS;
+        this.toleranceNanos = this.burst - 1 > MAX_TOLERANCE_NANOS / emissionIntervalNanos
+                ? MAX_TOLERANCE_NANOS
+                : emissionIntervalNanos * (this.burst - 1);
+        this.nanoClock = nanoClock;
+        this.theoreticalArrivalNanos = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * @return 0 se o token foi concedido; senão, em nanos, quanto falta para haver um token disponível.
+     */
+    public long tryAcquire() {
+        long now = nanoClock.getAsLong();
+        while (true) {
+            long tat = theoreticalArrivalNanos.get();
+            long start = tat - now > 0 ? tat : now; // max(tat, now) imune à volta do long
+            long waitNanos = (start - now) - toleranceNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrivalNanos.compareAndSet(tat, start + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    // Devolve um token concedido (ex.: outro limite recusou a mesma requisição)
+    public void refund() {
+        theoreticalArrivalNanos.addAndGet(-emissionIntervalNanos);
+    }
+
+    public int availableTokens() {
+        long ahead = Math.max(0, theoreticalArrivalNanos.get() - nanoClock.getAsLong());
+        long available = (toleranceNanos + emissionIntervalNanos - ahead) / emissionIntervalNanos;
+        return (int) Math.max(0, Math.min(burst, available));
+    }
+
+    public boolean hasLimits(double ratePerSecond, int burst) {
+        return this.ratePerSecond == ratePerSecond && this.burst == Math.max(1, burst);
+    }
+
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/repository/DelayedMessageRepository.java
+package com.ufma.tap.middleware.repository;
+
+import com.ufma.tap.middleware.model.DelayedMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+public interface DelayedMessageRepository extends JpaRepository<DelayedMessage, String> {
+
+    // Mensagens que vencem até 'horizon' e ainda não foram carregadas por nenhuma réplica (ou cuja carga expirou)
+    @Query("SELECT d.messageId FROM DelayedMessage d WHERE d.dueAt <= :horizon AND (d.claimedBy IS NULL OR d.claimedAt < :staleBefore) ORDER BY d.dueAt")
+    List<String> findClaimableIds(@Param("horizon") Date horizon, @Param("staleBefore") Date staleBefore, Pageable pageable);
+
+    // Reserva atômica: só uma réplica consegue marcar a mensagem como carregada
+    @Modifying
+    @Transactional
+    @Query("UPDATE DelayedMessage d SET d.claimedBy = :replicaId, d.claimedAt = :now WHERE d.messageId = :messageId AND (d.claimedBy IS NULL OR d.claimedAt < :staleBefore)")
+    int claim(@Param("messageId") String messageId, @Param("replicaId") String replicaId, @Param("now") Date now, @Param("staleBefore") Date staleBefore);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE DelayedMessage d SET d.claimedBy = NULL, d.claimedAt = NULL WHERE d.messageId = :messageId")
+    int release(@Param("messageId") String messageId);
+
+    // Libera as mensagens carregadas por esta réplica antes de um restart (a timing wheel em memória foi perdida)
+    @Modifying
+    @Transactional
+    @Query("UPDATE DelayedMessage d SET d.claimedBy = NULL, d.claimedAt = NULL WHERE d.claimedBy = :replicaId")
+    int releaseAllClaimedBy(@Param("replicaId") String replicaId);
+}
\ No newline at end of file
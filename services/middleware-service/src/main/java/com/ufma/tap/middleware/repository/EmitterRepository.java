@@ -1,6 +1,11 @@
 // Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/repository/EmitterRepository.java
 package com.ufma.tap.middleware.repository;
 
+import com.ufma.tap.middleware.model.Consumer;
+import com.ufma.tap.middleware.sse.SseDeliveryQueue;
+import com.ufma.tap.middleware.sse.SseWriterPool;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.util.Optional;
@@ -10,18 +15,78 @@ import java.util.concurrent.ConcurrentHashMap;
 
 @Repository
 public class EmitterRepository {
-    // Mantém um mapeamento de consumerId para SseEmitter
-    private final Map<String, SseEmitter> emitters = new ConcurrentHashMap<>();
 
-    public void add(String consumerId, SseEmitter sseEmitter) {
-        emitters.put(consumerId, sseEmitter);
+    @Autowired
+    private SseWriterPool writerPool;
+
+    @Value("${middleware.sse.queue-capacity:1024}")
+    private int defaultQueueCapacity;
+
+    @Value("${middleware.sse.max-queue-capacity:10000}")
+    private int maxQueueCapacity;
+
+    @Value("${middleware.sse.overflow-policy:drop-oldest}")
+    private String defaultOverflowPolicy;
+
+    @Value("${middleware.sse.block-timeout-ms:200}")
+    private long blockTimeoutMs;
+
+    @Value("${middleware.sse.max-batch-size:1000}")
+    private int maxBatchSize;
+
+    @Value("${middleware.sse.max-linger-ms:1000}")
+    private long maxLingerMs;
+
+    // Mantém um mapeamento de consumerId para o SseEmitter, com a fila limitada de entrega de cada um
+    private final Map<String, SseDeliveryQueue> emitters = new ConcurrentHashMap<>();
+
+    /**
+     * @param batchSize Máximo de mensagens por evento SSE pedido pelo cliente (null ou <= 1: um evento por mensagem).
+     * @param lingerMs Quanto um lote incompleto espera por mais mensagens antes de ser enviado.
+     */
+    public SseDeliveryQueue add(Consumer consumer, SseEmitter sseEmitter, Integer batchSize, Long lingerMs) {
+        // A fila aloca toda a capacidade ao ser criada: limitada pela réplica, como lote e linger
+        int capacity = Math.min(Math.max(1, consumer.getSseQueueCapacity() != null ? consumer.getSseQueueCapacity() : defaultQueueCapacity), maxQueueCapacity);
+        SseDeliveryQueue.OverflowPolicy overflowPolicy = effectiveOverflowPolicy(consumer);
+        // Limites da réplica: o cliente não escolhe lotes nem esperas arbitrariamente grandes
+        int effectiveBatchSize = batchSize != null ? Math.min(Math.max(1, batchSize), maxBatchSize) : 1;
+        long effectiveLingerMs = lingerMs != null ? Math.min(Math.max(0, lingerMs), maxLingerMs) : 0;
+        SseDeliveryQueue deliveryQueue = new SseDeliveryQueue(consumer.getId(), sseEmitter, capacity, overflowPolicy,
+                blockTimeoutMs, effectiveBatchSize, effectiveLingerMs, writerPool, closed -> emitters.remove(closed.getConsumerId(), closed));
+        SseDeliveryQueue previous = emitters.put(consumer.getId(), deliveryQueue);
+        if (previous != null) {
+            previous.close(); // Nova conexão do mesmo consumidor substitui a anterior
+        }
+        return deliveryQueue;
+    }
+
+    // BLOCK prende a thread do listener, compartilhada com outras filas: só para ack manual no RabbitMQ, em que o
+    // prefetch limita o que pode chegar; nos demais consumidores a fila cheia descarta a mensagem mais antiga
+    private SseDeliveryQueue.OverflowPolicy effectiveOverflowPolicy(Consumer consumer) {
+        SseDeliveryQueue.OverflowPolicy requested = SseDeliveryQueue.OverflowPolicy.fromString(
+                consumer.getSseOverflowPolicy() != null ? consumer.getSseOverflowPolicy() : defaultOverflowPolicy);
+        boolean manualAck = Boolean.TRUE.equals(consumer.getManualAck()) && "rabbitmq".equalsIgnoreCase(consumer.getBroker());
+        if (requested == SseDeliveryQueue.OverflowPolicy.BLOCK && !manualAck) {
+            return SseDeliveryQueue.OverflowPolicy.DROP_OLDEST;
+        }
+        return requested;
     }
 
     public void remove(String consumerId) {
-        emitters.remove(consumerId);
+        SseDeliveryQueue deliveryQueue = emitters.remove(consumerId);
+        if (deliveryQueue != null) {
+            deliveryQueue.close();
+        }
+    }
+
+    // Remove só se ainda for a mesma conexão (callbacks de um emitter antigo não derrubam a conexão nova)
+    public void remove(String consumerId, SseDeliveryQueue deliveryQueue) {
+        if (emitters.remove(consumerId, deliveryQueue)) {
+            deliveryQueue.close();
+        }
     }
 
-    public Optional<SseEmitter> get(String consumerId) {
+    public Optional<SseDeliveryQueue> get(String consumerId) {
         return Optional.ofNullable(emitters.get(consumerId));
     }
 }
\ No newline at end of file
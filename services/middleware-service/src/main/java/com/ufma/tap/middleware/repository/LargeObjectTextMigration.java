@@ -0,0 +1,56 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/repository/LargeObjectTextMigration.java
+package com.ufma.tap.middleware.repository;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+// Colunas TEXT que eram mapeadas com @Lob guardavam apenas o OID de um large object do PostgreSQL (o conteúdo ficava
+// em pg_largeobject). Agora o texto vai no próprio registro; esta migração roda uma vez por coluna, logo depois do
+// ddl-auto do Hibernate: troca cada OID ainda existente pelo conteúdo do large object e o remove (lo_unlink).
+// A marca em middleware_migrations é gravada na mesma transação, então instâncias subindo juntas não repetem a conversão.
+@Component
+@DependsOn("entityManagerFactory")
+public class LargeObjectTextMigration {
+
+    private static final String CREATE_MARKER_TABLE_SQL = "CREATE TABLE IF NOT EXISTS middleware_migrations "
+            + "(id VARCHAR(100) PRIMARY KEY, applied_at TIMESTAMP NOT NULL DEFAULT now())";
+
+    private static final String MARK_APPLIED_SQL = "INSERT INTO middleware_migrations (id) VALUES (?) ON CONFLICT (id) DO NOTHING";
+
+    // Tabelas cuja coluna 'data' deixou de ser @Lob
+    private static final List<String> TABLES = List.of("messages", "outbox_messages", "delayed_messages");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void migrate() {
+        jdbcTemplate.execute(CREATE_MARKER_TABLE_SQL);
+        for (String table : TABLES) {
+            Integer converted = transactionTemplate.execute(status -> {
+                if (jdbcTemplate.update(MARK_APPLIED_SQL, table + "-data-lob-to-text") == 0) {
+                    return null; // Já aplicada (por esta ou por outra instância)
+                }
+                return jdbcTemplate.queryForObject(convertSql(table), Integer.class);
+            });
+            if (converted != null) {
+                System.out.println("Migrated " + converted + " large objects of " + table + ".data to inline text.");
+            }
+        }
+    }
+
+    private static String convertSql(String table) {
+        return "WITH converted AS (UPDATE " + table + " t SET data = convert_from(lo_get(lo.oid), 'UTF8') "
+                + "FROM pg_largeobject_metadata lo WHERE t.data ~ '^[0-9]+$' AND lo.oid::text = t.data RETURNING lo.oid) "
+                + "SELECT count(lo_unlink(oid))::int FROM converted";
+    }
+}
\ No newline at end of file
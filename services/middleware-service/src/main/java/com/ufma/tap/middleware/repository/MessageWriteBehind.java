@@ -0,0 +1,191 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/repository/MessageWriteBehind.java
+package com.ufma.tap.middleware.repository;
+
+import com.ufma.tap.middleware.config.ExecutionThreads;
+import com.ufma.tap.middleware.dto.WriteBehindStats;
+import com.ufma.tap.middleware.exception.MessageDeliveryException;
+import com.ufma.tap.middleware.model.CompressedTextConverter;
+import com.ufma.tap.middleware.model.Message;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Persistência write-behind das mensagens consumidas (consumidores com persistenceTime > 0). Os listeners só
+// enfileiram; uma thread grava o que acumulou em um único commit, com INSERTs em lote JDBC (o driver os reescreve
+// em INSERTs de várias linhas com reWriteBatchedInserts), assim que o lote enche ou 'flush-interval-ms' depois da
+// primeira mensagem. messageId repetido (reentrega do broker) é ignorado com ON CONFLICT DO NOTHING.
+// O future de cada mensagem conclui após o commit do seu lote; no desligamento a fila é gravada antes de sair.
+@Component
+public class MessageWriteBehind {
+
+    private static final long WRITER_POLL_MS = 100;
+
+    private static final String INSERT_SQL = "INSERT INTO messages (message_id, consumer_id, data, queue, expire_at) "
+            + "VALUES (?, ?, ?, ?, ?) ON CONFLICT (message_id) DO NOTHING";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ExecutionThreads executionThreads;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    @Value("${middleware.persistence.write-behind.capacity:100000}")
+    private int capacity;
+
+    @Value("${middleware.persistence.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${middleware.persistence.write-behind.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    @Value("${middleware.persistence.write-behind.offer-timeout-ms:1000}")
+    private long offerTimeoutMs;
+
+    @Value("${middleware.persistence.write-behind.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private ArrayBlockingQueue<PendingWrite> pendingWrites;
+    private CompressedTextConverter dataConverter; // Mesma conversão da coluna 'data' feita pelo Hibernate
+    private Thread writerThread;
+    private volatile boolean running;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private volatile int lastBatchSize;
+    private volatile long lastBatchMillis;
+
+    @PostConstruct
+    public void start() {
+        pendingWrites = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        dataConverter = beanFactory.createBean(CompressedTextConverter.class);
+        running = true;
+        writerThread = executionThreads.threadFactory("message-write-behind-").newThread(this::runWriter);
+        writerThread.start();
+        System.out.println("Message write-behind started: capacity " + pendingWrites.remainingCapacity() + ", batch " + batchSize + ", flush every " + flushIntervalMs + " ms.");
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writerThread.join(shutdownTimeoutMs); // O writer grava o que ainda estiver na fila antes de sair
+        if (!pendingWrites.isEmpty()) {
+            System.err.println("Message write-behind stopped with " + pendingWrites.size() + " messages not persisted.");
+        }
+    }
+
+    /**
+     * Agenda a gravação da mensagem no próximo lote. Com a fila cheia, espera até 'offer-timeout-ms' por espaço.
+     * @return Future concluído após o commit do lote (ou com MessageDeliveryException se a mensagem não for gravada).
+     */
+    public CompletableFuture<Void> append(Message message) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new MessageDeliveryException("Message persistence is shutting down."));
+        }
+        PendingWrite pendingWrite = new PendingWrite(message);
+        try {
+            if (!pendingWrites.offer(pendingWrite, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                failed.incrementAndGet();
+                return CompletableFuture.failedFuture(new MessageDeliveryException("Message persistence queue is full."));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(new MessageDeliveryException("Interrupted while queueing message for persistence."));
+        }
+        return pendingWrite.future;
+    }
+
+    public WriteBehindStats getStats() {
+        PendingWrite oldest = pendingWrites.peek();
+        long oldestPendingAgeMs = oldest != null ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest.enqueuedAtNanos) : 0;
+        return new WriteBehindStats(pendingWrites.size(), pendingWrites.size() + pendingWrites.remainingCapacity(), oldestPendingAgeMs,
+                written.get(), failed.get(), batches.get(), lastBatchSize, lastBatchMillis);
+    }
+
+    private void runWriter() {
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        while (running || !pendingWrites.isEmpty()) {
+            try {
+                PendingWrite first = pendingWrites.poll(WRITER_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Completa o lote até o tamanho máximo ou até o fim do intervalo contado da primeira mensagem
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    pendingWrites.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    PendingWrite next = pendingWrites.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingWrite> batch) {
+        long startedAt = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (statement, pendingWrite) -> {
+                Message message = pendingWrite.message;
+                statement.setString(1, message.getMessageId());
+                statement.setString(2, message.getConsumerId());
+                statement.setString(3, dataConverter.convertToDatabaseColumn(message.getData()));
+                statement.setString(4, message.getQueue());
+                statement.setTimestamp(5, message.getExpireAt() != null ? new Timestamp(message.getExpireAt().getTime()) : null);
+            }));
+        } catch (RuntimeException e) {
+            System.err.println("Failed to persist batch of " + batch.size() + " messages: " + e.getMessage());
+            failed.addAndGet(batch.size());
+            MessageDeliveryException failure = new MessageDeliveryException("Failed to persist message: " + e.getMessage(), e);
+            batch.forEach(pendingWrite -> pendingWrite.future.completeExceptionally(failure));
+            return;
+        }
+        written.addAndGet(batch.size());
+        batches.incrementAndGet();
+        lastBatchSize = batch.size();
+        lastBatchMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        batch.forEach(pendingWrite -> pendingWrite.future.complete(null));
+    }
+
+    private static final class PendingWrite {
+        private final Message message;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private final long enqueuedAtNanos = System.nanoTime();
+
+        private PendingWrite(Message message) {
+            this.message = message;
+        }
+    }
+}
\ No newline at end of file
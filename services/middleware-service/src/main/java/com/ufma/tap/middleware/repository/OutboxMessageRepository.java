@@ -0,0 +1,18 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/repository/OutboxMessageRepository.java
+package com.ufma.tap.middleware.repository;
+
+import com.ufma.tap.middleware.model.OutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Date;
+import java.util.List;
+
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    // Próximo lote em ordem de gravação, travado até o fim da transação do chamador.
+    // SKIP LOCKED pula as linhas já travadas por outro relay (desta ou de outra réplica) em vez de esperar por elas.
+    @Query(value = "SELECT * FROM outbox_messages WHERE next_attempt_at <= :now ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxMessage> lockNextBatch(@Param("now") Date now, @Param("limit") int limit);
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/repository/ProjectLimitsRepository.java
+package com.ufma.tap.middleware.repository;
+
+import com.ufma.tap.middleware.model.ProjectLimits;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProjectLimitsRepository extends JpaRepository<ProjectLimits, String> {
+}
\ No newline at end of file
@@ -0,0 +1,224 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/scheduler/DelayedDeliveryScheduler.java
+package com.ufma.tap.middleware.scheduler;
+
+import com.ufma.tap.middleware.config.ExecutionThreads;
+import com.ufma.tap.middleware.model.DelayedMessage;
+import com.ufma.tap.middleware.repository.DelayedMessageRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+// Agendador de envios atrasados (MessageReceived.timeToWait).
+// - Atrasos até 'durable-threshold-ms' ficam só em memória, na timing wheel (perdem-se em um restart).
+// - Atrasos maiores são gravados em 'delayed_messages'; um poller carrega na wheel o que vence dentro do
+//   próximo intervalo do limiar, reservando cada linha para esta réplica (evita envio duplicado entre réplicas).
+// Uma única thread avança a wheel; os envios vencidos seguem para o dispatcher (caminho normal do IProducerMessaging).
+@Component
+public class DelayedDeliveryScheduler {
+
+    @Autowired
+    private DelayedMessageRepository delayedMessageRepository;
+
+    @Autowired
+    private ExecutionThreads executionThreads;
+
+    @Value("${middleware.delayed.tick-ms:10}")
+    private long tickMs;
+
+    @Value("${middleware.delayed.wheel-size:512}")
+    private int wheelSize;
+
+    @Value("${middleware.delayed.durable-threshold-ms:60000}")
+    private long durableThresholdMs;
+
+    @Value("${middleware.delayed.durable-poll-ms:10000}")
+    private long durablePollMs;
+
+    @Value("${middleware.delayed.durable-batch-size:1000}")
+    private int durableBatchSize;
+
+    @Value("${middleware.delayed.dispatch-threads:4}")
+    private int dispatchThreads;
+
+    // Identificador estável da réplica (HOSTNAME no container) para recuperar as próprias reservas após restart
+    @Value("${middleware.delayed.replica-id:${HOSTNAME:}}")
+    private String replicaId;
+
+    // Inserções de outras threads: só a thread da wheel mexe na estrutura
+    private final ConcurrentLinkedQueue<PendingDelivery> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private HierarchicalTimingWheel<PendingDelivery> wheel;
+    private Thread wheelThread;
+    private ScheduledExecutorService durablePoller;
+    private ExecutorService dispatchExecutor;
+    private volatile Function<DelayedMessage, CompletableFuture<Void>> dispatcher;
+    private volatile boolean running;
+    private boolean ownClaimsRecovered; // Acessado apenas pela thread do poller
+
+    @PostConstruct
+    public void start() {
+        if (replicaId == null || replicaId.isBlank()) {
+            replicaId = UUID.randomUUID().toString();
+        }
+        wheel = new HierarchicalTimingWheel<>(tickMs, wheelSize, System.currentTimeMillis());
+        running = true;
+
+        wheelThread = new Thread(this::runWheel, "delayed-delivery-wheel");
+        wheelThread.setDaemon(true);
+        wheelThread.start();
+
+        dispatchExecutor = Executors.newFixedThreadPool(dispatchThreads, executionThreads.threadFactory("delayed-delivery-dispatch-"));
+
+        durablePoller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "delayed-delivery-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        durablePoller.scheduleWithFixedDelay(this::loadDueDurableMessages, 0, durablePollMs, TimeUnit.MILLISECONDS);
+        System.out.println("Delayed delivery scheduler started (replica " + replicaId + ", durable threshold " + durableThresholdMs + " ms).");
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        durablePoller.shutdownNow();
+        LockSupport.unpark(wheelThread);
+        dispatchExecutor.shutdown();
+    }
+
+    // Registrado pelo ProducerService: envia a mensagem vencida pelo adaptador do broker
+    public void setDispatcher(Function<DelayedMessage, CompletableFuture<Void>> dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Agenda o envio de uma mensagem após 'delayMs'. Atrasos acima do limiar são gravados no banco antes de retornar.
+     */
+    public void schedule(DelayedMessage delayedMessage, long delayMs) {
+        long dueAtMs = System.currentTimeMillis() + delayMs;
+        delayedMessage.setDueAt(new Date(dueAtMs));
+        if (delayMs > durableThresholdMs) {
+            // Fica no banco até o poller trazê-la para a wheel perto do vencimento
+            delayedMessageRepository.save(delayedMessage);
+            return;
+        }
+        enqueue(new PendingDelivery(delayedMessage, dueAtMs, false));
+    }
+
+    public int getPendingInMemoryCount() {
+        return pending.get();
+    }
+
+    private void enqueue(PendingDelivery delivery) {
+        pending.incrementAndGet();
+        incoming.offer(delivery);
+    }
+
+    private void runWheel() {
+        while (running) {
+            PendingDelivery delivery;
+            while ((delivery = incoming.poll()) != null) {
+                if (!wheel.add(delivery.dueAtMs, delivery)) {
+                    dispatch(delivery); // Já vencida
+                }
+            }
+            wheel.advanceTo(System.currentTimeMillis(), this::dispatch);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(tickMs));
+        }
+    }
+
+    // Executado na thread da wheel: só repassa para o pool de envio
+    private void dispatch(PendingDelivery delivery) {
+        pending.decrementAndGet();
+        try {
+            dispatchExecutor.execute(() -> deliver(delivery));
+        } catch (RuntimeException e) {
+            System.err.println("Delayed message " + delivery.message.getMessageId() + " could not be dispatched: " + e.getMessage());
+        }
+    }
+
+    private void deliver(PendingDelivery delivery) {
+        DelayedMessage message = delivery.message;
+        CompletableFuture<Void> result;
+        try {
+            result = dispatcher.apply(message);
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((ignored, ex) -> {
+            if (ex == null) {
+                if (delivery.durable) {
+                    delayedMessageRepository.deleteById(message.getMessageId());
+                }
+                System.out.println("Delayed message " + message.getMessageId() + " sent for producer " + message.getProducerId());
+                return;
+            }
+            System.err.println("Failed to send delayed message " + message.getMessageId() + ": " + ex.getMessage());
+            if (delivery.durable) {
+                // Volta a ficar disponível: o próximo ciclo do poller tenta novamente
+                delayedMessageRepository.release(message.getMessageId());
+            }
+        });
+    }
+
+    private void loadDueDurableMessages() {
+        try {
+            if (!running) {
+                return;
+            }
+            if (!ownClaimsRecovered) {
+                // Restart: o que esta réplica tinha carregado na wheel se perdeu junto com a memória
+                int released = delayedMessageRepository.releaseAllClaimedBy(replicaId);
+                ownClaimsRecovered = true;
+                if (released > 0) {
+                    System.out.println("Recovered " + released + " delayed messages claimed before restart.");
+                }
+            }
+            long now = System.currentTimeMillis();
+            Date horizon = new Date(now + durableThresholdMs);
+            // Reservas mais antigas que dois limiares pertencem a réplicas que caíram sem enviar
+            Date staleBefore = new Date(now - 2 * durableThresholdMs);
+            List<String> ids;
+            do {
+                ids = delayedMessageRepository.findClaimableIds(horizon, staleBefore, PageRequest.of(0, durableBatchSize));
+                for (String id : ids) {
+                    if (delayedMessageRepository.claim(id, replicaId, new Date(now), staleBefore) == 1) {
+                        delayedMessageRepository.findById(id).ifPresent(message ->
+                                enqueue(new PendingDelivery(message, message.getDueAt().getTime(), true)));
+                    }
+                }
+            } while (ids.size() == durableBatchSize);
+        } catch (RuntimeException e) {
+            System.err.println("Error loading durable delayed messages: " + e.getMessage());
+        }
+    }
+
+    private static final class PendingDelivery {
+        private final DelayedMessage message;
+        private final long dueAtMs;
+        private final boolean durable; // Linha em 'delayed_messages' a remover após o envio
+
+        private PendingDelivery(DelayedMessage message, long dueAtMs, boolean durable) {
+            this.message = message;
+            this.dueAtMs = dueAtMs;
+            this.durable = durable;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,139 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/scheduler/HierarchicalTimingWheel.java
+package com.ufma.tap.middleware.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Timing wheel hierárquica (Varghese & Lauck): cada nível tem 'wheelSize' slots e cada slot do nível N
+// cobre wheelSize^N ticks. Inserir é O(1) (escolhe nível/slot pela distância até o vencimento) e cada tick
+// só drena um slot do nível 0; os níveis superiores "descem" (cascade) quando o nível de baixo dá a volta.
+// NÃO é thread-safe: deve ser usada por uma única thread (a thread que avança o relógio).
+public class HierarchicalTimingWheel<T> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    // levels.get(n)[slot] = cabeça da lista encadeada de timers daquele slot (níveis criados sob demanda)
+    private final List<Entry<T>[]> levels = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, long startTimeMs) {
+        if (tickMs <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("tickMs must be positive and wheelSize must be at least 2.");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.currentTick = startTimeMs / tickMs;
+        levels.add(newLevel());
+    }
+
+    /**
+     * Agenda um timer.
+     * @return false se o timer já estiver vencido (o chamador deve dispará-lo imediatamente).
+     */
+    public boolean add(long expirationMs, T payload) {
+        long expirationTick = expirationMs / tickMs;
+        if (expirationTick <= currentTick) {
+            return false;
+        }
+        place(new Entry<>(expirationTick, payload));
+        size++;
+        return true;
+    }
+
+    /**
+     * Avança o relógio até 'nowMs', entregando ao callback os timers vencidos (na ordem dos ticks).
+     */
+    public void advanceTo(long nowMs, Consumer<T> onExpired) {
+        long targetTick = nowMs / tickMs;
+        if (size == 0) {
+            // Nada pendente: evita percorrer tick a tick após longos períodos ociosos
+            currentTick = Math.max(currentTick, targetTick);
+            return;
+        }
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            int slot = (int) (currentTick % wheelSize);
+            Entry<T> entry = levels.get(0)[slot];
+            levels.get(0)[slot] = null;
+            while (entry != null) {
+                Entry<T> next = entry.next;
+                size--;
+                onExpired.accept(entry.payload);
+                entry = next;
+            }
+            if (size == 0) {
+                currentTick = targetTick;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Redistribui, do nível mais alto para o mais baixo, os slots dos níveis que completaram uma volta neste tick
+    private void cascade() {
+        int highest = 0;
+        long span = wheelSize;
+        while (highest + 1 < levels.size() && currentTick % span == 0) {
+            highest++;
+            span *= wheelSize;
+        }
+        for (int level = highest; level >= 1; level--) {
+            long levelSpan = pow(level);
+            int slot = (int) ((currentTick / levelSpan) % wheelSize);
+            Entry<T> entry = levels.get(level)[slot];
+            levels.get(level)[slot] = null;
+            while (entry != null) {
+                Entry<T> next = entry.next;
+                place(entry); // Vencimento >= currentTick: cai em um nível mais baixo (ou no slot do tick atual)
+                entry = next;
+            }
+        }
+    }
+
+    // Escolhe o menor nível em que a distância (em slots daquele nível) cabe em uma volta da roda
+    private void place(Entry<T> entry) {
+        int level = 0;
+        long levelSpan = 1;
+        while ((entry.expirationTick / levelSpan) - (currentTick / levelSpan) >= wheelSize) {
+            level++;
+            levelSpan *= wheelSize;
+        }
+        while (levels.size() <= level) {
+            levels.add(newLevel());
+        }
+        int slot = (int) ((entry.expirationTick / levelSpan) % wheelSize);
+        Entry<T>[] slots = levels.get(level);
+        entry.next = slots[slot];
+        slots[slot] = entry;
+    }
+
+    private long pow(int level) {
+        long result = 1;
+        for (int i = 0; i < level; i++) {
+            result *= wheelSize;
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Entry<T>[] newLevel() {
+        return (Entry<T>[]) new Entry[wheelSize];
+    }
+
+    // Nó da lista encadeada intrusiva de cada slot (sem alocação extra por inserção)
+    private static final class Entry<T> {
+        private final long expirationTick;
+        private final T payload;
+        private Entry<T> next;
+
+        private Entry(long expirationTick, T payload) {
+            this.expirationTick = expirationTick;
+            this.payload = payload;
+        }
+    }
+}
\ No newline at end of file
@@ -3,13 +3,17 @@ package com.ufma.tap.middleware.service;
 
 import com.google.gson.Gson;
 import com.ufma.tap.middleware.auth.BasicAuthUtil;
+import com.ufma.tap.middleware.cache.CacheInvalidationBroadcaster;
+import com.ufma.tap.middleware.cache.EntityCache;
 import com.ufma.tap.middleware.model.Consumer;
 import com.ufma.tap.middleware.model.Broker;
 import com.ufma.tap.middleware.model.Message;
 import com.ufma.tap.middleware.repository.ConsumerRepository;
 import com.ufma.tap.middleware.repository.EmitterRepository;
 import com.ufma.tap.middleware.repository.MessageRepository;
+import com.ufma.tap.middleware.repository.MessageWriteBehind;
 import com.ufma.tap.middleware.security.JWTUtil;
+import com.ufma.tap.middleware.sse.SseDeliveryQueue;
 import com.ufma.tap.middleware.messagebroker.IConsumerMessaging;
 import com.ufma.tap.middleware.dto.ConsumerDto;
 import com.ufma.tap.middleware.dto.MessageDto;
@@ -17,6 +21,8 @@ import com.ufma.tap.middleware.dto.StrategyUpdate;
 import com.ufma.tap.middleware.dto.QueueUpdate;
 import com.ufma.tap.middleware.dto.BrokerUpdate;
 import com.ufma.tap.middleware.dto.PersistenceUpdate;
+import com.ufma.tap.middleware.dto.DeliveryUpdate;
+import com.ufma.tap.middleware.dto.DeliveryStatus;
 import com.ufma.tap.middleware.dto.ConsumerConnectionEvent; // <<< NOVO IMPORT
 import com.ufma.tap.middleware.exception.InvalidCredentialsException;
 import com.ufma.tap.middleware.exception.ConsumerNotFoundException;
@@ -24,18 +30,19 @@ import com.ufma.tap.middleware.exception.UserConflictException;
 import com.ufma.tap.middleware.exception.BrokerNotSupportedException;
 import com.ufma.tap.middleware.exception.BrokerStrategyIncompatibleException;
 import com.ufma.tap.middleware.exception.MessageNotFoundException;
+import com.ufma.tap.middleware.exception.MessageDeliveryException;
 import org.springframework.amqp.core.AmqpTemplate; // <<< NOVO IMPORT
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.IOException;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -47,9 +54,18 @@ public class ConsumerService implements IConsumerService {
     private MessageRepository messageRepository;
     @Autowired
     private EmitterRepository emitterRepository;
+    @Autowired
+    private MessageWriteBehind messageWriteBehind; // Persistência em lote das mensagens consumidas
 
     @Autowired
     private JWTUtil jwtUtil;
+
+    @Autowired
+    private EntityCache<Consumer> consumerCache;
+
+    @Autowired
+    private CacheInvalidationBroadcaster cacheInvalidation; // Invalida o cache local e das demais réplicas
+
     @Autowired
     private BasicAuthUtil basicAuthUtil;
 
@@ -61,9 +77,19 @@ public class ConsumerService implements IConsumerService {
     @Qualifier("rabbitMQConsumer")
     private IConsumerMessaging rabbitMQConsumer;
 
-    // TODO: Adicionar @Autowired @Qualifier para KafkaConsumer, ActiveMQ5Consumer quando implementados
+    @Autowired
+    @Qualifier("kafkaConsumer")
+    private IConsumerMessaging kafkaConsumer;
+
+    @Autowired
+    @Qualifier("activeMQ5Consumer")
+    private IConsumerMessaging activeMQ5Consumer;
 
-    private final Set<String> GLOBAL_SUPPORTED_BROKERS = Set.of("rabbitmq", "kafka", "activemq5");
+    @Autowired
+    @Qualifier("inMemoryConsumer")
+    private IConsumerMessaging inMemoryConsumer; // Broker "inmemory": filas dentro da própria réplica
+
+    private final Set<String> GLOBAL_SUPPORTED_BROKERS = Set.of("rabbitmq", "kafka", "activemq5", "inmemory");
     private final Gson gson = new Gson();
 
     // Constantes para o RabbitMQ (DEVE SER AS MESMAS NO discovery-service/config/RabbitMQConfig.java)
@@ -106,7 +132,7 @@ public class ConsumerService implements IConsumerService {
 
     @Override
     public void deleteConsumer(String consumerId, String projectAuthToken) {
-        Consumer consumer = findAndValidateConsumer(consumerId, projectAuthToken);
+        Consumer consumer = findAndValidateConsumerForUpdate(consumerId, projectAuthToken);
         // Desconecta o consumidor do broker primeiro
         getConsumerMessagingAdapter(consumer.getBroker()).close(consumer.getId());
         // Remove o SSEmitter se houver
@@ -115,41 +141,40 @@ public class ConsumerService implements IConsumerService {
         messageRepository.deleteAllByConsumerId(consumer.getId());
         // Deleta o consumidor do banco de dados
         consumerRepository.delete(consumer);
+        cacheInvalidation.invalidateConsumer(consumerId);
 
         // Publica evento de consumidor desconectado após exclusão
         publishConsumerConnectionEvent(consumer.getId(), consumer.getProjectId(), "DISCONNECTED", "Consumer " + consumer.getId() + " deleted.");
     }
 
     @Override
-    public SseEmitter connectConsumer(String consumerId, String projectAuthToken) {
+    public SseEmitter connectConsumer(String consumerId, String projectAuthToken, Integer batchSize, Long lingerMs) {
         Consumer consumer = findAndValidateConsumer(consumerId, projectAuthToken);
 
         SseEmitter emitter = new SseEmitter(Long.MAX_VALUE);
+        // Fila limitada entre os listeners do broker e o emitter; a escrita fica com o SseWriterPool
+        SseDeliveryQueue deliveryQueue = emitterRepository.add(consumer, emitter, batchSize, lingerMs);
 
         emitter.onCompletion(() -> {
-            emitterRepository.remove(consumerId);
+            emitterRepository.remove(consumerId, deliveryQueue);
             // Publica evento de consumidor desconectado (por completion)
             publishConsumerConnectionEvent(consumerId, consumer.getProjectId(), "DISCONNECTED", "Consumer " + consumerId + " disconnected (completion).");
         });
         emitter.onTimeout(() -> {
-            emitterRepository.remove(consumerId);
+            emitterRepository.remove(consumerId, deliveryQueue);
             // Publica evento de consumidor desconectado (por timeout)
             publishConsumerConnectionEvent(consumerId, consumer.getProjectId(), "DISCONNECTED", "Consumer " + consumerId + " disconnected (timeout).");
         });
         emitter.onError((e) -> {
             System.err.println("SSE Emitter error for consumer " + consumerId + ": " + e.getMessage());
-            emitterRepository.remove(consumerId);
+            emitterRepository.remove(consumerId, deliveryQueue);
             // Publica evento de consumidor desconectado (por erro)
             publishConsumerConnectionEvent(consumerId, consumer.getProjectId(), "DISCONNECTED", "Consumer " + consumerId + " disconnected (error: " + e.getMessage() + ").");
         });
 
-        emitterRepository.add(consumerId, emitter);
-
         Broker brokerConfig = buildBrokerConfig(consumer);
         getConsumerMessagingAdapter(brokerConfig.getName())
-                .connectAndListen(consumer, receivedMessage -> {
-                    handleBrokerMessage(receivedMessage, emitter);
-                });
+                .connectAndListen(consumer, receivedMessage -> handleBrokerMessage(consumer, receivedMessage));
 
         // Publica evento de consumidor conectado
         publishConsumerConnectionEvent(consumerId, consumer.getProjectId(), "CONNECTED", "Consumer " + consumerId + " connected.");
@@ -192,7 +217,7 @@ public class ConsumerService implements IConsumerService {
 
     @Override
     public ConsumerDto setBroker(String consumerId, BrokerUpdate brokerUpdate, String projectAuthToken) {
-        Consumer consumer = findAndValidateConsumer(consumerId, projectAuthToken);
+        Consumer consumer = findAndValidateConsumerForUpdate(consumerId, projectAuthToken);
 
         if (!GLOBAL_SUPPORTED_BROKERS.contains(brokerUpdate.getBroker().toLowerCase())) {
             throw new BrokerNotSupportedException("Broker '" + brokerUpdate.getBroker() + "' is not globally supported.");
@@ -209,13 +234,12 @@ public class ConsumerService implements IConsumerService {
         consumer.setHeaders(brokerUpdate.getHeaders() != null ? gson.toJson(brokerUpdate.getHeaders()) : null);
 
         Consumer savedConsumer = consumerRepository.save(consumer);
+        cacheInvalidation.invalidateConsumer(consumerId);
 
         // Reconecta com as novas configurações (a conexão SSE é mantida)
         Broker newBrokerConfig = buildBrokerConfig(consumer);
         getConsumerMessagingAdapter(newBrokerConfig.getName())
-                .connectAndListen(savedConsumer, receivedMessage -> { // Passa o savedConsumer para o callback
-                    handleBrokerMessage(receivedMessage, emitterRepository.get(consumerId).orElse(null));
-                });
+                .connectAndListen(savedConsumer, receivedMessage -> handleBrokerMessage(savedConsumer, receivedMessage)); // Passa o savedConsumer para o callback
 
         // Publica evento de atualização (reconexão)
         publishConsumerConnectionEvent(consumerId, consumer.getProjectId(), "CONNECTED", "Consumer " + consumerId + " reconnected (broker updated).");
@@ -225,7 +249,7 @@ public class ConsumerService implements IConsumerService {
 
     @Override
     public ConsumerDto setStrategy(String consumerId, StrategyUpdate strategyUpdate, String projectAuthToken) {
-        Consumer consumer = findAndValidateConsumer(consumerId, projectAuthToken);
+        Consumer consumer = findAndValidateConsumerForUpdate(consumerId, projectAuthToken);
         validateBrokerStrategy(consumer.getBroker(), strategyUpdate.getStrategy());
 
         getConsumerMessagingAdapter(consumer.getBroker()).close(consumer.getId()); // Desconecta do broker antigo
@@ -237,12 +261,11 @@ public class ConsumerService implements IConsumerService {
         consumer.setHeaders(strategyUpdate.getHeaders() != null ? gson.toJson(strategyUpdate.getHeaders()) : null);
 
         Consumer savedConsumer = consumerRepository.save(consumer);
+        cacheInvalidation.invalidateConsumer(consumerId);
 
         Broker newBrokerConfig = buildBrokerConfig(consumer);
         getConsumerMessagingAdapter(newBrokerConfig.getName())
-                .connectAndListen(savedConsumer, receivedMessage -> {
-                    handleBrokerMessage(receivedMessage, emitterRepository.get(consumerId).orElse(null));
-                });
+                .connectAndListen(savedConsumer, receivedMessage -> handleBrokerMessage(savedConsumer, receivedMessage));
 
         publishConsumerConnectionEvent(consumerId, consumer.getProjectId(), "CONNECTED", "Consumer " + consumerId + " reconnected (strategy updated).");
 
@@ -251,7 +274,7 @@ public class ConsumerService implements IConsumerService {
 
     @Override
     public ConsumerDto setQueue(String consumerId, QueueUpdate queueUpdate, String projectAuthToken) {
-        Consumer consumer = findAndValidateConsumer(consumerId, projectAuthToken);
+        Consumer consumer = findAndValidateConsumerForUpdate(consumerId, projectAuthToken);
 
         getConsumerMessagingAdapter(consumer.getBroker()).close(consumer.getId()); // Desconecta do broker antigo
 
@@ -261,12 +284,11 @@ public class ConsumerService implements IConsumerService {
         consumer.setHeaders(queueUpdate.getHeaders() != null ? gson.toJson(queueUpdate.getHeaders()) : null);
 
         Consumer savedConsumer = consumerRepository.save(consumer);
+        cacheInvalidation.invalidateConsumer(consumerId);
 
         Broker newBrokerConfig = buildBrokerConfig(consumer);
         getConsumerMessagingAdapter(newBrokerConfig.getName())
-                .connectAndListen(savedConsumer, receivedMessage -> {
-                    handleBrokerMessage(receivedMessage, emitterRepository.get(consumerId).orElse(null));
-                });
+                .connectAndListen(savedConsumer, receivedMessage -> handleBrokerMessage(savedConsumer, receivedMessage));
 
         publishConsumerConnectionEvent(consumerId, consumer.getProjectId(), "CONNECTED", "Consumer " + consumerId + " reconnected (queue updated).");
 
@@ -275,32 +297,80 @@ public class ConsumerService implements IConsumerService {
 
     @Override
     public ConsumerDto setPersistenceTime(String consumerId, PersistenceUpdate persistenceUpdate, String projectAuthToken) {
-        Consumer consumer = findAndValidateConsumer(consumerId, projectAuthToken);
+        Consumer consumer = findAndValidateConsumerForUpdate(consumerId, projectAuthToken);
         consumer.setPersistenceTime(persistenceUpdate.getPersistenceTime());
         Consumer savedConsumer = consumerRepository.save(consumer);
+        cacheInvalidation.invalidateConsumer(consumerId);
         // Não há necessidade de reconectar ou publicar evento de conexão para mudança de persistenceTime
         return ConsumerDto.fromModel(savedConsumer);
     }
 
+    @Override
+    public ConsumerDto setDelivery(String consumerId, DeliveryUpdate deliveryUpdate, String projectAuthToken) {
+        Consumer consumer = findAndValidateConsumerForUpdate(consumerId, projectAuthToken);
+        consumer.setManualAck(deliveryUpdate.getManualAck());
+        consumer.setPrefetchCount(deliveryUpdate.getPrefetchCount());
+        consumer.setSseQueueCapacity(deliveryUpdate.getSseQueueCapacity());
+        consumer.setSseOverflowPolicy(deliveryUpdate.getSseOverflowPolicy());
+
+        Consumer savedConsumer = consumerRepository.save(consumer);
+        cacheInvalidation.invalidateConsumer(consumerId);
+
+        // Ack mode e prefetch valem a partir da próxima assinatura no broker: reinscreve só se houver conexão SSE ativa.
+        // Capacidade e política da fila SSE valem a partir da próxima conexão do cliente.
+        if (emitterRepository.get(consumerId).isPresent()) {
+            IConsumerMessaging adapter = getConsumerMessagingAdapter(savedConsumer.getBroker());
+            adapter.close(consumerId);
+            adapter.connectAndListen(savedConsumer, receivedMessage -> handleBrokerMessage(savedConsumer, receivedMessage));
+            publishConsumerConnectionEvent(consumerId, consumer.getProjectId(), "CONNECTED", "Consumer " + consumerId + " reconnected (delivery settings updated).");
+        }
+        return ConsumerDto.fromModel(savedConsumer);
+    }
+
+    @Override
+    public DeliveryStatus getDeliveryStatus(String consumerId, String projectAuthToken) {
+        Consumer consumer = findAndValidateConsumer(consumerId, projectAuthToken);
+        return emitterRepository.get(consumerId)
+                .map(deliveryQueue -> new DeliveryStatus(consumerId, true, deliveryQueue.getOverflowPolicy().toApiValue(),
+                        deliveryQueue.getCapacity(), deliveryQueue.getDepth(), deliveryQueue.getDelivered(), deliveryQueue.getDropped(),
+                        deliveryQueue.getBatchSize(), deliveryQueue.getLingerMs()))
+                .orElseGet(() -> new DeliveryStatus(consumerId, false, consumer.getSseOverflowPolicy(), consumer.getSseQueueCapacity(), 0, 0L, 0L, null, null));
+    }
+
     // --- Métodos Auxiliares ---
+    // Leitura via cache (caminho quente: send, mensagens, conexão)
     private Consumer findAndValidateConsumer(String consumerId, String projectAuthToken) {
+        Consumer consumer = consumerCache.get(consumerId, consumerRepository::findById)
+                .orElseThrow(() -> new ConsumerNotFoundException("Consumer with ID '" + consumerId + "' not found."));
+        validateProjectAccess(consumer, projectAuthToken);
+        return consumer;
+    }
+
+    // Leitura direta do banco para alterações: a instância em cache é compartilhada entre threads e não deve ser modificada
+    private Consumer findAndValidateConsumerForUpdate(String consumerId, String projectAuthToken) {
         Consumer consumer = consumerRepository.findById(consumerId)
                 .orElseThrow(() -> new ConsumerNotFoundException("Consumer with ID '" + consumerId + "' not found."));
+        validateProjectAccess(consumer, projectAuthToken);
+        return consumer;
+    }
 
+    private void validateProjectAccess(Consumer consumer, String projectAuthToken) {
         String projectIdFromToken = jwtUtil.extractAllClaims(projectAuthToken.replace("Bearer ", "")).get("projectId", String.class);
         if (projectIdFromToken == null || !consumer.getProjectId().equals(projectIdFromToken)) {
             throw new InvalidCredentialsException("Unauthorized access to consumer or invalid project token.");
         }
-        return consumer;
     }
 
     private IConsumerMessaging getConsumerMessagingAdapter(String brokerName) {
         switch (brokerName.toLowerCase()) {
             case "rabbitmq":
                 return rabbitMQConsumer;
-            // TODO: Adicionar outros brokers quando implementados
-            // case "kafka":
-            //     return kafkaConsumer;
+            case "kafka":
+                return kafkaConsumer;
+            case "activemq5":
+                return activeMQ5Consumer;
+            case "inmemory":
+                return inMemoryConsumer;
             default:
                 throw new BrokerNotSupportedException("Broker '" + brokerName + "' not supported by this service instance.");
         }
@@ -317,27 +387,40 @@ public class ConsumerService implements IConsumerService {
         return broker;
     }
 
-    private void handleBrokerMessage(Message receivedMessage, SseEmitter emitter) {
-        try {
-            if (receivedMessage.getExpireAt() != null) {
-                messageRepository.save(receivedMessage);
-            }
-
-            if (emitter != null) {
-                emitter.send(SseEmitter.event()
-                        .id(receivedMessage.getMessageId())
-                        .name("message")
-                        .data(MessageDto.fromModel(receivedMessage)));
-                System.out.println("Message " + receivedMessage.getMessageId() + " sent via SSE to consumer " + receivedMessage.getConsumerId());
-            } else {
-                System.out.println("SSE Emitter for consumer " + receivedMessage.getConsumerId() + " is null or closed. Message not sent via SSE.");
-            }
-        } catch (IOException e) {
-            System.err.println("Error sending message via SSE for consumer " + receivedMessage.getConsumerId() + ": " + e.getMessage());
-            emitterRepository.remove(receivedMessage.getConsumerId());
-        } catch (Exception e) {
-            System.err.println("Error handling received broker message for consumer " + receivedMessage.getConsumerId() + ": " + e.getMessage());
+    // Agenda a persistência da mensagem (se houver persistenceTime) e a enfileira para o SSE do consumidor. O future
+    // conclui quando a mensagem foi gravada ou escrita no SSE, e falha se nenhuma das duas aconteceu, para que
+    // adaptadores com ack manual a devolvam ao broker.
+    private CompletableFuture<Void> handleBrokerMessage(Consumer consumer, Message receivedMessage) {
+        // Gravação em lote fora da thread do listener (write-behind)
+        CompletableFuture<Void> stored = receivedMessage.getExpireAt() != null ? messageWriteBehind.append(receivedMessage) : null;
+
+        SseDeliveryQueue deliveryQueue = emitterRepository.get(consumer.getId()).orElse(null);
+        CompletableFuture<Void> sent;
+        if (deliveryQueue != null) {
+            sent = deliveryQueue.enqueue(receivedMessage);
+        } else {
+            System.out.println("SSE Emitter for consumer " + receivedMessage.getConsumerId() + " is null or closed. Message not sent via SSE.");
+            sent = CompletableFuture.failedFuture(new MessageDeliveryException("Consumer " + consumer.getId() + " has no SSE connection."));
         }
+
+        // Basta uma das duas: gravada no banco (o SSE segue em segundo plano) ou escrita no SSE
+        CompletableFuture<Void> delivered = stored != null ? stored.exceptionallyCompose(e -> {
+            System.err.println("Error persisting message " + receivedMessage.getMessageId() + " for consumer " + receivedMessage.getConsumerId() + ": " + e.getMessage());
+            return sent;
+        }) : sent;
+        return delivered.exceptionallyCompose(e -> undelivered(consumer, receivedMessage, deliveryQueue));
+    }
+
+    private CompletableFuture<Void> undelivered(Consumer consumer, Message receivedMessage, SseDeliveryQueue deliveryQueue) {
+        boolean clientGone = deliveryQueue == null || deliveryQueue.isClosed();
+        boolean redelivered = "kafka".equalsIgnoreCase(consumer.getBroker())
+                || (Boolean.TRUE.equals(consumer.getManualAck()) && "rabbitmq".equalsIgnoreCase(consumer.getBroker()));
+        if (clientGone && redelivered) {
+            // Cliente fora do ar: para de consumir, senão a mensagem devolvida voltaria em loop para esta assinatura.
+            // As mensagens ficam na fila (no Kafka, a partir do último offset confirmado) até o consumidor se conectar de novo.
+            getConsumerMessagingAdapter(consumer.getBroker()).close(consumer.getId());
+        }
+        return CompletableFuture.failedFuture(new MessageDeliveryException("Message " + receivedMessage.getMessageId() + " was neither delivered via SSE nor persisted for consumer " + receivedMessage.getConsumerId() + "."));
     }
 
     // --- NOVO MÉTODO AUXILIAR PARA PUBLICAR EVENTOS DE CONEXÃO ---
@@ -370,6 +453,11 @@ public class ConsumerService implements IConsumerService {
                     throw new BrokerStrategyIncompatibleException("RabbitMQ does not support strategy: " + strategy);
                 }
                 break;
+            case "inmemory": // Emula a mesma semântica de roteamento do RabbitMQ
+                if (!Set.of("direct", "topic", "fanout", "headers").contains(strategy.toLowerCase())) {
+                    throw new BrokerStrategyIncompatibleException("In-memory broker does not support strategy: " + strategy);
+                }
+                break;
             case "kafka":
                 if (!Set.of("topic").contains(strategy.toLowerCase())) {
                     throw new BrokerStrategyIncompatibleException("Kafka only supports 'topic' strategy.");
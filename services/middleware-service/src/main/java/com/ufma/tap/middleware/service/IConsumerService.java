@@ -8,6 +8,8 @@ import com.ufma.tap.middleware.dto.StrategyUpdate;
 import com.ufma.tap.middleware.dto.QueueUpdate;
 import com.ufma.tap.middleware.dto.BrokerUpdate;
 import com.ufma.tap.middleware.dto.PersistenceUpdate;
+import com.ufma.tap.middleware.dto.DeliveryUpdate;
+import com.ufma.tap.middleware.dto.DeliveryStatus;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
@@ -16,7 +18,7 @@ public interface IConsumerService {
     ConsumerDto registerConsumer(Consumer consumer, String projectAuthToken);
     ConsumerDto getConsumer(String consumerId, String projectAuthToken);
     void deleteConsumer(String consumerId, String projectAuthToken);
-    SseEmitter connectConsumer(String consumerId, String projectAuthToken); // Retorna SseEmitter para conexão de streaming
+    SseEmitter connectConsumer(String consumerId, String projectAuthToken, Integer batchSize, Long lingerMs); // Retorna SseEmitter para conexão de streaming
     void disconnectConsumer(String consumerId, String projectAuthToken);
     List<MessageDto> getMessages(String consumerId, String projectAuthToken); // Obter mensagens persistidas
     MessageDto getMessage(String messageId, String consumerId, String projectAuthToken);
@@ -27,4 +29,6 @@ public interface IConsumerService {
     ConsumerDto setStrategy(String consumerId, StrategyUpdate strategyUpdate, String projectAuthToken);
     ConsumerDto setQueue(String consumerId, QueueUpdate queueUpdate, String projectAuthToken);
     ConsumerDto setPersistenceTime(String consumerId, PersistenceUpdate persistenceUpdate, String projectAuthToken);
+    ConsumerDto setDelivery(String consumerId, DeliveryUpdate deliveryUpdate, String projectAuthToken); // Ack manual, prefetch e fila SSE
+    DeliveryStatus getDeliveryStatus(String consumerId, String projectAuthToken); // Profundidade da fila SSE e descartes
 }
\ No newline at end of file
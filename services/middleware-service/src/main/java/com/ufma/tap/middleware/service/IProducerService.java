@@ -7,17 +7,37 @@ import com.ufma.tap.middleware.dto.ProducerDto; // DTO para update
 import com.ufma.tap.middleware.dto.StrategyUpdate; // DTO de atualização
 import com.ufma.tap.middleware.dto.QueueUpdate; // DTO de atualização
 import com.ufma.tap.middleware.dto.BrokerUpdate; // DTO de atualização
+import com.ufma.tap.middleware.dto.MessageSendResult;
+import com.ufma.tap.middleware.dto.StreamSendSummary;
+import com.ufma.tap.middleware.dto.AsyncSendStatus;
+import com.ufma.tap.middleware.dto.RateLimitStatus;
+import com.ufma.tap.middleware.dto.RateLimitUpdate;
+
+import java.io.InputStream;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public interface IProducerService {
     ProducerDto registerProducer(Producer producer, String projectAuthToken); // Retorna DTO para não expor senha
     ProducerDto getProducer(String producerId, String projectAuthToken);
     void deleteProducer(String producerId, String projectAuthToken);
     void connectProducer(String producerId, String projectAuthToken); // Conectar o produtor ao broker (pode ser implícita no send)
-    void send(String producerId, MessageReceived messageReceived, String projectAuthToken);
+    CompletableFuture<Void> send(String producerId, MessageReceived messageReceived, String projectAuthToken); // Concluído quando o broker confirmar
+    CompletableFuture<AsyncSendStatus> sendRespondAsync(String producerId, MessageReceived messageReceived, String projectAuthToken); // 'pending' se aceita no outbox, 'published' se enviada na hora
+    AsyncSendStatus getAsyncSendStatus(String producerId, String messageId, String projectAuthToken);
+    Date authorizeProducer(String producerId, String projectAuthToken); // Valida o token uma vez (ex.: abertura de sessão WebSocket); retorna a expiração dele (null se não expira)
+    CompletableFuture<String> sendAuthorized(String producerId, MessageReceived messageReceived); // Envio sem revalidar o token; conclui com o messageId
+    CompletableFuture<Void> sendBinary(String producerId, byte[] payload, String contentType, Map<String, Object> headers, String projectAuthToken); // Corpo bruto, sem envelope JSON
+    StreamSendSummary sendStream(String producerId, InputStream ndjsonBody, String projectAuthToken); // NDJSON lido e publicado de forma incremental
+    List<MessageSendResult> sendBatch(String producerId, List<MessageReceived> messagesReceived, String projectAuthToken); // Autentica uma vez e publica o lote
     void disconnectProducer(String producerId, String projectAuthToken); // Desconectar o produtor do broker
 
     // Métodos para atualização de campos específicos
     ProducerDto setBroker(String producerId, BrokerUpdate brokerUpdate, String projectAuthToken);
     ProducerDto setStrategy(String producerId, StrategyUpdate strategyUpdate, String projectAuthToken);
     ProducerDto setQueue(String producerId, QueueUpdate queueUpdate, String projectAuthToken);
+    ProducerDto setRateLimit(String producerId, RateLimitUpdate rateLimitUpdate, String projectAuthToken);
+    RateLimitStatus getRateLimitStatus(String producerId, String projectAuthToken); // Estado atual dos token buckets (monitoramento)
 }
\ No newline at end of file
@@ -3,35 +3,72 @@ package com.ufma.tap.middleware.service;
 
 import com.google.gson.Gson;
 import com.ufma.tap.middleware.auth.BasicAuthUtil;
+import com.ufma.tap.middleware.cache.CacheInvalidationBroadcaster;
+import com.ufma.tap.middleware.cache.EntityCache;
+import com.ufma.tap.middleware.cache.IdempotencyWindow;
 import com.ufma.tap.middleware.model.Producer;
+import com.ufma.tap.middleware.model.DelayedMessage;
+import com.ufma.tap.middleware.model.OutboxMessage;
 import com.ufma.tap.middleware.model.Broker;
 import com.ufma.tap.middleware.model.MessageToSend;
 import com.ufma.tap.middleware.repository.ProducerRepository;
 import com.ufma.tap.middleware.security.JWTUtil;
 import com.ufma.tap.middleware.messagebroker.IProducerMessaging;
+import com.ufma.tap.middleware.messagebroker.SendPlan;
+import com.ufma.tap.middleware.ratelimit.RateLimiter;
+import com.ufma.tap.middleware.outbox.AsyncSendOutbox;
+import com.ufma.tap.middleware.outbox.OutboxRelay;
+import com.ufma.tap.middleware.outbox.TransactionalOutbox;
+import com.ufma.tap.middleware.messagebroker.rabbitmq.RabbitMQTopologyRegistry;
+import com.ufma.tap.middleware.scheduler.DelayedDeliveryScheduler;
 import com.ufma.tap.middleware.dto.MessageReceived;
 import com.ufma.tap.middleware.dto.ProducerDto;
 import com.ufma.tap.middleware.dto.StrategyUpdate;
 import com.ufma.tap.middleware.dto.QueueUpdate;
 import com.ufma.tap.middleware.dto.BrokerUpdate;
+import com.ufma.tap.middleware.dto.MessageSendResult;
+import com.ufma.tap.middleware.dto.StreamSendSummary;
+import com.ufma.tap.middleware.dto.AsyncSendStatus;
+import com.ufma.tap.middleware.dto.RateLimitStatus;
+import com.ufma.tap.middleware.dto.RateLimitUpdate;
 import com.ufma.tap.middleware.exception.InvalidCredentialsException;
 import com.ufma.tap.middleware.exception.ProducerNotFoundException;
 import com.ufma.tap.middleware.exception.UserConflictException;
 import com.ufma.tap.middleware.exception.BrokerNotSupportedException;
 import com.ufma.tap.middleware.exception.BrokerStrategyIncompatibleException;
-import org.springframework.amqp.core.AmqpAdmin; // Import para AmqpAdmin
-import org.springframework.amqp.core.DirectExchange; // Import para DirectExchange
-import org.springframework.amqp.core.BindingBuilder; // Import para BindingBuilder
-import org.springframework.amqp.core.Queue; // Import para Queue
-import org.springframework.amqp.core.Binding; // Import para Binding
+import com.ufma.tap.middleware.exception.MessageSendException;
+import com.ufma.tap.middleware.exception.MessageNotFoundException;
+import com.ufma.tap.middleware.exception.RateLimitExceededException;
+import jakarta.annotation.PostConstruct;
 import org.springframework.amqp.core.AmqpTemplate; // Import para AmqpTemplate (se usar diretamente no send)
 
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.Set;
 import java.util.UUID;
 
@@ -44,6 +81,12 @@ public class ProducerService implements IProducerService {
     @Autowired
     private JWTUtil jwtUtil;
 
+    @Autowired
+    private EntityCache<Producer> producerCache;
+
+    @Autowired
+    private CacheInvalidationBroadcaster cacheInvalidation; // Invalida o cache local e das demais réplicas
+
     @Autowired
     private BasicAuthUtil basicAuthUtil;
 
@@ -51,13 +94,43 @@ public class ProducerService implements IProducerService {
     private AmqpTemplate rabbitTemplate; // Para enviar para o InterSCity Adapter
 
     @Autowired
-    private AmqpAdmin amqpAdmin; // Para declarar filas/exchanges para o InterSCity Adapter
+    private RabbitMQTopologyRegistry topologyRegistry; // Para declarar filas/exchanges para o InterSCity Adapter
 
     // Injetando as implementações específicas de produtores
+    @Autowired
+    private DelayedDeliveryScheduler delayedDeliveryScheduler; // Envios com timeToWait
+
+    @Autowired
+    private IdempotencyWindow idempotencyWindow; // Deduplicação por chave de idempotência
+
+    @Autowired
+    private RateLimiter rateLimiter; // Token buckets por produtor e por projeto
+
+    @Autowired
+    private AsyncSendOutbox asyncSendOutbox; // Envio assíncrono (Prefer: respond-async)
+
+    @Autowired
+    private TransactionalOutbox transactionalOutbox; // Entrega garantida: gravação no outbox (Postgres)
+
+    @Autowired
+    private OutboxRelay outboxRelay; // Publica o que foi gravado no outbox
+
     @Autowired
     @Qualifier("rabbitMQProducer")
     private IProducerMessaging rabbitMQProducer;
 
+    @Autowired
+    @Qualifier("kafkaProducer")
+    private IProducerMessaging kafkaProducer;
+
+    @Autowired
+    @Qualifier("activeMQ5Producer")
+    private IProducerMessaging activeMQ5Producer;
+
+    @Autowired
+    @Qualifier("inMemoryProducer")
+    private IProducerMessaging inMemoryProducer; // Broker "inmemory": filas dentro da própria réplica
+
     // Constantes para o InterSCity Adapter (devem ser as mesmas do interscity-adapter-service/config/RabbitMQConfig.java)
     private static final String INTERSCITY_ADAPTER_QUEUE = "interscity.adapter.queue";
     private static final String INTERSCITY_ADAPTER_EXCHANGE = "interscity.adapter.exchange";
@@ -65,9 +138,27 @@ public class ProducerService implements IProducerService {
     private static final String INTERSCITY_ADAPTER_STRATEGY_NAME = "interscity-adapter-strategy";
 
 
-    private final Set<String> GLOBAL_SUPPORTED_BROKERS = Set.of("rabbitmq", "kafka", "activemq5", "interscity-adapter"); // Adicionado "interscity-adapter"
+    private final Set<String> GLOBAL_SUPPORTED_BROKERS = Set.of("rabbitmq", "kafka", "activemq5", "inmemory", "interscity-adapter"); // Adicionado "interscity-adapter"
+    private static final Set<String> RABBITMQ_STRATEGIES = Set.of("direct", "topic", "fanout", "headers");
+    private static final Set<String> KAFKA_STRATEGIES = Set.of("topic");
+    private static final Set<String> ACTIVEMQ5_STRATEGIES = Set.of("direct", "topic");
+    // Brokers cujo adaptador publica o corpo binário sem conversão (o Kafka está configurado com serializador de String)
+    private static final Set<String> BINARY_PAYLOAD_BROKERS = Set.of("rabbitmq", "activemq5", "inmemory");
     private final Gson gson = new Gson();
 
+    @Value("${middleware.stream.max-in-flight:256}")
+    private int streamMaxInFlight; // Publicações não confirmadas por requisição NDJSON
+
+    // producerId -> plano de envio pré-compilado (recompilado quando o updatedAt do produtor muda)
+    private final Map<String, SendPlan> sendPlans = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void registerDelayedDispatcher() {
+        delayedDeliveryScheduler.setDispatcher(this::sendDelayedMessage);
+        asyncSendOutbox.setDispatcher(this::dispatchAsyncSend);
+        outboxRelay.setDispatcher(this::dispatchOutboxBatch);
+    }
+
     @Override
     public ProducerDto registerProducer(Producer producer, String projectAuthToken) {
         String projectId = jwtUtil.extractAllClaims(projectAuthToken.replace("Bearer ", "")).get("projectId", String.class);
@@ -100,8 +191,11 @@ public class ProducerService implements IProducerService {
 
     @Override
     public void deleteProducer(String producerId, String projectAuthToken) {
-        Producer producer = findAndValidateProducer(producerId, projectAuthToken);
+        Producer producer = findAndValidateProducerForUpdate(producerId, projectAuthToken);
         producerRepository.delete(producer);
+        sendPlans.remove(producerId);
+        rateLimiter.removeProducer(producerId);
+        cacheInvalidation.invalidateProducer(producerId);
     }
 
     @Override
@@ -123,20 +217,136 @@ public class ProducerService implements IProducerService {
     }
 
     @Override
-    public void send(String producerId, MessageReceived messageReceived, String projectAuthToken) {
+    public CompletableFuture<Void> send(String producerId, MessageReceived messageReceived, String projectAuthToken) {
         Producer producer = findAndValidateProducer(producerId, projectAuthToken);
+        return sendForProducer(producer, messageReceived, UUID.randomUUID().toString()).thenAccept(ignored -> { });
+    }
 
-        // Prepara a MessageToSend com um novo MessageId
-        MessageToSend messageToSend = new MessageToSend(UUID.randomUUID().toString(), messageReceived.getData(), messageReceived.getHeaders());
+    @Override
+    public CompletableFuture<AsyncSendStatus> sendRespondAsync(String producerId, MessageReceived messageReceived, String projectAuthToken) {
+        Producer producer = findAndValidateProducer(producerId, projectAuthToken);
+        // Limite de envio verificado agora, para que o 429 chegue ao cliente em vez de virar uma falha posterior
+        rateLimiter.acquire(producer);
+        String messageId = UUID.randomUUID().toString();
+        if (asyncSendOutbox.offer(producer, messageReceived, messageId)) {
+            return CompletableFuture.completedFuture(new AsyncSendStatus(messageId, AsyncSendStatus.PENDING, null));
+        }
+        // Outbox cheio: o próprio cliente absorve a espera (envio síncrono), em vez de a mensagem ser recusada
+        return sendForProducer(producer, messageReceived, messageId, false)
+                .thenApply(effectiveMessageId -> new AsyncSendStatus(effectiveMessageId, AsyncSendStatus.PUBLISHED, null));
+    }
+
+    @Override
+    public AsyncSendStatus getAsyncSendStatus(String producerId, String messageId, String projectAuthToken) {
+        findAndValidateProducer(producerId, projectAuthToken);
+        AsyncSendStatus status = asyncSendOutbox.getStatus(producerId, messageId);
+        if (status == null) {
+            throw new MessageNotFoundException("No async send status for message '" + messageId + "' (unknown or expired).");
+        }
+        return status;
+    }
+
+    // Chamado pelos workers do outbox assíncrono (token e limite de envio já verificados ao aceitar a mensagem)
+    private CompletableFuture<?> dispatchAsyncSend(AsyncSendOutbox.Entry entry) {
+        return sendForProducer(entry.getProducer(), entry.getMessageReceived(), entry.getMessageId(), false);
+    }
+
+    @Override
+    public Date authorizeProducer(String producerId, String projectAuthToken) {
+        findAndValidateProducer(producerId, projectAuthToken);
+        return jwtUtil.extractExpiration(projectAuthToken.replace("Bearer ", "")); // Já verificado acima: vem do cache de tokens
+    }
+
+    @Override
+    public CompletableFuture<String> sendAuthorized(String producerId, MessageReceived messageReceived) {
+        // Sem JWT: o acesso foi validado em authorizeProducer. O produtor vem do cache a cada mensagem
+        // para que alterações de broker/estratégia (e a remoção do produtor) valham também para sessões abertas.
+        Producer producer = producerCache.get(producerId, producerRepository::findById)
+                .orElseThrow(() -> new ProducerNotFoundException("Producer with ID '" + producerId + "' not found."));
+        return sendForProducer(producer, messageReceived, UUID.randomUUID().toString());
+    }
+
+    // Envio de uma mensagem de um produtor já autenticado (usado pelo send, pela ingestão NDJSON e pelo WebSocket).
+    // Com chave de idempotência, um reenvio dentro da janela não é publicado de novo: conclui com o messageId original
+    // (null se ele já não é conhecido) quando o original for confirmado. Conclui com o messageId efetivo.
+    private CompletableFuture<String> sendForProducer(Producer producer, MessageReceived messageReceived, String messageId) {
+        return sendForProducer(producer, messageReceived, messageId, true);
+    }
+
+    // acquireRateLimit = false quando o token já foi consumido ao aceitar a mensagem (envio assíncrono)
+    private CompletableFuture<String> sendForProducer(Producer producer, MessageReceived messageReceived, String messageId, boolean acquireRateLimit) {
+        String idempotencyKey = messageReceived.getIdempotencyKey();
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return publishForProducer(producer, messageReceived, messageId, acquireRateLimit).thenApply(ignored -> messageId);
+        }
+
+        String producerId = producer.getId();
+        IdempotencyWindow.Claim claim = idempotencyWindow.claim(producerId, idempotencyKey, messageId);
+        if (claim.isDuplicate()) {
+            return followOriginal(producer, messageReceived, messageId, acquireRateLimit, claim);
+        }
+        CompletableFuture<Void> future;
+        try {
+            future = publishForProducer(producer, messageReceived, messageId, acquireRateLimit);
+        } catch (RuntimeException e) {
+            idempotencyWindow.release(claim);
+            throw e;
+        }
+        return future.handle((ignored, ex) -> {
+            if (ex != null) {
+                idempotencyWindow.release(claim);
+                throw ex instanceof CompletionException ? (CompletionException) ex : new CompletionException(ex);
+            }
+            idempotencyWindow.confirm(claim);
+            return messageId;
+        });
+    }
+
+    // Reenvio de uma chave já reservada: só conclui com sucesso quando o original for confirmado. Se o original falhar
+    // a chave já foi liberada, então o reenvio tenta reservá-la de novo e publica (ou passa a acompanhar outro reenvio
+    // que reservou antes). Assíncrono porque a falha chega na thread de callback do broker, que não deve publicar.
+    private CompletableFuture<String> followOriginal(Producer producer, MessageReceived messageReceived, String messageId,
+                                                     boolean acquireRateLimit, IdempotencyWindow.Claim claim) {
+        return claim.getOriginal()
+                .handleAsync((originalMessageId, ex) -> ex == null
+                        ? CompletableFuture.completedFuture(originalMessageId)
+                        : sendForProducer(producer, messageReceived, messageId, acquireRateLimit))
+                .thenCompose(Function.identity());
+    }
+
+    private CompletableFuture<Void> publishForProducer(Producer producer, MessageReceived messageReceived, String messageId, boolean acquireRateLimit) {
+        String producerId = producer.getId();
+        if (acquireRateLimit) {
+            rateLimiter.acquire(producer); // RateLimitExceededException (429) antes de qualquer trabalho com o broker
+        }
+
+        // Prepara a MessageToSend com o MessageId informado
+        MessageToSend messageToSend = new MessageToSend(messageId, messageReceived.getData(), messageReceived.getHeaders());
+
+        // Envio com atraso: a mensagem é agendada e sai pelo mesmo adaptador quando vencer
+        if (messageReceived.getTimeToWait() != null && messageReceived.getTimeToWait() > 0) {
+            Broker brokerConfig = buildSendBrokerConfig(producer, messageReceived);
+            validateBrokerStrategy(brokerConfig.getName(), brokerConfig.getStrategy());
+            scheduleDelayedMessage(producerId, messageToSend, brokerConfig, messageReceived.getTimeToWait());
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // Entrega garantida: conclui quando a mensagem estiver gravada no outbox; o relay publica depois
+        if (Boolean.TRUE.equals(messageReceived.getGuaranteedDelivery())) {
+            Broker brokerConfig = buildSendBrokerConfig(producer, messageReceived);
+            validateBrokerStrategy(brokerConfig.getName(), brokerConfig.getStrategy());
+            return transactionalOutbox.append(buildOutboxMessage(producerId, messageToSend, brokerConfig));
+        }
+
+        // Caminho rápido: sem sobrescritas na mensagem, usa o plano pré-compilado do produtor
+        // (sem montar Broker, sem reparsear headers e sem revalidar a estratégia a cada envio)
+        if (!hasRoutingOverrides(messageReceived) && !INTERSCITY_ADAPTER_STRATEGY_NAME.equals(producer.getStrategy())) {
+            SendPlan plan = getSendPlan(producer);
+            return getProducerMessagingAdapter(plan.getBrokerName()).sendAsync(messageToSend, plan);
+        }
 
         // Constrói a configuração do broker para o envio
-        Broker brokerConfig = new Broker();
-        brokerConfig.setName(producer.getBroker());
-        brokerConfig.setStrategy(Optional.ofNullable(messageReceived.getStrategy()).orElse(producer.getStrategy()));
-        brokerConfig.setExchange(Optional.ofNullable(messageReceived.getExchange()).orElse(producer.getExchange()));
-        brokerConfig.setQueue(Optional.ofNullable(messageReceived.getQueue()).orElse(producer.getQueue()));
-        brokerConfig.setRoutingKey(Optional.ofNullable(messageReceived.getRoutingKey()).orElse(producer.getRoutingKey()));
-        brokerConfig.setHeaders(messageReceived.getHeaders() != null ? gson.toJson(messageReceived.getHeaders()) : producer.getHeaders());
+        Broker brokerConfig = buildSendBrokerConfig(producer, messageReceived);
 
         // Verifica a compatibilidade da estratégia com o broker selecionado
         validateBrokerStrategy(brokerConfig.getName(), brokerConfig.getStrategy());
@@ -144,25 +354,239 @@ public class ProducerService implements IProducerService {
         // --- Lógica para rotear para o InterSCity Adapter ou para o broker padrão ---
         if (INTERSCITY_ADAPTER_STRATEGY_NAME.equals(brokerConfig.getStrategy())) {
             // Se a mensagem for destinada ao InterSCity Adapter
-            System.out.println("🚀 [INTERSCITY] Iniciando envio para InterSCity Adapter...");
-            System.out.println("📋 [INTERSCITY] Producer ID: " + producerId);
-            System.out.println("📋 [INTERSCITY] Message ID: " + messageToSend.getMessageId());
-            System.out.println("📋 [INTERSCITY] Data: " + messageToSend.getData());
-            System.out.println("📋 [INTERSCITY] Headers: " + messageToSend.getCustomHeaders());
-            
-            declareInterscityAdapterQueueAndExchange(); // Garante que a infra RabbitMQ está pronta
-            String messageJson = gson.toJson(messageToSend); // Serializa MessageToSend completo
-            
-            System.out.println("📤 [INTERSCITY] Enviando para RabbitMQ - Exchange: " + INTERSCITY_ADAPTER_EXCHANGE);
-            System.out.println("📤 [INTERSCITY] Routing Key: " + INTERSCITY_ADAPTER_ROUTING_KEY);
-            System.out.println("📤 [INTERSCITY] Payload JSON: " + messageJson);
-            
-            rabbitTemplate.convertAndSend(INTERSCITY_ADAPTER_EXCHANGE, INTERSCITY_ADAPTER_ROUTING_KEY, messageJson);
-            System.out.println("✅ [INTERSCITY] Mensagem enviada com sucesso para InterSCity Adapter via RabbitMQ: " + messageToSend.getMessageId());
-        } else {
-            // Envia a mensagem usando o adaptador apropriado para o broker padrão (ex: RabbitMQ, Kafka)
-            getProducerMessagingAdapter(brokerConfig.getName()).send(messageToSend, brokerConfig);
+            sendToInterscityAdapter(producerId, messageToSend);
+            return CompletableFuture.completedFuture(null);
+        }
+        // Envia a mensagem usando o adaptador apropriado para o broker padrão (ex: RabbitMQ, Kafka).
+        // O future é concluído quando o broker confirmar a mensagem.
+        return sendWithAdHocPlan(producerId, messageToSend, brokerConfig);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendBinary(String producerId, byte[] payload, String contentType, Map<String, Object> headers, String projectAuthToken) {
+        Producer producer = findAndValidateProducer(producerId, projectAuthToken);
+        if (!BINARY_PAYLOAD_BROKERS.contains(producer.getBroker().toLowerCase())) {
+            throw new BrokerNotSupportedException("Broker '" + producer.getBroker() + "' does not support raw binary payloads.");
+        }
+
+        rateLimiter.acquire(producer);
+
+        // O array recebido na requisição é o mesmo publicado no broker (sem Base64, sem String intermediária)
+        MessageToSend messageToSend = new MessageToSend(UUID.randomUUID().toString(), null, headers.isEmpty() ? null : headers);
+        messageToSend.setPayload(payload);
+        messageToSend.setContentType(contentType);
+
+        SendPlan plan = getSendPlan(producer);
+        return getProducerMessagingAdapter(plan.getBrokerName()).sendAsync(messageToSend, plan);
+    }
+
+    @Override
+    public StreamSendSummary sendStream(String producerId, InputStream ndjsonBody, String projectAuthToken) {
+        // Autenticação uma única vez; cada linha é publicada assim que lida, sem carregar o corpo inteiro
+        Producer producer = findAndValidateProducer(producerId, projectAuthToken);
+
+        // Limite de publicações em voo: sem permissão livre a leitura para, e o TCP segura o cliente (backpressure)
+        Semaphore inFlight = new Semaphore(streamMaxInFlight);
+        AtomicLong accepted = new AtomicLong();
+        Queue<Long> failedLines = new ConcurrentLinkedQueue<>();
+        long received = 0;
+        long lineNumber = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(ndjsonBody, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                received++;
+                long currentLine = lineNumber;
+
+                CompletableFuture<String> future;
+                try {
+                    MessageReceived messageReceived = gson.fromJson(line, MessageReceived.class);
+                    if (messageReceived == null || messageReceived.getData() == null || messageReceived.getData().isBlank()) {
+                        failedLines.add(currentLine);
+                        continue;
+                    }
+                    inFlight.acquire();
+                    try {
+                        future = sendForProducer(producer, messageReceived, UUID.randomUUID().toString());
+                    } catch (RuntimeException e) {
+                        inFlight.release();
+                        throw e;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new MessageSendException("NDJSON stream interrupted at line " + currentLine, e);
+                } catch (RuntimeException e) {
+                    // JSON inválido, estratégia incompatível ou falha síncrona do broker: só esta linha falha
+                    failedLines.add(currentLine);
+                    continue;
+                }
+
+                future.whenComplete((ignored, ex) -> {
+                    if (ex == null) {
+                        accepted.incrementAndGet();
+                    } else {
+                        failedLines.add(currentLine);
+                    }
+                    inFlight.release();
+                });
+            }
+        } catch (IOException e) {
+            throw new MessageSendException("Failed to read NDJSON stream after line " + lineNumber + ": " + e.getMessage(), e);
+        }
+
+        // Espera as confirmações pendentes antes de montar o resumo
+        try {
+            inFlight.acquire(streamMaxInFlight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessageSendException("NDJSON stream interrupted while awaiting broker confirmations", e);
         }
+
+        List<Long> sortedFailedLines = new ArrayList<>(failedLines);
+        Collections.sort(sortedFailedLines);
+        System.out.println("NDJSON stream for producer " + producerId + ": " + received + " received, " + accepted.get() + " accepted, " + sortedFailedLines.size() + " failed.");
+        return new StreamSendSummary(received, accepted.get(), sortedFailedLines.size(), sortedFailedLines);
+    }
+
+    @Override
+    public List<MessageSendResult> sendBatch(String producerId, List<MessageReceived> messagesReceived, String projectAuthToken) {
+        // Autenticação e busca do produtor uma única vez para todo o lote
+        Producer producer = findAndValidateProducer(producerId, projectAuthToken);
+
+        MessageSendResult[] results = new MessageSendResult[messagesReceived.size()];
+        IdempotencyWindow.Claim[] claims = new IdempotencyWindow.Claim[messagesReceived.size()]; // Chaves de idempotência do lote
+        List<MessageToSend> messagesToSend = new ArrayList<>(messagesReceived.size());
+        // Agrupa as mensagens pela configuração efetiva de roteamento (mantendo a ordem de chegada)
+        Map<Broker, List<Integer>> groups = new LinkedHashMap<>();
+        // Mensagens com entrega garantida: gravadas juntas no outbox, em uma única transação
+        List<Integer> outboxIndexes = new ArrayList<>();
+        List<OutboxMessage> outboxMessages = new ArrayList<>();
+
+        for (int i = 0; i < messagesReceived.size(); i++) {
+            MessageReceived messageReceived = messagesReceived.get(i);
+            MessageToSend messageToSend = new MessageToSend(UUID.randomUUID().toString(), messageReceived.getData(), messageReceived.getHeaders());
+            messagesToSend.add(messageToSend);
+
+            if (messageReceived.getData() == null || messageReceived.getData().isBlank()) {
+                results[i] = MessageSendResult.failed(messageToSend.getMessageId(), "Message data cannot be empty");
+                continue;
+            }
+            Broker brokerConfig = buildSendBrokerConfig(producer, messageReceived);
+            try {
+                validateBrokerStrategy(brokerConfig.getName(), brokerConfig.getStrategy());
+            } catch (BrokerStrategyIncompatibleException e) {
+                results[i] = MessageSendResult.failed(messageToSend.getMessageId(), e.getMessage());
+                continue;
+            }
+            String idempotencyKey = messageReceived.getIdempotencyKey();
+            if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+                IdempotencyWindow.Claim claim = idempotencyWindow.claim(producerId, idempotencyKey, messageToSend.getMessageId());
+                claims[i] = claim;
+                if (claim.isDuplicate()) {
+                    continue; // Reenvio dentro da janela: não publica de novo, o resultado vem do original (abaixo)
+                }
+            }
+            try {
+                rateLimiter.acquire(producer);
+            } catch (RateLimitExceededException e) {
+                results[i] = MessageSendResult.failed(messageToSend.getMessageId(), e.getMessage());
+                continue;
+            }
+            if (messageReceived.getTimeToWait() != null && messageReceived.getTimeToWait() > 0) {
+                try {
+                    scheduleDelayedMessage(producerId, messageToSend, brokerConfig, messageReceived.getTimeToWait());
+                    results[i] = MessageSendResult.accepted(messageToSend.getMessageId());
+                } catch (RuntimeException e) {
+                    results[i] = MessageSendResult.failed(messageToSend.getMessageId(), e.getMessage());
+                }
+                continue;
+            }
+            if (Boolean.TRUE.equals(messageReceived.getGuaranteedDelivery())) {
+                outboxIndexes.add(i);
+                outboxMessages.add(buildOutboxMessage(producerId, messageToSend, brokerConfig));
+                continue;
+            }
+            groups.computeIfAbsent(brokerConfig, k -> new ArrayList<>()).add(i);
+        }
+
+        if (!outboxMessages.isEmpty()) {
+            try {
+                transactionalOutbox.appendAll(outboxMessages);
+                for (Integer index : outboxIndexes) {
+                    results[index] = MessageSendResult.accepted(messagesToSend.get(index).getMessageId());
+                }
+            } catch (RuntimeException e) {
+                for (Integer index : outboxIndexes) {
+                    results[index] = MessageSendResult.failed(messagesToSend.get(index).getMessageId(), e.getMessage());
+                }
+            }
+        }
+
+        for (Map.Entry<Broker, List<Integer>> group : groups.entrySet()) {
+            Broker brokerConfig = group.getKey();
+            List<Integer> indexes = group.getValue();
+            List<MessageToSend> groupMessages = new ArrayList<>(indexes.size());
+            for (Integer index : indexes) {
+                groupMessages.add(messagesToSend.get(index));
+            }
+
+            if (INTERSCITY_ADAPTER_STRATEGY_NAME.equals(brokerConfig.getStrategy())) {
+                for (Integer index : indexes) {
+                    MessageToSend messageToSend = messagesToSend.get(index);
+                    try {
+                        sendToInterscityAdapter(producerId, messageToSend);
+                        results[index] = MessageSendResult.accepted(messageToSend.getMessageId());
+                    } catch (RuntimeException e) {
+                        results[index] = MessageSendResult.failed(messageToSend.getMessageId(), e.getMessage());
+                    }
+                }
+                continue;
+            }
+
+            try {
+                IProducerMessaging adapter = getProducerMessagingAdapter(brokerConfig.getName());
+                List<MessageSendResult> groupResults = adapter.sendBatch(groupMessages, adapter.compilePlan(producerId, null, brokerConfig));
+                for (int j = 0; j < indexes.size(); j++) {
+                    results[indexes.get(j)] = groupResults.get(j);
+                }
+            } catch (RuntimeException e) {
+                // Falha que afeta o grupo inteiro (broker não suportado, configuração inválida, topologia indisponível)
+                for (Integer index : indexes) {
+                    results[index] = MessageSendResult.failed(messagesToSend.get(index).getMessageId(), e.getMessage());
+                }
+            }
+        }
+
+        Map<Integer, CompletableFuture<String>> duplicates = new LinkedHashMap<>();
+        for (int i = 0; i < claims.length; i++) {
+            IdempotencyWindow.Claim claim = claims[i];
+            if (claim == null) {
+                continue;
+            }
+            if (claim.isDuplicate()) {
+                duplicates.put(i, followOriginal(producer, messagesReceived.get(i), messagesToSend.get(i).getMessageId(), true, claim));
+            } else if (MessageSendResult.ACCEPTED.equals(results[i].getStatus())) {
+                idempotencyWindow.confirm(claim);
+            } else {
+                idempotencyWindow.release(claim);
+            }
+        }
+        // Duplicatas (inclusive de uma chave repetida dentro deste lote) respondem com o resultado do envio original
+        for (Map.Entry<Integer, CompletableFuture<String>> duplicate : duplicates.entrySet()) {
+            int index = duplicate.getKey();
+            try {
+                results[index] = MessageSendResult.accepted(duplicate.getValue().join());
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                results[index] = MessageSendResult.failed(messagesToSend.get(index).getMessageId(), cause.getMessage());
+            }
+        }
+
+        return Arrays.asList(results);
     }
 
     @Override
@@ -177,7 +601,7 @@ public class ProducerService implements IProducerService {
 
     @Override
     public ProducerDto setBroker(String producerId, BrokerUpdate brokerUpdate, String projectAuthToken) {
-        Producer producer = findAndValidateProducer(producerId, projectAuthToken);
+        Producer producer = findAndValidateProducerForUpdate(producerId, projectAuthToken);
 
         if (!GLOBAL_SUPPORTED_BROKERS.contains(brokerUpdate.getBroker().toLowerCase())) {
             throw new BrokerNotSupportedException("Broker '" + brokerUpdate.getBroker() + "' is not globally supported.");
@@ -198,12 +622,15 @@ public class ProducerService implements IProducerService {
             System.out.println("✅ [INTERSCITY] Produtor " + producerId + " configurado para InterSCity Adapter!");
         }
 
-        return ProducerDto.fromModel(producerRepository.save(producer));
+        Producer savedProducer = producerRepository.save(producer);
+        sendPlans.remove(producerId);
+        cacheInvalidation.invalidateProducer(producerId);
+        return ProducerDto.fromModel(savedProducer);
     }
 
     @Override
     public ProducerDto setStrategy(String producerId, StrategyUpdate strategyUpdate, String projectAuthToken) {
-        Producer producer = findAndValidateProducer(producerId, projectAuthToken);
+        Producer producer = findAndValidateProducerForUpdate(producerId, projectAuthToken);
         validateBrokerStrategy(producer.getBroker(), strategyUpdate.getStrategy()); // Validar nova estratégia
 
         producer.setStrategy(strategyUpdate.getStrategy());
@@ -212,18 +639,198 @@ public class ProducerService implements IProducerService {
         producer.setRoutingKey(strategyUpdate.getRoutingKey());
         producer.setHeaders(strategyUpdate.getHeaders() != null ? gson.toJson(strategyUpdate.getHeaders()) : null);
 
-        return ProducerDto.fromModel(producerRepository.save(producer));
+        Producer savedProducer = producerRepository.save(producer);
+        sendPlans.remove(producerId);
+        cacheInvalidation.invalidateProducer(producerId);
+        return ProducerDto.fromModel(savedProducer);
     }
 
     @Override
-    public ProducerDto setQueue(String producerId, QueueUpdate queueUpdate, String projectAuthToken) {
+    public ProducerDto setRateLimit(String producerId, RateLimitUpdate rateLimitUpdate, String projectAuthToken) {
+        Producer producer = findAndValidateProducerForUpdate(producerId, projectAuthToken);
+        producer.setRateLimitPerSecond(rateLimitUpdate.getRateLimitPerSecond());
+        producer.setRateLimitBurst(rateLimitUpdate.getRateLimitBurst());
+
+        Producer savedProducer = producerRepository.save(producer);
+        cacheInvalidation.invalidateProducer(producerId); // O balde é recriado com os novos limites no próximo envio
+        return ProducerDto.fromModel(savedProducer);
+    }
+
+    @Override
+    public RateLimitStatus getRateLimitStatus(String producerId, String projectAuthToken) {
         Producer producer = findAndValidateProducer(producerId, projectAuthToken);
+        return rateLimiter.status(producer);
+    }
+
+    @Override
+    public ProducerDto setQueue(String producerId, QueueUpdate queueUpdate, String projectAuthToken) {
+        Producer producer = findAndValidateProducerForUpdate(producerId, projectAuthToken);
         producer.setQueue(queueUpdate.getQueue());
         producer.setExchange(queueUpdate.getExchange());
         producer.setRoutingKey(queueUpdate.getRoutingKey());
         producer.setHeaders(queueUpdate.getHeaders() != null ? gson.toJson(queueUpdate.getHeaders()) : null);
 
-        return ProducerDto.fromModel(producerRepository.save(producer));
+        Producer savedProducer = producerRepository.save(producer);
+        sendPlans.remove(producerId);
+        cacheInvalidation.invalidateProducer(producerId);
+        return ProducerDto.fromModel(savedProducer);
+    }
+
+    // Configuração efetiva de envio: campos da mensagem sobrescrevem a configuração do produtor
+    private Broker buildSendBrokerConfig(Producer producer, MessageReceived messageReceived) {
+        Broker brokerConfig = new Broker();
+        brokerConfig.setName(producer.getBroker());
+        brokerConfig.setStrategy(Optional.ofNullable(messageReceived.getStrategy()).orElse(producer.getStrategy()));
+        brokerConfig.setExchange(Optional.ofNullable(messageReceived.getExchange()).orElse(producer.getExchange()));
+        brokerConfig.setQueue(Optional.ofNullable(messageReceived.getQueue()).orElse(producer.getQueue()));
+        brokerConfig.setRoutingKey(Optional.ofNullable(messageReceived.getRoutingKey()).orElse(producer.getRoutingKey()));
+        brokerConfig.setHeaders(messageReceived.getHeaders() != null ? gson.toJson(messageReceived.getHeaders()) : producer.getHeaders());
+        return brokerConfig;
+    }
+
+    private boolean hasRoutingOverrides(MessageReceived messageReceived) {
+        return messageReceived.getStrategy() != null || messageReceived.getExchange() != null || messageReceived.getQueue() != null
+                || messageReceived.getRoutingKey() != null || messageReceived.getHeaders() != null;
+    }
+
+    // Plano de envio do produtor; compilado (e validado) na primeira vez e sempre que a configuração mudar
+    private SendPlan getSendPlan(Producer producer) {
+        SendPlan plan = sendPlans.get(producer.getId());
+        if (plan != null && plan.isCompiledFrom(producer.getId(), producer.getUpdatedAt())) {
+            return plan;
+        }
+        validateBrokerStrategy(producer.getBroker(), producer.getStrategy());
+        plan = getProducerMessagingAdapter(producer.getBroker())
+                .compilePlan(producer.getId(), producer.getUpdatedAt(), buildBrokerConfig(producer));
+        sendPlans.put(producer.getId(), plan);
+        return plan;
+    }
+
+    private void scheduleDelayedMessage(String producerId, MessageToSend messageToSend, Broker brokerConfig, long timeToWaitMs) {
+        DelayedMessage delayedMessage = new DelayedMessage();
+        delayedMessage.setMessageId(messageToSend.getMessageId());
+        delayedMessage.setProducerId(producerId);
+        delayedMessage.setData(messageToSend.getData());
+        delayedMessage.setCustomHeaders(messageToSend.getCustomHeaders() != null ? gson.toJson(messageToSend.getCustomHeaders()) : null);
+        delayedMessage.setBrokerName(brokerConfig.getName());
+        delayedMessage.setStrategy(brokerConfig.getStrategy());
+        delayedMessage.setExchange(brokerConfig.getExchange());
+        delayedMessage.setQueue(brokerConfig.getQueue());
+        delayedMessage.setRoutingKey(brokerConfig.getRoutingKey());
+        delayedMessage.setHeaders(brokerConfig.getHeaders());
+        delayedDeliveryScheduler.schedule(delayedMessage, timeToWaitMs);
+    }
+
+    // Chamado pelo agendador quando o atraso vence (fora de uma requisição: não há token a validar)
+    private CompletableFuture<Void> sendDelayedMessage(DelayedMessage delayedMessage) {
+        String producerId = delayedMessage.getProducerId();
+        if (producerCache.get(producerId, producerRepository::findById).isEmpty()) {
+            System.out.println("Delayed message " + delayedMessage.getMessageId() + " discarded: producer " + producerId + " no longer exists.");
+            return CompletableFuture.completedFuture(null);
+        }
+        MessageToSend messageToSend = new MessageToSend(delayedMessage.getMessageId(), delayedMessage.getData(),
+                delayedMessage.getCustomHeaders() != null ? gson.fromJson(delayedMessage.getCustomHeaders(), Map.class) : null);
+        Broker brokerConfig = delayedMessage.toBroker();
+        if (INTERSCITY_ADAPTER_STRATEGY_NAME.equals(brokerConfig.getStrategy())) {
+            sendToInterscityAdapter(producerId, messageToSend);
+            return CompletableFuture.completedFuture(null);
+        }
+        return sendWithAdHocPlan(producerId, messageToSend, brokerConfig);
+    }
+
+    private OutboxMessage buildOutboxMessage(String producerId, MessageToSend messageToSend, Broker brokerConfig) {
+        OutboxMessage outboxMessage = new OutboxMessage();
+        outboxMessage.setMessageId(messageToSend.getMessageId());
+        outboxMessage.setProducerId(producerId);
+        outboxMessage.setData(messageToSend.getData());
+        outboxMessage.setCustomHeaders(messageToSend.getCustomHeaders() != null ? gson.toJson(messageToSend.getCustomHeaders()) : null);
+        outboxMessage.setBrokerName(brokerConfig.getName());
+        outboxMessage.setStrategy(brokerConfig.getStrategy());
+        outboxMessage.setExchange(brokerConfig.getExchange());
+        outboxMessage.setQueue(brokerConfig.getQueue());
+        outboxMessage.setRoutingKey(brokerConfig.getRoutingKey());
+        outboxMessage.setHeaders(brokerConfig.getHeaders());
+        return outboxMessage;
+    }
+
+    // Chamado pelo relay do outbox com as linhas travadas, em ordem de gravação. Mensagens do mesmo produtor com a
+    // mesma configuração de envio seguem juntas pelo sendBatch do adaptador (publicações em pipeline, espera pelos
+    // confirms no fim). Devolve um resultado por linha, na mesma ordem; "accepted" significa que a linha pode ser apagada.
+    private List<MessageSendResult> dispatchOutboxBatch(List<OutboxMessage> outboxMessages) {
+        MessageSendResult[] results = new MessageSendResult[outboxMessages.size()];
+        List<MessageToSend> messagesToSend = new ArrayList<>(outboxMessages.size());
+        // (producerId, configuração de envio) -> índices no lote
+        Map<Map.Entry<String, Broker>, List<Integer>> groups = new LinkedHashMap<>();
+
+        for (int i = 0; i < outboxMessages.size(); i++) {
+            OutboxMessage outboxMessage = outboxMessages.get(i);
+            MessageToSend messageToSend = new MessageToSend(outboxMessage.getMessageId(), outboxMessage.getData(),
+                    outboxMessage.getCustomHeaders() != null ? gson.fromJson(outboxMessage.getCustomHeaders(), Map.class) : null);
+            messagesToSend.add(messageToSend);
+            if (producerCache.get(outboxMessage.getProducerId(), producerRepository::findById).isEmpty()) {
+                System.out.println("Outbox message " + outboxMessage.getMessageId() + " discarded: producer " + outboxMessage.getProducerId() + " no longer exists.");
+                results[i] = MessageSendResult.accepted(outboxMessage.getMessageId());
+                continue;
+            }
+            Broker brokerConfig = outboxMessage.toBroker();
+            if (INTERSCITY_ADAPTER_STRATEGY_NAME.equals(brokerConfig.getStrategy())) {
+                try {
+                    sendToInterscityAdapter(outboxMessage.getProducerId(), messageToSend);
+                    results[i] = MessageSendResult.accepted(outboxMessage.getMessageId());
+                } catch (RuntimeException e) {
+                    results[i] = MessageSendResult.failed(outboxMessage.getMessageId(), e.getMessage());
+                }
+                continue;
+            }
+            groups.computeIfAbsent(Map.entry(outboxMessage.getProducerId(), brokerConfig), k -> new ArrayList<>()).add(i);
+        }
+
+        for (Map.Entry<Map.Entry<String, Broker>, List<Integer>> group : groups.entrySet()) {
+            String producerId = group.getKey().getKey();
+            Broker brokerConfig = group.getKey().getValue();
+            List<Integer> indexes = group.getValue();
+            List<MessageToSend> groupMessages = new ArrayList<>(indexes.size());
+            for (Integer index : indexes) {
+                groupMessages.add(messagesToSend.get(index));
+            }
+            try {
+                IProducerMessaging adapter = getProducerMessagingAdapter(brokerConfig.getName());
+                List<MessageSendResult> groupResults = adapter.sendBatch(groupMessages, adapter.compilePlan(producerId, null, brokerConfig));
+                for (int j = 0; j < indexes.size(); j++) {
+                    results[indexes.get(j)] = groupResults.get(j);
+                }
+            } catch (RuntimeException e) {
+                for (Integer index : indexes) {
+                    results[index] = MessageSendResult.failed(messagesToSend.get(index).getMessageId(), e.getMessage());
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    // Envio com sobrescritas: plano avulso (fora do cache de planos) que ainda carrega o producerId,
+    // usado pelo adaptador para escolher a conexão de publicação do produtor
+    private CompletableFuture<Void> sendWithAdHocPlan(String producerId, MessageToSend messageToSend, Broker brokerConfig) {
+        IProducerMessaging adapter = getProducerMessagingAdapter(brokerConfig.getName());
+        return adapter.sendAsync(messageToSend, adapter.compilePlan(producerId, null, brokerConfig));
+    }
+
+    private void sendToInterscityAdapter(String producerId, MessageToSend messageToSend) {
+        System.out.println("🚀 [INTERSCITY] Iniciando envio para InterSCity Adapter...");
+        System.out.println("📋 [INTERSCITY] Producer ID: " + producerId);
+        System.out.println("📋 [INTERSCITY] Message ID: " + messageToSend.getMessageId());
+        System.out.println("📋 [INTERSCITY] Data: " + messageToSend.getData());
+        System.out.println("📋 [INTERSCITY] Headers: " + messageToSend.getCustomHeaders());
+
+        declareInterscityAdapterQueueAndExchange(); // Garante que a infra RabbitMQ está pronta
+        String messageJson = gson.toJson(messageToSend); // Serializa MessageToSend completo
+
+        System.out.println("📤 [INTERSCITY] Enviando para RabbitMQ - Exchange: " + INTERSCITY_ADAPTER_EXCHANGE);
+        System.out.println("📤 [INTERSCITY] Routing Key: " + INTERSCITY_ADAPTER_ROUTING_KEY);
+        System.out.println("📤 [INTERSCITY] Payload JSON: " + messageJson);
+
+        rabbitTemplate.convertAndSend(INTERSCITY_ADAPTER_EXCHANGE, INTERSCITY_ADAPTER_ROUTING_KEY, messageJson);
+        System.out.println("✅ [INTERSCITY] Mensagem enviada com sucesso para InterSCity Adapter via RabbitMQ: " + messageToSend.getMessageId());
     }
 
     private Broker buildBrokerConfig(Producer producer) {
@@ -240,15 +847,27 @@ public class ProducerService implements IProducerService {
 
 
     // --- Métodos Auxiliares ---
+    // Leitura via cache (caminho quente: send, mensagens, conexão)
     private Producer findAndValidateProducer(String producerId, String projectAuthToken) {
+        Producer producer = producerCache.get(producerId, producerRepository::findById)
+                .orElseThrow(() -> new ProducerNotFoundException("Producer with ID '" + producerId + "' not found."));
+        validateProjectAccess(producer, projectAuthToken);
+        return producer;
+    }
+
+    // Leitura direta do banco para alterações: a instância em cache é compartilhada entre threads e não deve ser modificada
+    private Producer findAndValidateProducerForUpdate(String producerId, String projectAuthToken) {
         Producer producer = producerRepository.findById(producerId)
                 .orElseThrow(() -> new ProducerNotFoundException("Producer with ID '" + producerId + "' not found."));
+        validateProjectAccess(producer, projectAuthToken);
+        return producer;
+    }
 
+    private void validateProjectAccess(Producer producer, String projectAuthToken) {
         String projectIdFromToken = jwtUtil.extractAllClaims(projectAuthToken.replace("Bearer ", "")).get("projectId", String.class);
         if (projectIdFromToken == null || !producer.getProjectId().equals(projectIdFromToken)) {
             throw new InvalidCredentialsException("Unauthorized access to producer or invalid project token.");
         }
-        return producer;
     }
 
     // Retorna a implementação correta de IProducerMessaging
@@ -256,11 +875,12 @@ public class ProducerService implements IProducerService {
         switch (brokerName.toLowerCase()) {
             case "rabbitmq":
                 return rabbitMQProducer;
-            // TODO: (Futuro) Adicionar outros brokers quando implementados (Kafka, ActiveMQ5)
-            // case "kafka":
-            //     return kafkaProducer;
-            // case "activemq5":
-            //     return activeMQ5Producer;
+            case "kafka":
+                return kafkaProducer;
+            case "activemq5":
+                return activeMQ5Producer;
+            case "inmemory":
+                return inMemoryProducer;
             default:
                 throw new BrokerNotSupportedException("Broker '" + brokerName + "' not supported by this service instance.");
         }
@@ -270,17 +890,22 @@ public class ProducerService implements IProducerService {
     private void validateBrokerStrategy(String brokerName, String strategy) {
         switch (brokerName.toLowerCase()) {
             case "rabbitmq":
-                if (!Set.of("direct", "topic", "fanout", "headers").contains(strategy.toLowerCase())) {
+                if (!RABBITMQ_STRATEGIES.contains(strategy.toLowerCase())) {
                     throw new BrokerStrategyIncompatibleException("RabbitMQ does not support strategy: " + strategy);
                 }
                 break;
+            case "inmemory": // Emula a mesma semântica de roteamento do RabbitMQ
+                if (!RABBITMQ_STRATEGIES.contains(strategy.toLowerCase())) {
+                    throw new BrokerStrategyIncompatibleException("In-memory broker does not support strategy: " + strategy);
+                }
+                break;
             case "kafka":
-                if (!Set.of("topic").contains(strategy.toLowerCase())) {
+                if (!KAFKA_STRATEGIES.contains(strategy.toLowerCase())) {
                     throw new BrokerStrategyIncompatibleException("Kafka only supports 'topic' strategy.");
                 }
                 break;
             case "activemq5":
-                if (!Set.of("direct", "topic").contains(strategy.toLowerCase())) {
+                if (!ACTIVEMQ5_STRATEGIES.contains(strategy.toLowerCase())) {
                     throw new BrokerStrategyIncompatibleException("ActiveMQ5 only supports 'direct' and 'topic' strategies.");
                 }
                 break;
@@ -297,24 +922,10 @@ public class ProducerService implements IProducerService {
     }
 
     // --- NOVO MÉTODO AUXILIAR PARA DECLARAR RECURSOS DO RABBITMQ PARA O INTERSCITY ADAPTER ---
+    // Usa o registro de topologia compartilhado: após a primeira chamada não há mais idas ao broker.
     private void declareInterscityAdapterQueueAndExchange() {
-        System.out.println("🔧 [INTERSCITY] Configurando recursos RabbitMQ para InterSCity Adapter...");
-        
-        // Declara a fila
-        Queue interscityQueue = new Queue(INTERSCITY_ADAPTER_QUEUE, true); // Durável
-        amqpAdmin.declareQueue(interscityQueue);
-        System.out.println("📋 [INTERSCITY] Fila declarada: " + INTERSCITY_ADAPTER_QUEUE);
-
-        // Declara o exchange (DirectExchange, conforme o RabbitMQConfig do interscity-adapter-service)
-        DirectExchange interscityExchange = new DirectExchange(INTERSCITY_ADAPTER_EXCHANGE);
-        amqpAdmin.declareExchange(interscityExchange);
-        System.out.println("📋 [INTERSCITY] Exchange declarado: " + INTERSCITY_ADAPTER_EXCHANGE);
-
-        // Declara o binding
-        Binding binding = BindingBuilder.bind(interscityQueue).to(interscityExchange).with(INTERSCITY_ADAPTER_ROUTING_KEY);
-        amqpAdmin.declareBinding(binding);
-        System.out.println("📋 [INTERSCITY] Binding configurado: " + INTERSCITY_ADAPTER_ROUTING_KEY);
-        System.out.println("✅ [INTERSCITY] Recursos RabbitMQ para InterSCity Adapter configurados com sucesso!");
+        // DirectExchange, conforme o RabbitMQConfig do interscity-adapter-service
+        topologyRegistry.ensureTopology(INTERSCITY_ADAPTER_EXCHANGE, "direct", INTERSCITY_ADAPTER_QUEUE, INTERSCITY_ADAPTER_ROUTING_KEY, null);
     }
 
 }
\ No newline at end of file
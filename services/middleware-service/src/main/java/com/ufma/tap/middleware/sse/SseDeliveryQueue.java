@@ -0,0 +1,322 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/sse/SseDeliveryQueue.java
+package com.ufma.tap.middleware.sse;
+
+import com.ufma.tap.middleware.dto.MessageDto;
+import com.ufma.tap.middleware.exception.MessageDeliveryException;
+import com.ufma.tap.middleware.model.Message;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Fila limitada de mensagens a caminho do SseEmitter de um consumidor. As threads dos listeners só enfileiram;
+// a escrita no socket é feita pelo SseWriterPool. Quando a fila enche, a política do consumidor decide:
+// DROP_OLDEST descarta a mensagem mais antiga, DISCONNECT encerra a conexão SSE do cliente que não está acompanhando
+// e BLOCK espera um tempo curto por espaço na thread do listener. Essas threads são compartilhadas por todas as filas
+// do container, por isso o EmitterRepository só aplica BLOCK a consumidores com ack manual, em que o prefetch é o
+// controle de fluxo de fato e a espera é apenas uma folga antes de devolver a mensagem ao broker.
+// Modo em lote (opcional, escolhido pelo cliente na conexão): em vez de um evento 'message' por mensagem, o escritor
+// envia um evento 'messages' com um array de até 'batchSize' mensagens, assim que o lote enche ou quando a mais antiga
+// já esperou 'linger'. Uma serialização, um flush e uma escrita no socket por lote.
+public class SseDeliveryQueue {
+
+    public enum OverflowPolicy {
+        BLOCK, DROP_OLDEST, DISCONNECT;
+
+        // Aceita o formato da API ("block", "drop-oldest", "disconnect")
+        public static OverflowPolicy fromString(String value) {
+            return valueOf(value.trim().toUpperCase().replace('-', '_'));
+        }
+
+        public String toApiValue() {
+            return name().toLowerCase().replace('_', '-');
+        }
+    }
+
+    private final String consumerId;
+    private final SseEmitter emitter;
+    private final ArrayBlockingQueue<Pending> pending;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutMs;
+    private final int batchSize;      // <= 1: um evento por mensagem
+    private final long lingerNanos;
+    private final SseWriterPool writerPool;
+    private final Consumer<SseDeliveryQueue> onClose; // Remove a fila do EmitterRepository
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean lingerArmed = new AtomicBoolean(); // Há um reagendamento pendente para o fim do linger
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean closed;
+
+    public SseDeliveryQueue(String consumerId, SseEmitter emitter, int capacity, OverflowPolicy overflowPolicy,
+                            long blockTimeoutMs, int batchSize, long lingerMs, SseWriterPool writerPool, Consumer<SseDeliveryQueue> onClose) {
+        this.consumerId = consumerId;
+        this.emitter = emitter;
+        this.pending = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMs = blockTimeoutMs;
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, lingerMs));
+        this.writerPool = writerPool;
+        this.onClose = onClose;
+    }
+
+    /**
+     * Enfileira a mensagem para envio via SSE.
+     * @return Future concluído quando a mensagem for escrita no emitter; com exceção se ela for descartada ou a conexão cair.
+     */
+    public CompletableFuture<Void> enqueue(Message message) {
+        Pending entry = new Pending(message);
+        if (closed) {
+            entry.fail("SSE connection of consumer " + consumerId + " is closed.");
+            return entry.future;
+        }
+
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    if (!pending.offer(entry, blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                        dropped.incrementAndGet();
+                        entry.fail("SSE queue of consumer " + consumerId + " stayed full for " + blockTimeoutMs + " ms.");
+                        return entry.future;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    entry.fail("Interrupted while waiting for space in the SSE queue of consumer " + consumerId + ".");
+                    return entry.future;
+                }
+                break;
+            case DROP_OLDEST:
+                while (!pending.offer(entry)) {
+                    Pending oldest = pending.poll();
+                    if (oldest != null) {
+                        dropped.incrementAndGet();
+                        oldest.fail("Dropped from the full SSE queue of consumer " + consumerId + ".");
+                    }
+                }
+                break;
+            case DISCONNECT:
+                if (!pending.offer(entry)) {
+                    dropped.incrementAndGet();
+                    entry.fail("SSE queue of consumer " + consumerId + " is full; disconnecting slow client.");
+                    System.err.println("SSE queue of consumer " + consumerId + " overflowed (" + pending.size() + " pending). Disconnecting client.");
+                    disconnect();
+                    return entry.future;
+                }
+                break;
+        }
+
+        if (closed) {
+            failPending(); // Fechada enquanto enfileirava: ninguém mais vai drenar
+        } else if (!isBatched() || !lingerArmed.get() || pending.size() >= batchSize) {
+            // Em lote, com o linger já armado, só acorda o escritor quando o lote enche
+            writerPool.schedule(this);
+        }
+        return entry.future;
+    }
+
+    /**
+     * Executado por uma thread do SseWriterPool (nunca por duas ao mesmo tempo para a mesma fila).
+     * @return Nanossegundos até o fim do linger, se um lote incompleto ficou esperando; 0 caso contrário.
+     */
+    long drain(int maxMessages) {
+        int written = 0;
+        while (written < maxMessages) {
+            Pending head = pending.peek();
+            if (head == null) {
+                return 0;
+            }
+            if (closed) {
+                failPending();
+                return 0;
+            }
+            if (!isBatched()) {
+                Pending entry = pending.poll();
+                if (entry == null || !send(entry)) {
+                    return 0;
+                }
+                written++;
+                continue;
+            }
+
+            if (pending.size() < batchSize) {
+                long waited = System.nanoTime() - head.enqueuedAtNanos;
+                if (waited < lingerNanos) {
+                    return lingerNanos - waited; // Lote incompleto: espera mais mensagens até o fim do linger
+                }
+            }
+            List<Pending> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+            pending.drainTo(batch, batchSize);
+            if (batch.isEmpty() || !sendBatch(batch)) {
+                return 0;
+            }
+            written += batch.size();
+        }
+        return remainingLinger(); // Fim da passada: um lote incompleto que sobrou precisa de alguém que volte para ele
+    }
+
+    private long remainingLinger() {
+        Pending head = pending.peek();
+        if (head == null || !isBatched() || pending.size() >= batchSize) {
+            return 0;
+        }
+        return Math.max(1, lingerNanos - (System.nanoTime() - head.enqueuedAtNanos));
+    }
+
+    private boolean send(Pending entry) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .id(entry.message.getMessageId())
+                    .name("message")
+                    .data(MessageDto.fromModel(entry.message)));
+        } catch (Exception e) {
+            System.err.println("Error sending message via SSE for consumer " + consumerId + ": " + e.getMessage());
+            entry.future.completeExceptionally(new MessageDeliveryException("Error sending message via SSE: " + e.getMessage(), e));
+            close();
+            return false;
+        }
+        delivered.incrementAndGet();
+        System.out.println("Message " + entry.message.getMessageId() + " sent via SSE to consumer " + consumerId);
+        entry.future.complete(null);
+        return true;
+    }
+
+    // Um único evento 'messages' com o array do lote; o id do evento é o da última mensagem (Last-Event-ID)
+    private boolean sendBatch(List<Pending> batch) {
+        List<MessageDto> messages = new ArrayList<>(batch.size());
+        for (Pending entry : batch) {
+            messages.add(MessageDto.fromModel(entry.message));
+        }
+        try {
+            emitter.send(SseEmitter.event()
+                    .id(batch.get(batch.size() - 1).message.getMessageId())
+                    .name("messages")
+                    .data(messages));
+        } catch (Exception e) {
+            System.err.println("Error sending batch of " + batch.size() + " messages via SSE for consumer " + consumerId + ": " + e.getMessage());
+            MessageDeliveryException error = new MessageDeliveryException("Error sending message batch via SSE: " + e.getMessage(), e);
+            batch.forEach(entry -> entry.future.completeExceptionally(error));
+            close();
+            return false;
+        }
+        delivered.addAndGet(batch.size());
+        System.out.println("Batch of " + batch.size() + " messages sent via SSE to consumer " + consumerId);
+        batch.forEach(entry -> entry.future.complete(null));
+        return true;
+    }
+
+    /**
+     * Encerra a fila: as mensagens pendentes falham (com ack manual, voltam para o broker) e a fila sai do repositório.
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        failPending();
+        onClose.accept(this);
+    }
+
+    // Política DISCONNECT: fecha a fila e encerra a resposta SSE (dispara o onCompletion do emitter)
+    private void disconnect() {
+        close();
+        try {
+            emitter.complete();
+        } catch (Exception e) {
+            System.err.println("Error completing SSE emitter for consumer " + consumerId + ": " + e.getMessage());
+        }
+    }
+
+    private void failPending() {
+        Pending entry;
+        while ((entry = pending.poll()) != null) {
+            entry.fail("SSE connection of consumer " + consumerId + " is closed.");
+        }
+    }
+
+    boolean tryMarkScheduled() {
+        return scheduled.compareAndSet(false, true);
+    }
+
+    void clearScheduled() {
+        scheduled.set(false);
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    // Há mensagens que o escritor pode enviar já (em lote, só um lote cheio; o resto espera o linger)
+    boolean hasReadyMessages() {
+        return isBatched() ? pending.size() >= batchSize : !pending.isEmpty();
+    }
+
+    boolean armLinger() {
+        return lingerArmed.compareAndSet(false, true);
+    }
+
+    void disarmLinger() {
+        lingerArmed.set(false);
+    }
+
+    private boolean isBatched() {
+        return batchSize > 1;
+    }
+
+    public String getConsumerId() {
+        return consumerId;
+    }
+
+    public SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public int getCapacity() {
+        return pending.size() + pending.remainingCapacity();
+    }
+
+    public int getDepth() {
+        return pending.size();
+    }
+
+    public long getDelivered() {
+        return delivered.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public int getBatchSize() {
+        return Math.max(1, batchSize);
+    }
+
+    public long getLingerMs() {
+        return TimeUnit.NANOSECONDS.toMillis(lingerNanos);
+    }
+
+    private static final class Pending {
+        private final Message message;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private final long enqueuedAtNanos = System.nanoTime(); // Início do linger do lote
+
+        private Pending(Message message) {
+            this.message = message;
+        }
+
+        private void fail(String reason) {
+            future.completeExceptionally(new MessageDeliveryException(reason));
+        }
+    }
+}
\ No newline at end of file
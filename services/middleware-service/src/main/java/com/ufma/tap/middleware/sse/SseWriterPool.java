@@ -0,0 +1,105 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/sse/SseWriterPool.java
+package com.ufma.tap.middleware.sse;
+
+import com.ufma.tap.middleware.config.ExecutionThreads;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+// Poucas threads compartilhadas escrevem nos SseEmitter de todos os consumidores. Uma fila com mensagens entra
+// uma única vez na fila de prontas (flag 'scheduled'), então só um escritor atende cada emitter por vez e a ordem
+// das mensagens é mantida. Cada passada escreve no máximo 'writer-batch' mensagens e devolve a fila ao fim da fila
+// de prontas, para que um cliente com muito volume (ou lento) não monopolize um escritor.
+// Filas em modo lote com um lote incompleto voltam pelo timer de linger, sem ocupar escritor enquanto esperam.
+@Component
+public class SseWriterPool {
+
+    @Autowired
+    private ExecutionThreads executionThreads; // Escritas SSE bloqueiam em I/O: virtual threads quando habilitadas
+
+    @Value("${middleware.sse.writer-threads:4}")
+    private int writerThreads;
+
+    @Value("${middleware.sse.writer-batch:64}")
+    private int writerBatch;
+
+    private final LinkedBlockingQueue<SseDeliveryQueue> ready = new LinkedBlockingQueue<>();
+    private final List<Thread> writers = new ArrayList<>();
+    private ScheduledExecutorService lingerTimer;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        lingerTimer = Executors.newSingleThreadScheduledExecutor(executionThreads.threadFactory("sse-linger-"));
+        ThreadFactory threadFactory = executionThreads.threadFactory("sse-writer-");
+        for (int i = 0; i < Math.max(1, writerThreads); i++) {
+            Thread writer = threadFactory.newThread(this::runWriter);
+            writers.add(writer);
+            writer.start();
+        }
+        System.out.println("SSE writer pool started with " + writers.size() + " writers.");
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        writers.forEach(Thread::interrupt);
+        lingerTimer.shutdownNow();
+    }
+
+    // Chamado a cada mensagem enfileirada; só agenda a fila se ela ainda não estiver agendada
+    void schedule(SseDeliveryQueue queue) {
+        if (queue.tryMarkScheduled()) {
+            ready.offer(queue);
+        }
+    }
+
+    private void scheduleAfterLinger(SseDeliveryQueue queue, long lingerNanos) {
+        try {
+            lingerTimer.schedule(() -> {
+                queue.disarmLinger();
+                schedule(queue);
+            }, lingerNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            queue.disarmLinger(); // Aplicação encerrando
+        }
+    }
+
+    private void runWriter() {
+        while (running) {
+            SseDeliveryQueue queue;
+            try {
+                queue = ready.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long lingerNanos = 0;
+            try {
+                lingerNanos = queue.drain(writerBatch);
+            } catch (Exception e) {
+                System.err.println("Unexpected error in SSE writer for consumer " + queue.getConsumerId() + ": " + e.getMessage());
+            } finally {
+                queue.clearScheduled();
+                if (queue.hasReadyMessages()) {
+                    // Mensagens chegaram durante a passada (ou sobraram): volta para a fila de prontas
+                    schedule(queue);
+                } else if (lingerNanos > 0 && queue.armLinger()) {
+                    scheduleAfterLinger(queue, lingerNanos);
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
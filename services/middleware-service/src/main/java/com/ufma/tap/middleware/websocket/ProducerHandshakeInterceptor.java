@@ -0,0 +1,69 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/websocket/ProducerHandshakeInterceptor.java
+package com.ufma.tap.middleware.websocket;
+
+import com.ufma.tap.middleware.exception.InvalidCredentialsException;
+import com.ufma.tap.middleware.exception.ProducerNotFoundException;
+import com.ufma.tap.middleware.service.IProducerService;
+import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Date;
+import java.util.Map;
+
+// Autentica o produtor uma única vez, no handshake de /ws/senders/{producerId}.
+// O token vem do header Authorization ou, para clientes de navegador (que não definem headers no WebSocket), do parâmetro ?token=.
+// A expiração do token fica na sessão: o ProducerWebSocketHandler encerra a sessão quando ela passa.
+@Component
+public class ProducerHandshakeInterceptor implements HandshakeInterceptor {
+
+    static final String PRODUCER_ID_ATTRIBUTE = "producerId";
+    static final String TOKEN_EXPIRES_AT_ATTRIBUTE = "tokenExpiresAt"; // Epoch em ms; ausente se o token não expira
+
+    @Autowired
+    private IProducerService iProducerService;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String path = request.getURI().getPath();
+        String producerId = path.substring(path.lastIndexOf('/') + 1);
+
+        String projectAuthToken = request.getHeaders().getFirst("Authorization");
+        if (projectAuthToken == null) {
+            projectAuthToken = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("token");
+        }
+        if (producerId.isEmpty() || projectAuthToken == null) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        Date tokenExpiration;
+        try {
+            tokenExpiration = iProducerService.authorizeProducer(producerId, projectAuthToken);
+        } catch (ProducerNotFoundException e) {
+            response.setStatusCode(HttpStatus.NOT_FOUND);
+            return false;
+        } catch (InvalidCredentialsException | JwtException | IllegalArgumentException e) {
+            // IllegalArgumentException: token vazio (ex.: "Bearer " sem nada depois), recusado pelo parser do JWT
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+        attributes.put(PRODUCER_ID_ATTRIBUTE, producerId);
+        if (tokenExpiration != null) {
+            attributes.put(TOKEN_EXPIRES_AT_ATTRIBUTE, tokenExpiration.getTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,160 @@
+// Caminho: services/middleware-service/src/main/java/com/ufma/tap/middleware/websocket/ProducerWebSocketHandler.java
+package com.ufma.tap.middleware.websocket;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.ufma.tap.middleware.dto.ProducerSocketFrame;
+import com.ufma.tap.middleware.dto.ProducerSocketReply;
+import com.ufma.tap.middleware.service.IProducerService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Canal persistente do produtor: autenticado no handshake, recebe um ProducerSocketFrame (JSON) por frame de texto
+// e publica pelos mesmos adaptadores do POST /send. Cada mensagem recebe um ack (com o messageId) ou nack.
+// Quando o token do handshake expira, a próxima mensagem recebe nack e a sessão é encerrada (POLICY_VIOLATION);
+// o cliente reconecta com um token novo.
+// Controle de fluxo por créditos: o cliente começa com 'window' créditos, cada mensagem consome um e cada
+// ack/nack devolve um. Mensagens enviadas sem crédito são recusadas com nack, sem chegar ao broker.
+@Component
+public class ProducerWebSocketHandler extends TextWebSocketHandler {
+
+    @Autowired
+    private IProducerService iProducerService;
+
+    @Value("${middleware.websocket.window:256}")
+    private int window;
+
+    @Value("${middleware.websocket.send-time-limit-ms:5000}")
+    private int sendTimeLimitMs;
+
+    @Value("${middleware.websocket.buffer-size-limit:1048576}")
+    private int bufferSizeLimit;
+
+    private final Gson gson = new Gson();
+
+    // id da sessão WebSocket -> estado da sessão do produtor
+    private final Map<String, ProducerSession> sessions = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws IOException {
+        String producerId = (String) session.getAttributes().get(ProducerHandshakeInterceptor.PRODUCER_ID_ATTRIBUTE);
+        Long tokenExpiresAt = (Long) session.getAttributes().get(ProducerHandshakeInterceptor.TOKEN_EXPIRES_AT_ATTRIBUTE);
+        // Acks saem das threads de confirmação do broker: o decorator serializa os envios na sessão
+        WebSocketSession outbound = new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMs, bufferSizeLimit);
+        ProducerSession producerSession = new ProducerSession(producerId, outbound, window,
+                tokenExpiresAt != null ? tokenExpiresAt : Long.MAX_VALUE);
+        sessions.put(session.getId(), producerSession);
+        producerSession.reply(ProducerSocketReply.window(window));
+        System.out.println("Producer " + producerId + " opened WebSocket session " + session.getId());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage textMessage) {
+        ProducerSession producerSession = sessions.get(session.getId());
+        if (producerSession == null) {
+            return;
+        }
+
+        ProducerSocketFrame frame;
+        JsonParseException invalidFrame = null;
+        try {
+            frame = gson.fromJson(textMessage.getPayload(), ProducerSocketFrame.class);
+        } catch (JsonParseException e) {
+            frame = null;
+            invalidFrame = e;
+        }
+        if (System.currentTimeMillis() >= producerSession.tokenExpiresAt) {
+            producerSession.reply(ProducerSocketReply.nack(frame != null ? frame.getSeq() : null, "Token expired; reconnect with a new token.", producerSession.credits.get()));
+            producerSession.close(CloseStatus.POLICY_VIOLATION.withReason("Token expired"));
+            return;
+        }
+        if (invalidFrame != null) {
+            producerSession.reply(ProducerSocketReply.nack(null, "Invalid frame: " + invalidFrame.getMessage(), producerSession.credits.get()));
+            return;
+        }
+        if (frame == null || frame.getMessage() == null || frame.getMessage().getData() == null || frame.getMessage().getData().isBlank()) {
+            producerSession.reply(ProducerSocketReply.nack(frame != null ? frame.getSeq() : null, "Message data cannot be empty", producerSession.credits.get()));
+            return;
+        }
+
+        Long seq = frame.getSeq();
+        if (producerSession.credits.getAndDecrement() <= 0) {
+            int credits = producerSession.credits.incrementAndGet();
+            producerSession.reply(ProducerSocketReply.nack(seq, "Flow control window exceeded; wait for acks before sending.", credits));
+            return;
+        }
+
+        CompletableFuture<String> future;
+        try {
+            future = iProducerService.sendAuthorized(producerSession.producerId, frame.getMessage());
+        } catch (RuntimeException e) {
+            int credits = producerSession.credits.incrementAndGet();
+            producerSession.reply(ProducerSocketReply.nack(seq, e.getMessage(), credits));
+            return;
+        }
+        future.whenComplete((messageId, ex) -> {
+            int credits = producerSession.credits.incrementAndGet();
+            if (ex == null) {
+                producerSession.reply(ProducerSocketReply.ack(seq, messageId, credits));
+            } else {
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                producerSession.reply(ProducerSocketReply.nack(seq, cause.getMessage(), credits));
+            }
+        });
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        ProducerSession producerSession = sessions.remove(session.getId());
+        if (producerSession != null) {
+            System.out.println("Producer " + producerSession.producerId + " closed WebSocket session " + session.getId() + " (" + status + ")");
+        }
+    }
+
+    private final class ProducerSession {
+        private final String producerId;
+        private final WebSocketSession outbound;
+        private final AtomicInteger credits;
+        private final long tokenExpiresAt;
+
+        private ProducerSession(String producerId, WebSocketSession outbound, int window, long tokenExpiresAt) {
+            this.producerId = producerId;
+            this.outbound = outbound;
+            this.credits = new AtomicInteger(window);
+            this.tokenExpiresAt = tokenExpiresAt;
+        }
+
+        private void close(CloseStatus status) {
+            try {
+                outbound.close(status);
+            } catch (IOException e) {
+                System.err.println("Failed to close WebSocket for producer " + producerId + ": " + e.getMessage());
+            }
+        }
+
+        private void reply(ProducerSocketReply reply) {
+            if (!outbound.isOpen()) {
+                return;
+            }
+            try {
+                outbound.sendMessage(new TextMessage(gson.toJson(reply)));
+            } catch (IOException | RuntimeException e) {
+                // Cliente lento além do limite do decorator ou conexão caída: a sessão é encerrada pelo próprio decorator
+                System.err.println("Failed to reply on WebSocket for producer " + producerId + ": " + e.getMessage());
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+// Caminho: services/middleware-service/src/test/java/com/ufma/tap/middleware/cache/EntityCacheTest.java
+package com.ufma.tap.middleware.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EntityCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<String, Optional<String>> loader = key -> {
+        loads.incrementAndGet();
+        return Optional.of("value-" + key);
+    };
+
+    @Test
+    void reloadedKeyIsNotEvictedByItsPreviousPosition() {
+        EntityCache<String> cache = new EntityCache<>("test", 2, 60_000);
+        cache.get("a", loader);
+        cache.get("b", loader);
+        cache.invalidate("a");
+        cache.get("a", loader); // Ordem agora: b, a
+        cache.get("c", loader); // Deve remover 'b', não o 'a' recém-carregado
+
+        loads.set(0);
+        cache.get("a", loader);
+        cache.get("c", loader);
+        assertEquals(0, loads.get());
+        cache.get("b", loader);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void repeatedInvalidationsKeepEveryKeyCachedBelowMaxSize() {
+        EntityCache<String> cache = new EntityCache<>("test", 3, 60_000);
+        for (int i = 0; i < 1_000; i++) {
+            cache.get("hot", loader);
+            cache.invalidate("hot");
+        }
+        cache.get("hot", loader);
+        cache.get("x", loader);
+        cache.get("y", loader);
+
+        loads.set(0);
+        cache.get("hot", loader);
+        cache.get("x", loader);
+        cache.get("y", loader);
+        assertEquals(0, loads.get());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void evictsOldestWhenFull() {
+        EntityCache<String> cache = new EntityCache<>("test", 2, 60_000);
+        cache.get("a", loader);
+        cache.get("b", loader);
+        cache.get("c", loader);
+
+        assertEquals(2, cache.size());
+        loads.set(0);
+        cache.get("a", loader);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void missingEntitiesAreNotCached() {
+        EntityCache<String> cache = new EntityCache<>("test", 2, 60_000);
+        AtomicInteger misses = new AtomicInteger();
+        cache.get("ghost", key -> {
+            misses.incrementAndGet();
+            return Optional.empty();
+        });
+        cache.get("ghost", key -> {
+            misses.incrementAndGet();
+            return Optional.empty();
+        });
+        assertEquals(2, misses.get());
+        assertEquals(0, cache.size());
+    }
+}
\ No newline at end of file
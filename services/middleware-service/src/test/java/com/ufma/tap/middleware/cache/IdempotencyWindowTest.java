@@ -0,0 +1,146 @@
+// Caminho: services/middleware-service/src/test/java/com/ufma/tap/middleware/cache/IdempotencyWindowTest.java
+package com.ufma.tap.middleware.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyWindowTest {
+
+    private static final long WINDOW_MS = 1_000;
+
+    // Janela de 1 s, no máximo 3 chaves no conjunto exato, Bloom com 4 gerações de 250 ms
+    private final IdempotencyWindow window = new IdempotencyWindow(WINDOW_MS, 3, 4, 1_000, 0.0001, 0);
+
+    @Test
+    void secondClaimInsideTheWindowIsADuplicateWithTheOriginalMessageId() {
+        IdempotencyWindow.Claim first = window.claim("producer", "key", "m-1", 0);
+        IdempotencyWindow.Claim second = window.claim("producer", "key", "m-2", 10);
+
+        assertFalse(first.isDuplicate());
+        assertEquals("m-1", first.getMessageId());
+        assertTrue(second.isDuplicate());
+        assertEquals("m-1", second.getMessageId());
+    }
+
+    @Test
+    void keysAreScopedByProducer() {
+        window.claim("producer-a", "key", "m-1", 0);
+        assertFalse(window.claim("producer-b", "key", "m-2", 0).isDuplicate());
+    }
+
+    @Test
+    void releasedKeyCanBeClaimedAgain() {
+        window.release(window.claim("producer", "key", "m-1", 0));
+
+        IdempotencyWindow.Claim retry = window.claim("producer", "key", "m-2", 10);
+        assertFalse(retry.isDuplicate());
+        assertEquals("m-2", retry.getMessageId());
+    }
+
+    @Test
+    void releaseOfAnOlderAttemptDoesNotFreeTheCurrentClaim() {
+        IdempotencyWindow.Claim first = window.claim("producer", "key", "m-1", 0);
+        window.release(first);
+        window.claim("producer", "key", "m-2", 10);
+        window.release(first); // Falha atrasada da primeira tentativa
+
+        assertTrue(window.claim("producer", "key", "m-3", 20).isDuplicate());
+    }
+
+    @Test
+    void confirmedKeyEvictedFromTheExactSetIsStillCaughtByTheBloomFilter() {
+        window.confirm(window.claim("producer", "confirmed", "m-1", 0), 0);
+        for (int i = 0; i < 4; i++) { // Empurra 'confirmed' para fora do conjunto exato (máximo 3)
+            window.claim("producer", "filler-" + i, "f-" + i, 1);
+        }
+
+        IdempotencyWindow.Claim again = window.claim("producer", "confirmed", "m-2", 2);
+        assertTrue(again.isDuplicate());
+        assertNull(again.getMessageId()); // Só o Bloom filter lembra: o messageId original não está mais disponível
+        assertTrue(again.getOriginal().isDone());
+        assertNull(again.getOriginal().join());
+    }
+
+    @Test
+    void unconfirmedKeyEvictedFromTheExactSetIsAcceptedAgain() {
+        window.claim("producer", "pending", "m-1", 0);
+        for (int i = 0; i < 4; i++) {
+            window.claim("producer", "filler-" + i, "f-" + i, 1);
+        }
+
+        assertFalse(window.claim("producer", "pending", "m-2", 2).isDuplicate());
+    }
+
+    @Test
+    void keyIsForgottenAfterTheWindow() {
+        window.confirm(window.claim("producer", "key", "m-1", 0), 0);
+
+        assertTrue(window.claim("producer", "key", "m-2", 500).isDuplicate());
+        IdempotencyWindow.Claim afterWindow = window.claim("producer", "key", "m-3", WINDOW_MS + 1);
+        assertFalse(afterWindow.isDuplicate());
+        assertEquals("m-3", afterWindow.getMessageId());
+    }
+
+    @Test
+    void duplicateOfAConfirmedKeySucceedsImmediately() {
+        window.confirm(window.claim("producer", "key", "m-1", 0), 0);
+
+        IdempotencyWindow.Claim retry = window.claim("producer", "key", "m-2", 10);
+        assertTrue(retry.isDuplicate());
+        assertEquals("m-1", retry.getOriginal().getNow(null));
+    }
+
+    @Test
+    void duplicateOfAPendingKeyWaitsForTheOriginal() {
+        IdempotencyWindow.Claim original = window.claim("producer", "key", "m-1", 0);
+        IdempotencyWindow.Claim retry = window.claim("producer", "key", "m-2", 10);
+
+        assertTrue(retry.isDuplicate());
+        assertFalse(retry.getOriginal().isDone()); // Original ainda em voo: o reenvio não pode responder sucesso
+
+        window.confirm(original, 20);
+        assertEquals("m-1", retry.getOriginal().join());
+    }
+
+    @Test
+    void duplicateOfAPendingKeyThatFailsCanClaimTheKeyAndPublish() {
+        IdempotencyWindow.Claim original = window.claim("producer", "key", "m-1", 0);
+        IdempotencyWindow.Claim retry = window.claim("producer", "key", "m-2", 10);
+
+        // Quem acompanha o original tenta reservar de novo assim que ele falha (como o ProducerService faz)
+        CompletableFuture<IdempotencyWindow.Claim> reclaim = retry.getOriginal()
+                .handle((messageId, ex) -> ex == null ? null : window.claim("producer", "key", "m-2", 20));
+        window.release(original);
+
+        assertTrue(retry.getOriginal().isCompletedExceptionally());
+        IdempotencyWindow.Claim second = reclaim.join();
+        assertFalse(second.isDuplicate());
+        assertEquals("m-2", second.getMessageId());
+
+        // A nova tentativa passa a ser o original dos próximos reenvios
+        IdempotencyWindow.Claim third = window.claim("producer", "key", "m-3", 30);
+        assertTrue(third.isDuplicate());
+        assertEquals("m-2", third.getMessageId());
+        window.confirm(second, 40);
+        assertEquals("m-2", third.getOriginal().join());
+    }
+
+    @Test
+    void confirmAndReleaseOfADuplicateClaimDoNothing() {
+        IdempotencyWindow.Claim original = window.claim("producer", "key", "m-1", 0);
+        IdempotencyWindow.Claim retry = window.claim("producer", "key", "m-2", 10);
+
+        window.release(retry);
+        window.confirm(retry, 20);
+
+        assertFalse(retry.getOriginal().isDone());
+        assertSame(original.getOriginal(), retry.getOriginal());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+// Caminho: services/middleware-service/src/test/java/com/ufma/tap/middleware/cache/RotatingBloomFilterTest.java
+package com.ufma.tap.middleware.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RotatingBloomFilterTest {
+
+    @Test
+    void sizesEachGenerationForItsShareOfTheExpectedKeys() {
+        // 1000 chaves por janela em 4 gerações = 250 por geração; p = 1%: m = 250 * ln(100) / ln(2)^2, k = m/n * ln 2
+        RotatingBloomFilter filter = new RotatingBloomFilter(1_000, 4, 1_000, 0.01, 0);
+        assertEquals(2397, filter.bitsPerGeneration());
+        assertEquals(7, filter.hashFunctions());
+        assertEquals(4 * 38 * 8, filter.memoryBytes()); // 2397 bits -> 38 longs por geração
+    }
+
+    @Test
+    void hasNoFalseNegativesAndKeepsFalsePositivesNearTheConfiguredRate() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(1_000, 4, 40_000, 0.01, 0);
+        for (int i = 0; i < 10_000; i++) { // Capacidade de uma geração
+            filter.put("key-" + i, 0);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("key-" + i, 0), "key-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other-" + i, 0)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives); // < 2x a taxa configurada
+    }
+
+    @Test
+    void keyIsRememberedForAtLeastAllButOneGenerationAndAtMostTheWindow() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(1_000, 4, 1_000, 0.0001, 0); // Gerações de 250 ms
+        filter.put("early", 0);
+        filter.put("late", 249);
+
+        assertTrue(filter.mightContain("early", 749));
+        assertTrue(filter.mightContain("late", 999));
+        assertFalse(filter.mightContain("early", 1_000)); // A geração 0 foi reaproveitada
+        assertFalse(filter.mightContain("late", 1_000));
+    }
+
+    @Test
+    void idleLongerThanTheWindowForgetsEverythingAndKeepsWorking() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(1_000, 4, 1_000, 0.0001, 0);
+        filter.put("old", 100);
+
+        assertFalse(filter.mightContain("old", 60_000));
+        filter.put("new", 60_000);
+        assertTrue(filter.mightContain("new", 60_900));
+        assertFalse(filter.mightContain("new", 61_000));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,230 @@
+// Caminho: services/middleware-service/src/test/java/com/ufma/tap/middleware/messagebroker/activemq/ActiveMQ5AdaptersTest.java
+package com.ufma.tap.middleware.messagebroker.activemq;
+
+import com.ufma.tap.middleware.config.ActiveMQConfig;
+import com.ufma.tap.middleware.config.ExecutionThreads;
+import com.ufma.tap.middleware.dto.MessageSendResult;
+import com.ufma.tap.middleware.messagebroker.MessageDeliveryHandler;
+import com.ufma.tap.middleware.model.Broker;
+import com.ufma.tap.middleware.model.Consumer;
+import com.ufma.tap.middleware.model.Message;
+import com.ufma.tap.middleware.model.MessageToSend;
+import org.apache.activemq.broker.BrokerFilter;
+import org.apache.activemq.broker.BrokerPlugin;
+import org.apache.activemq.broker.BrokerService;
+import org.apache.activemq.broker.ConnectionContext;
+import org.apache.activemq.broker.region.Destination;
+import org.apache.activemq.command.ActiveMQDestination;
+import org.apache.activemq.command.ActiveMQQueue;
+import org.apache.activemq.command.ActiveMQTopic;
+import org.apache.activemq.command.ConnectionInfo;
+import org.apache.activemq.command.ProducerInfo;
+import org.apache.activemq.command.SessionInfo;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Produtor e consumidor ActiveMQ contra um BrokerService embutido (vm://, sem persistência). Um plugin do broker
+// conta conexões, sessões e producers abertos para verificar o reaproveitamento do pool no envio.
+@SpringJUnitConfig(classes = {ActiveMQConfig.class, ActiveMQ5Producer.class, ActiveMQ5Consumer.class, ExecutionThreads.class})
+@TestPropertySource(properties = {
+        "middleware.activemq.broker-url=vm://activemq-test?create=false",
+        "middleware.activemq.pool.max-connections=1"
+})
+class ActiveMQ5AdaptersTest {
+
+    private static final AtomicInteger connectionsOpened = new AtomicInteger();
+    private static final AtomicInteger sessionsOpened = new AtomicInteger();
+    private static final AtomicInteger producersOpened = new AtomicInteger();
+
+    private static BrokerService brokerService;
+
+    @Autowired
+    private ActiveMQ5Producer producer;
+
+    @Autowired
+    private ActiveMQ5Consumer consumer;
+
+    private final List<String> consumerIds = new ArrayList<>();
+
+    @BeforeAll
+    static void startBroker() throws Exception {
+        brokerService = new BrokerService();
+        brokerService.setBrokerName("activemq-test");
+        brokerService.setPersistent(false);
+        brokerService.setUseJmx(false);
+        brokerService.setAdvisorySupport(false);
+        brokerService.setPlugins(new BrokerPlugin[]{broker -> new BrokerFilter(broker) {
+            @Override
+            public void addConnection(ConnectionContext context, ConnectionInfo info) throws Exception {
+                connectionsOpened.incrementAndGet();
+                super.addConnection(context, info);
+            }
+
+            @Override
+            public void addSession(ConnectionContext context, SessionInfo info) throws Exception {
+                sessionsOpened.incrementAndGet();
+                super.addSession(context, info);
+            }
+
+            @Override
+            public void addProducer(ConnectionContext context, ProducerInfo info) throws Exception {
+                producersOpened.incrementAndGet();
+                super.addProducer(context, info);
+            }
+        }});
+        brokerService.start();
+        brokerService.waitUntilStarted();
+    }
+
+    @AfterAll
+    static void stopBroker() throws Exception {
+        brokerService.stop();
+        brokerService.waitUntilStopped();
+    }
+
+    @AfterEach
+    void closeConsumers() {
+        consumerIds.forEach(consumer::close);
+    }
+
+    @Test
+    void directStrategyUsesAQueue() throws Exception {
+        String name = uniqueName();
+        BlockingQueue<Message> received = new LinkedBlockingQueue<>();
+        listen("direct", name, collectInto(received));
+
+        producer.send(new MessageToSend("queued", "hello", null), broker("direct", name));
+
+        Message message = received.poll(10, TimeUnit.SECONDS);
+        assertNotNull(message);
+        assertEquals("queued", message.getMessageId());
+        assertEquals(name, message.getQueue());
+        assertTrue(destinationExists(new ActiveMQQueue(name)));
+        assertFalse(destinationExists(new ActiveMQTopic(name)));
+    }
+
+    @Test
+    void topicStrategyUsesATopic() throws Exception {
+        String name = uniqueName();
+        BlockingQueue<Message> received = new LinkedBlockingQueue<>();
+        listen("topic", name, collectInto(received));
+        awaitSubscriber(new ActiveMQTopic(name)); // Topic sem assinante descarta a mensagem
+
+        producer.send(new MessageToSend("published", "hello", null), broker("topic", name));
+
+        Message message = received.poll(10, TimeUnit.SECONDS);
+        assertNotNull(message);
+        assertEquals("published", message.getMessageId());
+        assertTrue(destinationExists(new ActiveMQTopic(name)));
+        assertFalse(destinationExists(new ActiveMQQueue(name)));
+    }
+
+    @Test
+    void sendBatchReusesThePooledConnectionSessionAndProducer() {
+        Broker broker = broker("direct", uniqueName());
+        producer.send(new MessageToSend("warm-up", "x", null), broker); // Abre a conexão e a sessão do pool
+        int connections = connectionsOpened.get();
+        int sessions = sessionsOpened.get();
+        int producers = producersOpened.get();
+        assertTrue(connections > 0 && sessions > 0);
+
+        for (int batch = 0; batch < 3; batch++) {
+            List<MessageToSend> messages = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                messages.add(new MessageToSend("batch-" + batch + "-" + i, "payload", null));
+            }
+            List<MessageSendResult> results = producer.sendBatch(messages, broker);
+            assertEquals(50, results.size());
+            results.forEach(result -> assertEquals(MessageSendResult.ACCEPTED, result.getStatus(), result.getError()));
+        }
+        producer.send(new MessageToSend("after-batches", "x", null), broker);
+
+        assertEquals(connections, connectionsOpened.get());
+        assertEquals(sessions, sessionsOpened.get());
+        assertEquals(producers, producersOpened.get());
+    }
+
+    @Test
+    void binaryPayloadArrivesAsBase64Data() throws Exception {
+        String name = uniqueName();
+        BlockingQueue<Message> received = new LinkedBlockingQueue<>();
+        listen("direct", name, collectInto(received));
+
+        byte[] payload = {0, 1, 2, (byte) 0xFF, 42};
+        MessageToSend binary = new MessageToSend("binary", null, Map.of("origin", "sensor"));
+        binary.setPayload(payload);
+        binary.setContentType("application/octet-stream");
+        producer.send(binary, broker("direct", name));
+
+        Message message = received.poll(10, TimeUnit.SECONDS);
+        assertNotNull(message);
+        assertEquals("binary", message.getMessageId());
+        assertEquals(Base64.getEncoder().encodeToString(payload), message.getData());
+    }
+
+    private void listen(String strategy, String name, MessageDeliveryHandler handler) {
+        Consumer listener = new Consumer();
+        listener.setId("consumer-" + UUID.randomUUID());
+        listener.setBroker("activemq5");
+        listener.setStrategy(strategy);
+        listener.setQueue(name);
+        consumerIds.add(listener.getId());
+        consumer.connectAndListen(listener, handler);
+    }
+
+    private static MessageDeliveryHandler collectInto(BlockingQueue<Message> received) {
+        return message -> {
+            received.add(message);
+            return CompletableFuture.completedFuture(null);
+        };
+    }
+
+    private static boolean destinationExists(ActiveMQDestination destination) throws Exception {
+        return brokerService.getBroker().getDestinationMap().containsKey(destination);
+    }
+
+    private static void awaitSubscriber(ActiveMQDestination destination) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            Destination regionDestination = brokerService.getBroker().getDestinationMap().get(destination);
+            if (regionDestination != null && !regionDestination.getConsumers().isEmpty()) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("No subscriber on " + destination);
+    }
+
+    private static Broker broker(String strategy, String name) {
+        Broker broker = new Broker();
+        broker.setName("activemq5");
+        broker.setStrategy(strategy);
+        broker.setQueue(name);
+        return broker;
+    }
+
+    private static String uniqueName() {
+        return "test-" + UUID.randomUUID();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,137 @@
+// Caminho: services/middleware-service/src/test/java/com/ufma/tap/middleware/messagebroker/inmemory/InMemoryAdaptersTest.java
+package com.ufma.tap.middleware.messagebroker.inmemory;
+
+import com.ufma.tap.middleware.dto.MessageSendResult;
+import com.ufma.tap.middleware.exception.MessageSendException;
+import com.ufma.tap.middleware.model.Broker;
+import com.ufma.tap.middleware.model.Consumer;
+import com.ufma.tap.middleware.model.Message;
+import com.ufma.tap.middleware.model.MessageToSend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringJUnitConfig(classes = {InMemoryBroker.class, InMemoryProducer.class, InMemoryConsumer.class})
+@TestPropertySource(properties = "middleware.inmemory.queue-capacity=1024")
+class InMemoryAdaptersTest {
+
+    @Autowired
+    private InMemoryProducer producer;
+
+    @Autowired
+    private InMemoryConsumer consumer;
+
+    @Autowired
+    private InMemoryBroker broker;
+
+    private final List<String> consumerIds = new ArrayList<>();
+
+    @AfterEach
+    void closeConsumers() {
+        consumerIds.forEach(consumer::close);
+    }
+
+    @Test
+    void sendAndSendBatchReachTheConsumerInOrder() throws Exception {
+        String queue = "queue-" + UUID.randomUUID();
+        BlockingQueue<Message> received = listen("direct", "exchange-" + queue, queue, null);
+        Broker broker = broker("direct", "exchange-" + queue, queue, null);
+
+        producer.send(new MessageToSend("m-0", "zero", null), broker);
+        List<MessageToSend> batch = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            batch.add(new MessageToSend("m-" + i, "data-" + i, null));
+        }
+        producer.sendBatch(batch, broker)
+                .forEach(result -> assertEquals(MessageSendResult.ACCEPTED, result.getStatus(), result.getError()));
+
+        for (int i = 0; i <= 100; i++) {
+            Message message = received.poll(10, TimeUnit.SECONDS);
+            assertNotNull(message, "message " + i);
+            assertEquals("m-" + i, message.getMessageId());
+            assertEquals(queue, message.getQueue());
+        }
+    }
+
+    @Test
+    void fullQueueRejectsThePublishWithoutDeliveringToTheOtherQueues() {
+        String exchange = "exchange-" + UUID.randomUUID();
+        broker.declareExchange(exchange, "fanout");
+        InMemoryRingBuffer<MessageToSend> full = broker.declareQueue("full-" + exchange);
+        InMemoryRingBuffer<MessageToSend> free = broker.declareQueue("free-" + exchange);
+        broker.declareBinding(exchange, "full-" + exchange, null, null);
+        broker.declareBinding(exchange, "free-" + exchange, null, null);
+        while (full.offer(new MessageToSend("filler", "x", null))) {
+            // Enche a primeira fila
+        }
+
+        MessageToSend message = new MessageToSend("m-1", "x", null);
+        assertThrows(MessageSendException.class, () -> broker.publish(exchange, null, null, message));
+        assertEquals(0, free.size()); // Nada entregue: o reenvio do cliente não duplica
+
+        full.poll();
+        broker.publish(exchange, null, null, message);
+        assertEquals(1, free.size());
+        assertEquals(full.capacity(), full.size());
+    }
+
+    @Test
+    void overlappingBindingsDeliverOneCopyPerQueue() throws Exception {
+        String exchange = "exchange-" + UUID.randomUUID();
+        BlockingQueue<Message> orders = listen("topic", exchange, "orders-" + exchange, "orders.#");
+
+        producer.send(new MessageToSend("created", "x", null), broker("topic", exchange, "orders-" + exchange, "orders.eu.created"));
+        MessageToSend binary = new MessageToSend("binary", null, null);
+        binary.setPayload(new byte[]{1, 2, 3});
+        producer.send(binary, broker("topic", exchange, "orders-" + exchange, "orders.us"));
+
+        assertEquals("created", orders.poll(10, TimeUnit.SECONDS).getMessageId());
+        Message binaryMessage = orders.poll(10, TimeUnit.SECONDS);
+        assertEquals("binary", binaryMessage.getMessageId());
+        assertEquals(Base64.getEncoder().encodeToString(new byte[]{1, 2, 3}), binaryMessage.getData());
+        assertNull(orders.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    private BlockingQueue<Message> listen(String strategy, String exchange, String queue, String routingKey) {
+        BlockingQueue<Message> received = new LinkedBlockingQueue<>();
+        Consumer listener = new Consumer();
+        listener.setId("consumer-" + UUID.randomUUID());
+        listener.setBroker("inmemory");
+        listener.setStrategy(strategy);
+        listener.setExchange(exchange);
+        listener.setQueue(queue);
+        listener.setRoutingKey(routingKey);
+        consumerIds.add(listener.getId());
+        consumer.connectAndListen(listener, message -> {
+            received.add(message);
+            return CompletableFuture.completedFuture(null);
+        });
+        return received;
+    }
+
+    private static Broker broker(String strategy, String exchange, String queue, String routingKey) {
+        Broker broker = new Broker();
+        broker.setName("inmemory");
+        broker.setStrategy(strategy);
+        broker.setExchange(exchange);
+        broker.setQueue(queue);
+        broker.setRoutingKey(routingKey);
+        return broker;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,120 @@
+// Caminho: services/middleware-service/src/test/java/com/ufma/tap/middleware/messagebroker/inmemory/InMemoryRingBufferTest.java
+package com.ufma.tap.middleware.messagebroker.inmemory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryRingBufferTest {
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        assertEquals(2, new InMemoryRingBuffer<>(0).capacity());
+        assertEquals(2, new InMemoryRingBuffer<>(1).capacity());
+        assertEquals(2, new InMemoryRingBuffer<>(2).capacity());
+        assertEquals(4, new InMemoryRingBuffer<>(3).capacity());
+        assertEquals(4, new InMemoryRingBuffer<>(4).capacity());
+        assertEquals(8, new InMemoryRingBuffer<>(5).capacity());
+        assertEquals(65536, new InMemoryRingBuffer<>(65536).capacity());
+        assertEquals(131072, new InMemoryRingBuffer<>(65537).capacity());
+    }
+
+    @Test
+    void offerReturnsFalseWhenFullAndSucceedsAgainAfterPoll() {
+        InMemoryRingBuffer<Integer> buffer = new InMemoryRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(99));
+        assertEquals(4, buffer.size());
+
+        assertEquals(0, buffer.poll());
+        assertTrue(buffer.offer(4));
+        assertFalse(buffer.offer(100));
+    }
+
+    @Test
+    void singleConsumerReadsInFifoOrderAcrossWraparounds() {
+        InMemoryRingBuffer<Integer> buffer = new InMemoryRingBuffer<>(8);
+        int next = 0;
+        int expected = 0;
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < 5; i++) {
+                assertTrue(buffer.offer(next++));
+            }
+            for (int i = 0; i < 5; i++) {
+                assertEquals(expected++, buffer.poll());
+            }
+        }
+        assertNull(buffer.poll());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void multipleProducersAndConsumersDeliverEveryItemExactlyOnce() throws Exception {
+        int producers = 4;
+        int consumers = 4;
+        int perProducer = 100_000;
+        int total = producers * perProducer;
+        InMemoryRingBuffer<Integer> buffer = new InMemoryRingBuffer<>(1024); // Pequeno: força muitas voltas e buffer cheio
+        AtomicIntegerArray seen = new AtomicIntegerArray(total);
+        AtomicLong consumed = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(producers + consumers);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                int first = p * perProducer;
+                tasks.add(pool.submit(() -> {
+                    start.await();
+                    for (int value = first; value < first + perProducer; value++) {
+                        while (!buffer.offer(value)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (int c = 0; c < consumers; c++) {
+                tasks.add(pool.submit(() -> {
+                    start.await();
+                    while (consumed.get() < total) {
+                        Integer value = buffer.poll();
+                        if (value == null) {
+                            Thread.onSpinWait();
+                            continue;
+                        }
+                        seen.incrementAndGet(value);
+                        consumed.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> task : tasks) {
+                task.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(total, consumed.get());
+        for (int i = 0; i < total; i++) {
+            assertEquals(1, seen.get(i), "item " + i);
+        }
+        assertNull(buffer.poll());
+    }
+}
\ No newline at end of file
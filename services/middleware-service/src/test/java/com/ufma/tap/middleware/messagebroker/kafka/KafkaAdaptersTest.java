@@ -0,0 +1,197 @@
+// Caminho: services/middleware-service/src/test/java/com/ufma/tap/middleware/messagebroker/kafka/KafkaAdaptersTest.java
+package com.ufma.tap.middleware.messagebroker.kafka;
+
+import com.ufma.tap.middleware.config.ExecutionThreads;
+import com.ufma.tap.middleware.config.KafkaConfig;
+import com.ufma.tap.middleware.dto.MessageSendResult;
+import com.ufma.tap.middleware.exception.MessageDeliveryException;
+import com.ufma.tap.middleware.messagebroker.MessageDeliveryHandler;
+import com.ufma.tap.middleware.model.Broker;
+import com.ufma.tap.middleware.model.Consumer;
+import com.ufma.tap.middleware.model.Message;
+import com.ufma.tap.middleware.model.MessageToSend;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Produtor e consumidor Kafka de verdade contra um broker embutido (sem banco, sem RabbitMQ)
+@SpringJUnitConfig(classes = {KafkaConfig.class, KafkaTopicRegistry.class, KafkaProducer.class, KafkaConsumer.class, ExecutionThreads.class})
+@EmbeddedKafka(partitions = 1, bootstrapServersProperty = "middleware.kafka.bootstrap-servers")
+@TestPropertySource(properties = {
+        "middleware.kafka.auto-offset-reset=earliest",
+        "middleware.kafka.compression-type=gzip",
+        "middleware.kafka.topic-partitions=1",
+        "middleware.kafka.consumer.retry-backoff-ms=100"
+})
+class KafkaAdaptersTest {
+
+    @Autowired
+    private KafkaProducer kafkaProducer;
+
+    @Autowired
+    private KafkaConsumer kafkaConsumer;
+
+    @Autowired
+    private ProducerFactory<String, String> kafkaProducerFactory;
+
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafka;
+
+    private final List<String> consumerIds = new ArrayList<>();
+
+    @AfterEach
+    void closeConsumers() {
+        consumerIds.forEach(kafkaConsumer::close);
+    }
+
+    @Test
+    void sendAndSendBatchReachTheConsumer() throws Exception {
+        String topic = uniqueTopic();
+        BlockingQueue<Message> received = new LinkedBlockingQueue<>();
+        listen(topic, message -> {
+            received.add(message);
+            return CompletableFuture.completedFuture(null);
+        });
+
+        Broker broker = broker(topic, null);
+        kafkaProducer.send(new MessageToSend("single", "hello", null), broker);
+        List<MessageSendResult> results = kafkaProducer.sendBatch(List.of(
+                new MessageToSend("batch-1", "a", null),
+                new MessageToSend("batch-2", "b", null),
+                new MessageToSend("batch-3", "c", null)), broker);
+        results.forEach(result -> assertEquals(MessageSendResult.ACCEPTED, result.getStatus(), result.getError()));
+
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            Message message = received.poll(30, TimeUnit.SECONDS);
+            assertNotNull(message, "Only " + ids.size() + " messages arrived");
+            assertEquals(topic, message.getQueue());
+            ids.add(message.getMessageId());
+        }
+        assertEquals(Set.of("single", "batch-1", "batch-2", "batch-3"), ids);
+    }
+
+    @Test
+    void routingKeyBecomesTheRecordKey() {
+        String topic = uniqueTopic();
+        kafkaProducer.sendBatch(List.of(
+                new MessageToSend("keyed-1", "a", null),
+                new MessageToSend("keyed-2", "b", null)), broker(topic, "order-42"));
+        kafkaProducer.send(new MessageToSend("unkeyed", "c", null), broker(topic, null));
+
+        Map<String, String> keys = new HashMap<>();
+        for (ConsumerRecord<String, String> record : readAll(topic, 3)) {
+            String messageId = new String(record.headers().lastHeader("messageId").value());
+            keys.put(messageId, record.key());
+        }
+        assertEquals("order-42", keys.get("keyed-1"));
+        assertEquals("order-42", keys.get("keyed-2"));
+        assertTrue(keys.containsKey("unkeyed"));
+        assertNull(keys.get("unkeyed"));
+    }
+
+    @Test
+    void producerUsesTheConfiguredCompressionAndBatching() {
+        Map<String, Object> config = kafkaProducerFactory.getConfigurationProperties();
+        assertEquals("gzip", config.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+        assertEquals(65536, config.get(ProducerConfig.BATCH_SIZE_CONFIG));
+        assertEquals(5, config.get(ProducerConfig.LINGER_MS_CONFIG));
+
+        // Lote comprimido com gzip chega legível a um consumidor comum
+        String topic = uniqueTopic();
+        String payload = "x".repeat(10_000);
+        kafkaProducer.sendBatch(List.of(new MessageToSend("compressed", payload, null)), broker(topic, null));
+        List<ConsumerRecord<String, String>> records = readAll(topic, 1);
+        assertTrue(records.get(0).value().contains(payload));
+    }
+
+    @Test
+    void failedDeliveryIsRetriedBeforeTheOffsetMoves() throws Exception {
+        String topic = uniqueTopic();
+        AtomicInteger attempts = new AtomicInteger();
+        BlockingQueue<Message> delivered = new LinkedBlockingQueue<>();
+        listen(topic, message -> {
+            if (attempts.incrementAndGet() == 1) {
+                return CompletableFuture.failedFuture(new MessageDeliveryException("SSE queue full"));
+            }
+            delivered.add(message);
+            return CompletableFuture.completedFuture(null);
+        });
+
+        kafkaProducer.send(new MessageToSend("retried", "payload", null), broker(topic, null));
+
+        Message message = delivered.poll(30, TimeUnit.SECONDS);
+        assertNotNull(message);
+        assertEquals("retried", message.getMessageId());
+        assertEquals(2, attempts.get());
+    }
+
+    private void listen(String topic, MessageDeliveryHandler handler) {
+        Consumer consumer = new Consumer();
+        consumer.setId("consumer-" + UUID.randomUUID());
+        consumer.setBroker("kafka");
+        consumer.setStrategy("topic");
+        consumer.setQueue(topic);
+        consumerIds.add(consumer.getId());
+        kafkaConsumer.connectAndListen(consumer, handler);
+    }
+
+    private List<ConsumerRecord<String, String>> readAll(String topic, int expected) {
+        Map<String, Object> props = KafkaTestUtils.consumerProps("reader-" + UUID.randomUUID(), "false", embeddedKafka);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        try (org.apache.kafka.clients.consumer.Consumer<String, String> reader =
+                     new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new StringDeserializer()).createConsumer()) {
+            reader.subscribe(List.of(topic));
+            List<ConsumerRecord<String, String>> records = new ArrayList<>();
+            long deadline = System.currentTimeMillis() + 30_000;
+            while (records.size() < expected && System.currentTimeMillis() < deadline) {
+                KafkaTestUtils.getRecords(reader, Duration.ofSeconds(1)).forEach(records::add);
+            }
+            assertEquals(expected, records.size());
+            return records;
+        }
+    }
+
+    private static Broker broker(String topic, String routingKey) {
+        Broker broker = new Broker();
+        broker.setName("kafka");
+        broker.setStrategy("topic");
+        broker.setQueue(topic);
+        broker.setRoutingKey(routingKey);
+        return broker;
+    }
+
+    private static String uniqueTopic() {
+        return "test-" + UUID.randomUUID();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+// Caminho: services/middleware-service/src/test/java/com/ufma/tap/middleware/messagebroker/rabbitmq/RabbitMQPublisherConfirmsTest.java
+package com.ufma.tap.middleware.messagebroker.rabbitmq;
+
+import com.ufma.tap.middleware.exception.MessageSendException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RabbitMQPublisherConfirmsTest {
+
+    private final RabbitMQPublisherConfirms confirms = new RabbitMQPublisherConfirms();
+
+    @BeforeEach
+    void enableConfirms() {
+        ReflectionTestUtils.setField(confirms, "publisherConfirmsEnabled", true);
+        ReflectionTestUtils.setField(confirms, "confirmTimeoutMs", 5_000L);
+    }
+
+    @Test
+    void concurrentPublicationsOfTheSameMessageIdAreTrackedSeparately() {
+        CorrelationData first = confirms.register("m-1");
+        CorrelationData second = confirms.register("m-1");
+        CompletableFuture<Void> firstConfirmed = confirms.whenConfirmed(first);
+        CompletableFuture<Void> secondConfirmed = confirms.whenConfirmed(second);
+
+        assertNotEquals(first.getId(), second.getId());
+        assertEquals(2, confirms.getInFlightCount());
+
+        first.getFuture().complete(new CorrelationData.Confirm(true, null));
+        firstConfirmed.join();
+        assertEquals(1, confirms.getInFlightCount());
+
+        second.getFuture().complete(new CorrelationData.Confirm(true, null));
+        secondConfirmed.join();
+        assertEquals(0, confirms.getInFlightCount());
+        assertEquals(2, confirms.getAckedCount());
+    }
+
+    @Test
+    void nackFailsOnlyThatPublicationAndReportsTheMessageId() {
+        CorrelationData rejected = confirms.register("m-1");
+        CorrelationData accepted = confirms.register("m-1");
+        CompletableFuture<Void> rejectedConfirmed = confirms.whenConfirmed(rejected);
+        CompletableFuture<Void> acceptedConfirmed = confirms.whenConfirmed(accepted);
+
+        rejected.getFuture().complete(new CorrelationData.Confirm(false, "queue full"));
+        accepted.getFuture().complete(new CorrelationData.Confirm(true, null));
+
+        CompletionException failure = assertThrows(CompletionException.class, rejectedConfirmed::join);
+        assertInstanceOf(MessageSendException.class, failure.getCause());
+        assertTrue(failure.getCause().getMessage().contains("m-1"));
+        assertTrue(failure.getCause().getMessage().contains("queue full"));
+        acceptedConfirmed.join();
+        assertEquals(0, confirms.getInFlightCount());
+        assertEquals(1, confirms.getNackedCount());
+    }
+
+    @Test
+    void discardRemovesOnlyTheFailedPublication() {
+        CorrelationData failed = confirms.register("m-1");
+        CorrelationData pending = confirms.register("m-1");
+
+        confirms.discard(failed);
+
+        assertEquals(1, confirms.getInFlightCount());
+        confirms.discard(pending);
+        assertEquals(0, confirms.getInFlightCount());
+    }
+}
\ No newline at end of file
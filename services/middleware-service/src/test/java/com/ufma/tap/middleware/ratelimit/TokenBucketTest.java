@@ -0,0 +1,104 @@
+// Caminho: services/middleware-service/src/test/java/com/ufma/tap/middleware/ratelimit/TokenBucketTest.java
+package com.ufma.tap.middleware.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void freshBucketGrantsTheWholeBurstThenReportsTheWait() {
+        TokenBucket bucket = new TokenBucket(10, 5, clock::get); // 1 token a cada 100 ms
+
+        assertEquals(5, bucket.availableTokens());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(), "token " + i);
+        }
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.tryAcquire());
+        assertEquals(0, bucket.availableTokens());
+    }
+
+    @Test
+    void tokensRefillAtTheConfiguredRateUpToTheBurst() {
+        TokenBucket bucket = new TokenBucket(10, 5, clock::get);
+        drain(bucket);
+
+        advance(40);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(60), bucket.tryAcquire());
+        advance(60);
+        assertEquals(0, bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire() > 0);
+
+        advance(10_000); // Ocioso por muito tempo: o balde enche só até o burst
+        assertEquals(5, bucket.availableTokens());
+        assertEquals(5, drain(bucket));
+    }
+
+    @Test
+    void refundReturnsAGrantedToken() {
+        TokenBucket bucket = new TokenBucket(10, 5, clock::get);
+        drain(bucket);
+
+        bucket.refund();
+        assertEquals(1, bucket.availableTokens());
+        assertEquals(0, bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire() > 0);
+    }
+
+    @Test
+    void tinyRatesAreClampedInsteadOfOverflowing() {
+        TokenBucket bucket = new TokenBucket(1e-12, Integer.MAX_VALUE, clock::get);
+
+        assertEquals(0, bucket.tryAcquire());
+        assertTrue(bucket.availableTokens() >= 0);
+
+        TokenBucket single = new TokenBucket(1e-12, 1, clock::get);
+        assertEquals(0, single.tryAcquire());
+        assertEquals(TokenBucket.MAX_EMISSION_INTERVAL_NANOS, single.tryAcquire()); // Tratada como 1 por dia
+    }
+
+    @Test
+    void hugeBurstIsLimitedToTheMaximumTolerance() {
+        TokenBucket bucket = new TokenBucket(1, Integer.MAX_VALUE, clock::get);
+        long granted = 0;
+        while (granted < 100_000 && bucket.tryAcquire() == 0) {
+            granted++;
+        }
+        assertEquals(100_000, granted); // Balde cheio (1 ano de tokens) e nenhum valor negativo no caminho
+        assertTrue(bucket.availableTokens() > 0);
+    }
+
+    @Test
+    void keepsLimitingWhenTheNanoClockWrapsAround() {
+        clock.set(Long.MAX_VALUE - TimeUnit.MILLISECONDS.toNanos(150));
+        TokenBucket bucket = new TokenBucket(10, 2, clock::get);
+
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.tryAcquire());
+
+        advance(200); // Passa de Long.MAX_VALUE
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.tryAcquire());
+    }
+
+    private int drain(TokenBucket bucket) {
+        int granted = 0;
+        while (bucket.tryAcquire() == 0) {
+            granted++;
+        }
+        return granted;
+    }
+
+    private void advance(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
\ No newline at end of file
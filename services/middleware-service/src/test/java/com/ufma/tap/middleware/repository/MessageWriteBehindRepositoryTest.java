@@ -0,0 +1,107 @@
+// Caminho: services/middleware-service/src/test/java/com/ufma/tap/middleware/repository/MessageWriteBehindRepositoryTest.java
+package com.ufma.tap.middleware.repository;
+
+import com.ufma.tap.middleware.config.ExecutionThreads;
+import com.ufma.tap.middleware.model.Message;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Grava pelo INSERT em lote do MessageWriteBehind e lê pelo MessageRepository (Hibernate) no mesmo PostgreSQL
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({MessageWriteBehind.class, LargeObjectTextMigration.class, ExecutionThreads.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // O writer faz commit em outra thread
+@Testcontainers(disabledWithoutDocker = true)
+class MessageWriteBehindRepositoryTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl() + "&reWriteBatchedInserts=true");
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private MessageWriteBehind messageWriteBehind;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private LargeObjectTextMigration largeObjectTextMigration;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void messageWrittenBehindIsReadBackThroughTheRepository() throws Exception {
+        String consumerId = "consumer-" + UUID.randomUUID();
+        String data = "{\"text\":\"ação " + "x".repeat(20_000) + "\"}";
+        Message message = new Message("message-" + UUID.randomUUID(), consumerId, data, "orders", new Date(System.currentTimeMillis() + 60_000));
+
+        messageWriteBehind.append(message).get(10, TimeUnit.SECONDS);
+
+        Optional<Message> byId = messageRepository.findByMessageIdAndConsumerId(message.getMessageId(), consumerId);
+        assertTrue(byId.isPresent());
+        assertEquals(data, byId.get().getData());
+        assertEquals("orders", byId.get().getQueue());
+        List<Message> byConsumer = messageRepository.findByConsumerId(consumerId);
+        assertEquals(1, byConsumer.size());
+        assertEquals(data, byConsumer.get(0).getData());
+    }
+
+    @Test
+    void messageSavedThroughTheRepositoryIsStoredInline() {
+        String consumerId = "consumer-" + UUID.randomUUID();
+        Message message = new Message("message-" + UUID.randomUUID(), consumerId, "payload", "orders", null);
+
+        messageRepository.saveAndFlush(message);
+
+        assertEquals("payload", jdbcTemplate.queryForObject("SELECT data FROM messages WHERE message_id = ?", String.class, message.getMessageId()));
+        assertEquals("payload", messageRepository.findByConsumerId(consumerId).get(0).getData());
+    }
+
+    @Test
+    void legacyLargeObjectRowIsConvertedToText() {
+        String consumerId = "consumer-" + UUID.randomUUID();
+        String messageId = "message-" + UUID.randomUUID();
+        // Linha gravada pelo mapeamento @Lob antigo: a coluna guarda o OID e o conteúdo fica em pg_largeobject
+        long oid = jdbcTemplate.queryForObject("SELECT lo_from_bytea(0, convert_to(?, 'UTF8'))", Long.class, "legado ação");
+        jdbcTemplate.update("INSERT INTO messages (message_id, consumer_id, data, queue) VALUES (?, ?, ?, ?)",
+                messageId, consumerId, Long.toString(oid), "orders");
+        jdbcTemplate.update("DELETE FROM middleware_migrations WHERE id = 'messages-data-lob-to-text'");
+
+        largeObjectTextMigration.migrate();
+
+        assertEquals("legado ação", messageRepository.findByMessageIdAndConsumerId(messageId, consumerId).orElseThrow().getData());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM pg_largeobject_metadata WHERE oid = ?", Integer.class, oid));
+
+        // Já marcada: uma segunda chamada não toca mais nos dados
+        jdbcTemplate.update("UPDATE messages SET data = ? WHERE message_id = ?", Long.toString(oid), messageId);
+        largeObjectTextMigration.migrate();
+        assertEquals(Long.toString(oid), messageRepository.findByMessageIdAndConsumerId(messageId, consumerId).orElseThrow().getData());
+    }
+}
\ No newline at end of file
@@ -6,6 +6,7 @@ import com.ufma.tap.registration.model.Project;
 // import jakarta.validation.constraints.NotBlank;
 // import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -33,6 +34,12 @@ public class ProjectDto {
     // Removido @NotEmpty para permitir que 'supportedBrokers' seja opcional em requisições PUT
     private List<String> supportedBrokers; // Nomes dos brokers (ex: "rabbitmq", "kafka")
 
+    // Opcionais: limite de envio do projeto (mensagens por segundo e rajada), aplicado pelo middleware-service
+    @PositiveOrZero(message = "Rate limit must be zero or positive")
+    private Double rateLimitPerSecond;
+    @PositiveOrZero(message = "Burst must be zero or positive")
+    private Integer rateLimitBurst;
+
     private String location; // Será gerado pelo serviço
 
     private String authToken; // Token gerado no registro, para ser retornado
@@ -45,6 +52,8 @@ public class ProjectDto {
         project.setRegion(this.region);
         project.setSupportedBrokers(this.supportedBrokers);
         project.setLocation(this.location);
+        project.setRateLimitPerSecond(this.rateLimitPerSecond);
+        project.setRateLimitBurst(this.rateLimitBurst);
         project.setAuthToken(this.authToken);
         return project;
     }
@@ -56,6 +65,8 @@ public class ProjectDto {
         dto.setRegion(project.getRegion());
         dto.setSupportedBrokers(project.getSupportedBrokers());
         dto.setLocation(project.getLocation());
+        dto.setRateLimitPerSecond(project.getRateLimitPerSecond());
+        dto.setRateLimitBurst(project.getRateLimitBurst());
         dto.setAuthToken(project.getAuthToken());
         return dto;
     }
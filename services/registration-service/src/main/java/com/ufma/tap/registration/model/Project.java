@@ -24,6 +24,12 @@ public class Project {
     @Column(name = "broker_name")
     private List<String> supportedBrokers;
 
+    // Limite de envio do projeto inteiro, aplicado pelo middleware-service (null = padrão do middleware, 0 = sem limite)
+    @Column(name = "rate_limit_per_second")
+    private Double rateLimitPerSecond;
+    @Column(name = "rate_limit_burst")
+    private Integer rateLimitBurst;
+
     @Transient
     private String authToken;
 }
\ No newline at end of file
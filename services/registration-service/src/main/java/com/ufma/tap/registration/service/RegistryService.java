@@ -86,6 +86,13 @@ public class RegistryService implements IRegistryService {
             existingProject.setSupportedBrokers(updatedProject.getSupportedBrokers());
         }
 
+        if (updatedProject.getRateLimitPerSecond() != null) {
+            existingProject.setRateLimitPerSecond(updatedProject.getRateLimitPerSecond());
+        }
+        if (updatedProject.getRateLimitBurst() != null) {
+            existingProject.setRateLimitBurst(updatedProject.getRateLimitBurst());
+        }
+
         // Salva as alterações no banco de dados
         return projectRepository.save(existingProject);
     }